@@ -0,0 +1,248 @@
+package com.example.be.service;
+
+import com.example.be.dto.BidDto;
+import com.example.be.dto.BidsAndRequestsResponse;
+import com.example.be.dto.ParcelRequestWithBidsDto;
+import com.example.be.model.Bid;
+import com.example.be.model.ParcelRequest;
+import com.example.be.model.Profile;
+import com.example.be.model.ReturnRoute;
+import com.example.be.model.RouteSegment;
+import com.example.be.types.BidStatus;
+import com.example.be.types.ParcelStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Deterministic synthetic inputs of production-like size for the benchmarks
+ */
+final class BenchmarkData {
+
+    static final int ROUTE_SEGMENTS = 40;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Intercity-style route heading roughly north from Colombo in ~50 m steps with some wiggle
+     */
+    static String routePolyline(int points, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(points * 8);
+        double lat = 6.9271;
+        double lng = 79.8612;
+        int prevLat = 0;
+        int prevLng = 0;
+        for (int i = 0; i < points; i++) {
+            int latE5 = (int) Math.round(lat * 1e5);
+            int lngE5 = (int) Math.round(lng * 1e5);
+            encodeValue(latE5 - prevLat, sb);
+            encodeValue(lngE5 - prevLng, sb);
+            prevLat = latE5;
+            prevLng = lngE5;
+            lat += 0.00045 + (random.nextDouble() - 0.5) * 0.0002;
+            lng += (random.nextDouble() - 0.5) * 0.0004;
+        }
+        return sb.toString();
+    }
+
+    private static void encodeValue(int value, StringBuilder sb) {
+        int v = value < 0 ? ~(value << 1) : (value << 1);
+        while (v >= 0x20) {
+            sb.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        sb.append((char) (v + 63));
+    }
+
+    /**
+     * Random point pairs within Sri Lanka, packed {lat1, lng1, lat2, lng2, ...}
+     */
+    static double[] pointPairs(int pairs, long seed) {
+        Random random = new Random(seed);
+        double[] coords = new double[pairs * 4];
+        for (int i = 0; i < coords.length; i += 2) {
+            coords[i] = 6.0 + random.nextDouble() * 3.8;
+            coords[i + 1] = 79.7 + random.nextDouble() * 2.1;
+        }
+        return coords;
+    }
+
+    static ReturnRoute route(UUID routeId) {
+        Profile driver = new Profile();
+        driver.setId(UUID.randomUUID());
+        ReturnRoute route = new ReturnRoute();
+        route.setId(routeId);
+        route.setDriver(driver);
+        route.setOriginLat(BigDecimal.valueOf(6.9271));
+        route.setOriginLng(BigDecimal.valueOf(79.8612));
+        route.setDestinationLat(BigDecimal.valueOf(9.6615));
+        route.setDestinationLng(BigDecimal.valueOf(80.0255));
+        route.setTotalDistanceKm(BigDecimal.valueOf(396));
+        return route;
+    }
+
+    /**
+     * ROUTE_SEGMENTS equal segments along the straight line from the route's origin to its destination
+     */
+    static List<RouteSegment> segments(ReturnRoute route) {
+        double lat0 = route.getOriginLat().doubleValue();
+        double lng0 = route.getOriginLng().doubleValue();
+        double dLat = (route.getDestinationLat().doubleValue() - lat0) / ROUTE_SEGMENTS;
+        double dLng = (route.getDestinationLng().doubleValue() - lng0) / ROUTE_SEGMENTS;
+        List<RouteSegment> segments = new ArrayList<>(ROUTE_SEGMENTS);
+        for (int i = 0; i < ROUTE_SEGMENTS; i++) {
+            RouteSegment segment = new RouteSegment();
+            segment.setRoute(route);
+            segment.setSegmentIndex(i);
+            segment.setStartLat(BigDecimal.valueOf(lat0 + i * dLat));
+            segment.setStartLng(BigDecimal.valueOf(lng0 + i * dLng));
+            segment.setEndLat(BigDecimal.valueOf(lat0 + (i + 1) * dLat));
+            segment.setEndLng(BigDecimal.valueOf(lng0 + (i + 1) * dLng));
+            segment.setDistanceKm(BigDecimal.valueOf(route.getTotalDistanceKm().doubleValue() / ROUTE_SEGMENTS));
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    static List<ParcelRequest> parcelRequests(int count, long seed) {
+        Random random = new Random(seed);
+        List<ParcelRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Profile customer = new Profile();
+            customer.setId(UUID.randomUUID());
+            customer.setFirstName("Customer");
+            customer.setLastName(String.valueOf(i));
+            customer.setEmail("customer" + i + "@example.com");
+            customer.setPhoneNumber("+9477" + (1000000 + i));
+
+            ParcelRequest request = new ParcelRequest();
+            request.setId(UUID.randomUUID());
+            request.setCustomer(customer);
+            request.setPickupLat(decimal(6.9 + random.nextDouble() * 2.7, 8));
+            request.setPickupLng(decimal(79.8 + random.nextDouble() * 0.4, 8));
+            request.setDropoffLat(decimal(6.9 + random.nextDouble() * 2.7, 8));
+            request.setDropoffLng(decimal(79.8 + random.nextDouble() * 0.4, 8));
+            request.setWeightKg(decimal(1 + random.nextDouble() * 200, 2));
+            request.setVolumeM3(decimal(0.05 + random.nextDouble() * 3, 2));
+            request.setMaxBudget(decimal(2000 + random.nextDouble() * 20000, 2));
+            request.setDeadline(ZonedDateTime.now().plusDays(3));
+            request.setStatus(ParcelStatus.OPEN);
+            request.setCreatedAt(ZonedDateTime.now());
+            request.setUpdatedAt(ZonedDateTime.now());
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    static List<Bid> bids(ReturnRoute route, List<ParcelRequest> requests, int bidsPerRequest, long seed) {
+        Random random = new Random(seed);
+        List<Bid> bids = new ArrayList<>(requests.size() * bidsPerRequest);
+        for (ParcelRequest request : requests) {
+            for (int i = 0; i < bidsPerRequest; i++) {
+                int start = random.nextInt(ROUTE_SEGMENTS - 1);
+                Bid bid = new Bid();
+                bid.setId(UUID.randomUUID());
+                bid.setRequest(request);
+                bid.setRoute(route);
+                bid.setStartIndex(start);
+                bid.setEndIndex(start + 1 + random.nextInt(ROUTE_SEGMENTS - 1 - start));
+                bid.setOfferedPrice(decimal(1500 + random.nextDouble() * 15000, 2));
+                bid.setStatus(BidStatus.PENDING);
+                bid.setCreatedAt(ZonedDateTime.now());
+                bid.setUpdatedAt(ZonedDateTime.now());
+                bids.add(bid);
+            }
+        }
+        return bids;
+    }
+
+    /**
+     * Rows as BidRepository.findRequestsWithBidsByRouteId returns them: one per bid, grouped by request
+     */
+    static List<Object[]> requestBidRows(List<ParcelRequest> requests, List<Bid> bids) {
+        Map<UUID, List<Bid>> bidsByRequest = new HashMap<>();
+        for (Bid bid : bids) {
+            bidsByRequest.computeIfAbsent(bid.getRequest().getId(), k -> new ArrayList<>()).add(bid);
+        }
+        List<Object[]> rows = new ArrayList<>(bids.size());
+        for (ParcelRequest request : requests) {
+            for (Bid bid : bidsByRequest.getOrDefault(request.getId(), List.of())) {
+                Profile customer = request.getCustomer();
+                rows.add(new Object[]{
+                        request.getId(), customer.getId(), request.getPickupLat(), request.getPickupLng(),
+                        request.getDropoffLat(), request.getDropoffLng(), request.getWeightKg(), request.getVolumeM3(),
+                        request.getDescription(), request.getMaxBudget(), request.getDeadline().toOffsetDateTime(),
+                        request.getStatus().name(), request.getCreatedAt().toOffsetDateTime(),
+                        request.getUpdatedAt().toOffsetDateTime(),
+                        customer.getFirstName(), customer.getLastName(), customer.getEmail(), customer.getPhoneNumber(),
+                        bid.getId(), bid.getStartIndex(), bid.getEndIndex(), bid.getOfferedPrice(), bid.getStatus().name(),
+                        bid.getCreatedAt().toOffsetDateTime(), bid.getUpdatedAt().toOffsetDateTime()
+                });
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * The response shape the optimal-bids endpoint hands to BidSelectionService
+     */
+    static BidsAndRequestsResponse bidsAndRequests(ReturnRoute route, List<ParcelRequest> requests, List<Bid> bids) {
+        List<ParcelRequestWithBidsDto> withBids = new ArrayList<>(requests.size());
+        BigDecimal highest = BigDecimal.ZERO;
+        BigDecimal lowest = null;
+        int bidIndex = 0;
+        int perRequest = requests.isEmpty() ? 0 : bids.size() / requests.size();
+        for (ParcelRequest request : requests) {
+            ParcelRequestWithBidsDto dto = new ParcelRequestWithBidsDto();
+            dto.setId(request.getId());
+            dto.setCustomerId(request.getCustomer().getId());
+            dto.setPickupLat(request.getPickupLat());
+            dto.setPickupLng(request.getPickupLng());
+            dto.setDropoffLat(request.getDropoffLat());
+            dto.setDropoffLng(request.getDropoffLng());
+            dto.setWeightKg(request.getWeightKg());
+            dto.setVolumeM3(request.getVolumeM3());
+            dto.setMaxBudget(request.getMaxBudget());
+            dto.setDeadline(request.getDeadline());
+            List<BidDto> requestBids = new ArrayList<>(perRequest);
+            for (int i = 0; i < perRequest; i++) {
+                Bid bid = bids.get(bidIndex++);
+                BidDto bidDto = new BidDto();
+                bidDto.setId(bid.getId());
+                bidDto.setRequestId(request.getId());
+                bidDto.setRouteId(route.getId());
+                bidDto.setStartIndex(bid.getStartIndex());
+                bidDto.setEndIndex(bid.getEndIndex());
+                bidDto.setOfferedPrice(bid.getOfferedPrice());
+                bidDto.setStatus(bid.getStatus());
+                requestBids.add(bidDto);
+                highest = highest.max(bid.getOfferedPrice());
+                lowest = lowest == null ? bid.getOfferedPrice() : lowest.min(bid.getOfferedPrice());
+            }
+            dto.setBids(requestBids);
+            dto.setTotalBids(requestBids.size());
+            withBids.add(dto);
+        }
+        BidsAndRequestsResponse response = new BidsAndRequestsResponse();
+        response.setRouteId(route.getId());
+        response.setParcelRequestsWithBids(withBids);
+        response.setTotalParcelRequests(requests.size());
+        response.setTotalBids(bids.size());
+        response.setHighestBid(highest);
+        response.setLowestBid(lowest);
+        return response;
+    }
+
+    private static BigDecimal decimal(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.be.service;
+
+import com.example.be.dto.RouteBidsAndRequestsDto;
+import com.example.be.model.Bid;
+import com.example.be.model.ParcelRequest;
+import com.example.be.model.ReturnRoute;
+import com.example.be.repository.BidRepository;
+import com.example.be.repository.CustomerBidRepository;
+import com.example.be.repository.DeliveryTrackingRepository;
+import com.example.be.repository.ParcelRequestRepository;
+import com.example.be.repository.ProfileRepository;
+import com.example.be.repository.ReturnRouteRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-memory grouping and statistics of BidService.getBidsAndRequestsByRouteId with the repositories
+ * stubbed, i.e. everything that happens after the rows arrive from the database.
+ */
+@State(Scope.Benchmark)
+public class BidAggregationBenchmark {
+
+    @Param({"50", "500"})
+    public int requests;
+
+    @Param({"3", "10"})
+    public int bidsPerRequest;
+
+    private BidService bidService;
+    private UUID routeId;
+
+    @Setup
+    public void setUp() {
+        routeId = UUID.randomUUID();
+        ReturnRoute route = BenchmarkData.route(routeId);
+        List<ParcelRequest> parcelRequests = BenchmarkData.parcelRequests(requests, 17);
+        List<Bid> bids = BenchmarkData.bids(route, parcelRequests, bidsPerRequest, 19);
+
+        BidRepository bidRepository = mock(BidRepository.class);
+        when(bidRepository.findRequestsWithBidsByRouteId(eq(routeId), any()))
+                .thenReturn(BenchmarkData.requestBidRows(parcelRequests, bids));
+
+        bidService = new BidService(bidRepository, mock(CustomerBidRepository.class),
+                mock(ReturnRouteRepository.class), mock(ProfileRepository.class),
+                mock(ParcelRequestRepository.class), mock(DeliveryTrackingRepository.class));
+    }
+
+    @Benchmark
+    public RouteBidsAndRequestsDto getBidsAndRequestsByRouteId() {
+        return bidService.getBidsAndRequestsByRouteId(routeId, null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.be.service;
+
+import com.example.be.dto.BidSelectionDto;
+import com.example.be.dto.BidsAndRequestsResponse;
+import com.example.be.model.Bid;
+import com.example.be.model.ParcelRequest;
+import com.example.be.model.ReturnRoute;
+import com.example.be.repository.ReturnRouteRepository;
+import com.example.be.repository.RouteSegmentRepository;
+import com.example.be.repository.VehicleRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Scoring and capacity packing in BidSelectionService.selectOptimalBids.
+ * The geocoding batch is stubbed so the numbers reflect our own work, not Google latency.
+ */
+@State(Scope.Benchmark)
+public class BidSelectionBenchmark {
+
+    // Parcel requests on the route; each carries 4 bids
+    @Param({"25", "250", "1000"})
+    public int requests;
+
+    @Param({"greedy", "auto"})
+    public String solver;
+
+    private BidSelectionService bidSelectionService;
+    private UUID routeId;
+    private BidsAndRequestsResponse response;
+
+    @Setup
+    public void setUp() {
+        routeId = UUID.randomUUID();
+        ReturnRoute route = BenchmarkData.route(routeId);
+        List<ParcelRequest> parcelRequests = BenchmarkData.parcelRequests(requests, 11);
+        List<Bid> bids = BenchmarkData.bids(route, parcelRequests, 4, 13);
+        response = BenchmarkData.bidsAndRequests(route, parcelRequests, bids);
+
+        GeocodingService geocodingService = mock(GeocodingService.class);
+        when(geocodingService.getLocationNames(any())).thenReturn(new HashMap<>());
+        ReturnRouteRepository routeRepository = mock(ReturnRouteRepository.class);
+        when(routeRepository.findById(routeId)).thenReturn(Optional.of(route));
+
+        RouteSegmentRepository segmentRepository = mock(RouteSegmentRepository.class);
+        when(segmentRepository.findByRouteIdOrderBySegmentIndex(routeId)).thenReturn(BenchmarkData.segments(route));
+
+        bidSelectionService = new BidSelectionService(geocodingService, routeRepository, mock(VehicleRepository.class),
+                new RouteGeometryService(segmentRepository, 30),
+                List.of(new GreedyBidPackingSolver(), new BranchAndBoundBidPackingSolver(), new LocalSearchBidPackingSolver()));
+        // Defaults from application.properties
+        ReflectionTestUtils.setField(bidSelectionService, "wPrice", 0.5);
+        ReflectionTestUtils.setField(bidSelectionService, "wVolume", 0.2);
+        ReflectionTestUtils.setField(bidSelectionService, "wDistance", 0.2);
+        ReflectionTestUtils.setField(bidSelectionService, "wDetour", 0.1);
+        ReflectionTestUtils.setField(bidSelectionService, "capacityC", 100.0);
+        ReflectionTestUtils.setField(bidSelectionService, "solverMode", solver);
+        ReflectionTestUtils.setField(bidSelectionService, "timeBudgetMs", 200L);
+        ReflectionTestUtils.setField(bidSelectionService, "exactMaxBids", 40);
+    }
+
+    @Benchmark
+    public List<BidSelectionDto> selectOptimalBids() {
+        return bidSelectionService.selectOptimalBids(routeId, response);
+    }
+
+    @Benchmark
+    public List<BidSelectionDto> getAllBidsRanked() {
+        return bidSelectionService.getAllBidsRanked(routeId, response);
+    }
+}
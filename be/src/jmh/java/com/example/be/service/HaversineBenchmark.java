@@ -0,0 +1,64 @@
+package com.example.be.service;
+
+import com.example.be.util.GeoUtils;
+import com.example.be.util.LatLng;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+
+/**
+ * The Haversine variants in the codebase, over the same 10k point pairs:
+ * LatLng objects (RouteService), BigDecimal in and out (PricePredictionService) and plain doubles
+ * (GeoUtils, which PolylineService's fused loop is based on).
+ */
+@State(Scope.Benchmark)
+public class HaversineBenchmark {
+
+    private static final int PAIRS = 10_000;
+
+    private double[] coords;
+    private LatLng[] latLngs;
+    private BigDecimal[] decimals;
+
+    @Setup
+    public void setUp() {
+        coords = BenchmarkData.pointPairs(PAIRS, 7);
+        latLngs = new LatLng[coords.length / 2];
+        decimals = new BigDecimal[coords.length];
+        for (int i = 0; i < coords.length; i += 2) {
+            latLngs[i / 2] = new LatLng(coords[i], coords[i + 1]);
+            decimals[i] = BigDecimal.valueOf(coords[i]);
+            decimals[i + 1] = BigDecimal.valueOf(coords[i + 1]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void routeServiceLatLng(Blackhole bh) {
+        for (int i = 0; i < latLngs.length; i += 2) {
+            bh.consume(RouteService.calculateDistance(latLngs[i], latLngs[i + 1]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void pricePredictionBigDecimal(Blackhole bh) {
+        for (int i = 0; i < decimals.length; i += 4) {
+            bh.consume(PricePredictionService.calculateDistanceFromCoordinates(
+                    decimals[i], decimals[i + 1], decimals[i + 2], decimals[i + 3]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void geoUtilsPrimitive(Blackhole bh) {
+        for (int i = 0; i < coords.length; i += 4) {
+            bh.consume(GeoUtils.haversineKm(coords[i], coords[i + 1], coords[i + 2], coords[i + 3]));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.be.service;
+
+import com.example.be.util.LatLng;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Route creation decodes and samples the driver's polyline; intercity routes run to tens of thousands of points
+ */
+@State(Scope.Benchmark)
+public class PolylineBenchmark {
+
+    @Param({"1000", "20000", "60000"})
+    public int points;
+
+    private final PolylineService polylineService = new PolylineService();
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        encoded = BenchmarkData.routePolyline(points, 42);
+    }
+
+    @Benchmark
+    public List<LatLng> sampleByDistance() {
+        // Interval used by RouteService.createRoute
+        return polylineService.sampleByDistance(encoded, 10);
+    }
+
+    @Benchmark
+    public List<LatLng> decodePolyline() {
+        return polylineService.decodePolyline(encoded);
+    }
+
+    @Benchmark
+    public double[] decodeToArray() {
+        return polylineService.decodeToArray(encoded);
+    }
+
+    @Benchmark
+    public double lengthKm() {
+        return polylineService.lengthKm(encoded);
+    }
+}
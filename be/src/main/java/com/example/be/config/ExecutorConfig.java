@@ -0,0 +1,88 @@
+package com.example.be.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Bounded thread pools for background work that must not run on request threads
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Resolves and stores origin/destination/segment names after a route is created
+     */
+    @Bean(name = "routeEnrichmentExecutor")
+    public ThreadPoolTaskExecutor routeEnrichmentExecutor(
+            @Value("${route.enrichment.threads:2}") int threads,
+            @Value("${route.enrichment.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("route-enrich-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs Google reverse-geocode calls for cache misses in parallel when a page needs many names at once
+     */
+    @Bean(name = "geocodingExecutor")
+    public ThreadPoolTaskExecutor geocodingExecutor(
+            @Value("${geocoding.batch.threads:8}") int threads,
+            @Value("${geocoding.batch.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("geocode-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers that close bidding on routes claimed by the scheduled closing jobs, one route per task
+     */
+    @Bean(name = "bidClosingExecutor")
+    public ThreadPoolTaskExecutor bidClosingExecutor(
+            @Value("${bid.closing.workers:2}") int threads,
+            @Value("${bid.closing.batch-size:20}") int batchSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(batchSize);
+        executor.setThreadNamePrefix("bid-closing-");
+        // A full queue means a batch larger than configured; run the extra routes on the scheduler thread
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers for routes whose deadline fired in BidDeadlineScheduler. Kept apart from bidClosingExecutor
+     * so a queued sweep batch never delays a deadline, and never runs tasks on the ticker thread: when the
+     * queue is full the task is rejected and the route is left to the reconciliation sweep.
+     */
+    @Bean(name = "bidDeadlineExecutor")
+    public ThreadPoolTaskExecutor bidDeadlineExecutor(
+            @Value("${bid.deadline.workers:2}") int threads,
+            @Value("${bid.deadline.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("bid-deadline-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
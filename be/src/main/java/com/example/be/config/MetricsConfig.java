@@ -0,0 +1,81 @@
+package com.example.be.config;
+
+import com.example.be.service.GeocodeCacheService;
+import com.example.be.service.LatestPositionStore;
+import com.example.be.service.LiveEventHub;
+import com.example.be.service.LocationIngestBuffer;
+import com.example.be.service.RouteProgressService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meters over the counters and sizes the services already keep, read at scrape time. Timers and
+ * counters for individual calls are recorded where the calls are made.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Geocode cache lookups by where they were answered, and the share answered without calling Google
+     */
+    @Bean
+    public MeterBinder geocodeCacheMetrics(GeocodeCacheService geocodeCache) {
+        return registry -> {
+            FunctionCounter.builder("geocode.cache.lookups", geocodeCache, GeocodeCacheService::getMemoryHits)
+                .tag("result", "memory_hit")
+                .register(registry);
+            FunctionCounter.builder("geocode.cache.lookups", geocodeCache, GeocodeCacheService::getDatabaseHits)
+                .tag("result", "database_hit")
+                .register(registry);
+            FunctionCounter.builder("geocode.cache.lookups", geocodeCache, GeocodeCacheService::getMisses)
+                .tag("result", "miss")
+                .register(registry);
+            Gauge.builder("geocode.cache.hit.ratio", geocodeCache, MetricsConfig::hitRatio)
+                .description("Share of geocode lookups since startup answered from memory or the database")
+                .register(registry);
+        };
+    }
+
+    /**
+     * GPS ingestion and the in-memory live tracking state
+     */
+    @Bean
+    public MeterBinder trackingMetrics(LocationIngestBuffer buffer, LatestPositionStore latestPositionStore,
+                                       RouteProgressService routeProgressService, LiveEventHub liveEventHub) {
+        return registry -> {
+            FunctionCounter.builder("location.ingest.points", buffer, LocationIngestBuffer::getAcceptedCount)
+                .tag("outcome", "accepted")
+                .register(registry);
+            FunctionCounter.builder("location.ingest.points", buffer, LocationIngestBuffer::getWrittenCount)
+                .tag("outcome", "written")
+                .register(registry);
+            FunctionCounter.builder("location.ingest.points", buffer, LocationIngestBuffer::getRejectedCount)
+                .tag("outcome", "rejected")
+                .register(registry);
+            FunctionCounter.builder("location.ingest.points", buffer, LocationIngestBuffer::getDroppedCount)
+                .tag("outcome", "dropped")
+                .register(registry);
+            Gauge.builder("location.ingest.buffered", buffer, LocationIngestBuffer::getBufferedCount)
+                .register(registry);
+            // Every committed fix, from batches and single posts alike
+            Counter stored = Counter.builder("location.fixes.stored").register(registry);
+            buffer.addStoredListener(fixes -> stored.increment(fixes.size()));
+            Gauge.builder("tracking.latest.entries", latestPositionStore, LatestPositionStore::size)
+                .register(registry);
+            Gauge.builder("tracking.progress.entries", routeProgressService, RouteProgressService::size)
+                .register(registry);
+            Gauge.builder("live.events.subscribers", liveEventHub, LiveEventHub::getSubscriberCount)
+                .register(registry);
+        };
+    }
+
+    private static double hitRatio(GeocodeCacheService geocodeCache) {
+        double hits = geocodeCache.getMemoryHits() + geocodeCache.getDatabaseHits();
+        double total = hits + geocodeCache.getMisses();
+        return total == 0 ? Double.NaN : hits / total;
+    }
+}
@@ -1,16 +1,21 @@
 package com.example.be.controller;
 
 import com.example.be.model.Conversation;
-import com.example.be.model.Message;
 import com.example.be.model.Profile;
 import com.example.be.repository.ConversationRepository;
 import com.example.be.repository.MessageRepository;
 import com.example.be.repository.ProfileRepository;
+import com.example.be.service.ChatPushService;
+import com.example.be.service.UnreadCounterService;
+import com.example.be.util.KeysetCursor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
 import java.time.ZonedDateTime;
@@ -28,6 +33,9 @@ import java.util.ArrayList;
 @Slf4j
 public class ChatController {
 
+    private static final int DEFAULT_MESSAGE_PAGE = 50;
+    private static final int MAX_MESSAGE_PAGE = 200;
+
     @Autowired
     private ConversationRepository conversationRepository;
 
@@ -43,6 +51,15 @@ public class ChatController {
     @Autowired
     private EntityManager entityManager;
 
+    @Autowired
+    private ChatPushService chatPushService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * Get active conversations for a customer (matched and paid requests only)
      * GET /api/chat/customer/{customerId}/conversations
@@ -54,34 +71,60 @@ public class ChatController {
             
             UUID customerIdUuid = UUID.fromString(customerId);
             
-            // Find active conversations (matched and paid requests)
-            List<Conversation> conversations = conversationRepository.findActiveConversationsForCustomer(customerIdUuid);
+            // Active conversations (matched and paid requests) with last message and unread count in one query
+            String sql = """
+                SELECT 
+                    c.id,
+                    c.bid_id,
+                    pr.id as request_id,
+                    d.id as driver_id,
+                    d.first_name as driver_first_name,
+                    d.last_name as driver_last_name,
+                    d.profile_photo_url as driver_photo,
+                    c.last_message_at,
+                    c.created_at,
+                    lm.message_text as last_message,
+                    lm.created_at as last_message_time,
+                    uc.unread_count
+                FROM conversations c
+                JOIN bids b ON c.bid_id = b.id
+                JOIN parcel_requests pr ON b.request_id = pr.id
+                JOIN return_routes rr ON b.route_id = rr.id
+                JOIN profiles d ON c.driver_id = d.id
+                LEFT JOIN LATERAL (
+                    SELECT m.message_text, m.created_at FROM messages m
+                    WHERE m.conversation_id = c.id
+                    ORDER BY m.created_at DESC, m.id DESC LIMIT 1
+                ) lm ON true
+                LEFT JOIN conversation_unread_counts uc ON uc.conversation_id = c.id AND uc.user_id = :viewerId
+                WHERE c.customer_id = :customerId
+                AND pr.status = 'MATCHED'
+                AND EXISTS (
+                    SELECT 1 FROM payments p 
+                    WHERE p.bid_id = b.id 
+                    AND p.payment_status = 'completed'
+                )
+                ORDER BY c.last_message_at DESC
+                """;
+            
+            @SuppressWarnings("unchecked")
+            List<Object[]> results = entityManager.createNativeQuery(sql)
+                .setParameter("customerId", customerIdUuid)
+                .setParameter("viewerId", customerIdUuid)
+                .getResultList();
             
             // Build response with conversation details
-            List<Map<String, Object>> conversationList = conversations.stream().map(conv -> {
+            List<Map<String, Object>> conversationList = results.stream().map(row -> {
                 Map<String, Object> convData = new HashMap<>();
-                convData.put("id", conv.getId().toString());
-                convData.put("bidId", conv.getBid() != null ? conv.getBid().getId().toString() : null);
-                convData.put("requestId", conv.getBid() != null && conv.getBid().getRequest() != null ? 
-                    conv.getBid().getRequest().getId().toString() : null);
-                convData.put("driverId", conv.getDriver().getId().toString());
-                convData.put("driverName", conv.getDriver().getFirstName() + " " + conv.getDriver().getLastName());
-                convData.put("driverPhoto", conv.getDriver().getProfilePhotoUrl());
-                convData.put("lastMessageAt", conv.getLastMessageAt());
-                convData.put("createdAt", conv.getCreatedAt());
-                
-                // Get last message
-                Message lastMessage = messageRepository.findLastMessageByConversationId(conv.getId());
-                if (lastMessage != null) {
-                    convData.put("lastMessage", lastMessage.getMessageText());
-                    convData.put("lastMessageTime", lastMessage.getCreatedAt());
-                }
-                
-                // Count unread messages
-                long unreadCount = messageRepository.countByConversationIdAndSenderIdNotAndIsReadFalse(
-                    conv.getId(), customerIdUuid);
-                convData.put("unreadCount", unreadCount);
-                
+                convData.put("id", row[0].toString());
+                convData.put("bidId", row[1] != null ? row[1].toString() : null);
+                convData.put("requestId", row[2] != null ? row[2].toString() : null);
+                convData.put("driverId", row[3].toString());
+                convData.put("driverName", row[4] + " " + row[5]);
+                convData.put("driverPhoto", row[6]);
+                convData.put("lastMessageAt", toZonedDateTime(row[7]));
+                convData.put("createdAt", toZonedDateTime(row[8]));
+                putLastMessageAndUnread(convData, row[9], row[10], row[11]);
                 return convData;
             }).toList();
             
@@ -116,14 +159,29 @@ public class ChatController {
     /**
      * Get messages for a conversation
      * GET /api/chat/conversation/{conversationId}/messages
+     *
+     * Without parameters the whole history is returned (kept for existing clients). With limit, before or
+     * since the endpoint pages by (created_at, id) keyset:
+     * - limit only: the newest page
+     * - before=nextCursor: the page of older messages before that cursor
+     * - since=latestCursor: only messages newer than that cursor (delta since the last fetch)
+     * Messages are always returned oldest first.
      */
     @GetMapping("/conversation/{conversationId}/messages")
-    public ResponseEntity<Map<String, Object>> getConversationMessages(@PathVariable String conversationId) {
+    public ResponseEntity<Map<String, Object>> getConversationMessages(
+            @PathVariable String conversationId,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String since) {
         try {
             log.info("Fetching messages for conversation: {}", conversationId);
             
             UUID conversationIdUuid = UUID.fromString(conversationId);
             
+            if (limit != null || before != null || since != null) {
+                return ResponseEntity.ok(getMessagePage(conversationIdUuid, limit, before, since));
+            }
+            
             // Use native SQL to get messages
             String getMessagesSql = """
                 SELECT m.id, m.message_text, m.sender_id, m.receiver_id, m.is_read, m.created_at,
@@ -139,17 +197,7 @@ public class ChatController {
                 .setParameter(1, conversationIdUuid)
                 .getResultList();
             
-            List<Map<String, Object>> messageList = results.stream().map(row -> {
-                Map<String, Object> msgData = new HashMap<>();
-                msgData.put("id", row[0].toString());
-                msgData.put("text", row[1]);
-                msgData.put("senderId", row[2].toString());
-                msgData.put("receiverId", row[3] != null ? row[3].toString() : null);
-                msgData.put("isRead", row[4]);
-                msgData.put("createdAt", row[5]);
-                msgData.put("senderName", (row[6] != null ? row[6] : "") + " " + (row[7] != null ? row[7] : ""));
-                return msgData;
-            }).toList();
+            List<Map<String, Object>> messageList = results.stream().map(this::toMessageMap).toList();
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -158,6 +206,14 @@ public class ChatController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request for conversation messages {}: {}", conversationId, e.getMessage());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             log.error("Error fetching messages for conversation: {}", conversationId, e);
             
@@ -169,6 +225,105 @@ public class ChatController {
         }
     }
 
+    private Map<String, Object> getMessagePage(UUID conversationId, Integer limit, String before, String since) {
+        if (before != null && since != null) {
+            throw new IllegalArgumentException("Use either before or since, not both");
+        }
+        int pageSize = Math.max(1, Math.min(limit != null ? limit : DEFAULT_MESSAGE_PAGE, MAX_MESSAGE_PAGE));
+
+        // Fetch one extra row to know whether there is more in the paging direction
+        List<Object[]> rows;
+        boolean newestFirst = since == null;
+        if (since != null) {
+            KeysetCursor after = KeysetCursor.decode(since);
+            rows = messageRepository.findSince(conversationId, after.timestamp(), after.id(), pageSize + 1);
+        } else if (before != null) {
+            KeysetCursor older = KeysetCursor.decode(before);
+            rows = messageRepository.findPageBefore(conversationId, older.timestamp(), older.id(), pageSize + 1);
+        } else {
+            rows = messageRepository.findLatestPage(conversationId, pageSize + 1);
+        }
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        List<Object[]> ordered = new ArrayList<>(rows);
+        if (newestFirst) {
+            java.util.Collections.reverse(ordered);
+        }
+
+        List<Map<String, Object>> messageList = ordered.stream().map(this::toMessageMap).toList();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("messages", messageList);
+        response.put("totalMessages", messageList.size());
+        response.put("hasMore", hasMore);
+        if (!ordered.isEmpty()) {
+            // Older page to load when scrolling back, and the point to ask for new messages from
+            response.put("nextCursor", since == null && hasMore ? messageCursor(ordered.get(0)) : null);
+            response.put("latestCursor", messageCursor(ordered.get(ordered.size() - 1)));
+        } else {
+            response.put("nextCursor", null);
+            // Nothing new: the client keeps polling from the cursor it already has
+            response.put("latestCursor", since);
+        }
+        return response;
+    }
+
+    private Map<String, Object> toMessageMap(Object[] row) {
+        Map<String, Object> msgData = new HashMap<>();
+        msgData.put("id", row[0].toString());
+        msgData.put("text", row[1]);
+        msgData.put("senderId", row[2].toString());
+        msgData.put("receiverId", row[3] != null ? row[3].toString() : null);
+        msgData.put("isRead", row[4]);
+        msgData.put("createdAt", row[5]);
+        msgData.put("senderName", (row[6] != null ? row[6] : "") + " " + (row[7] != null ? row[7] : ""));
+        return msgData;
+    }
+
+    private static String messageCursor(Object[] row) {
+        return new KeysetCursor(toZonedDateTime(row[5]), (UUID) row[0]).encode();
+    }
+
+    // Last message and unread counter from the joins of the conversation list queries
+    private static void putLastMessageAndUnread(Map<String, Object> data, Object lastMessage,
+                                                Object lastMessageTime, Object unreadCount) {
+        if (lastMessageTime != null) {
+            data.put("lastMessage", lastMessage);
+            data.put("lastMessageTime", toZonedDateTime(lastMessageTime));
+        }
+        data.put("unreadCount", unreadCount != null ? ((Number) unreadCount).longValue() : 0L);
+    }
+
+    // timestamptz columns of native queries come back as Instant (or Timestamp/OffsetDateTime with older drivers)
+    private static ZonedDateTime toZonedDateTime(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Instant) {
+            return ((Instant) value).atZone(java.time.ZoneOffset.UTC);
+        }
+        if (value instanceof java.time.OffsetDateTime) {
+            return ((java.time.OffsetDateTime) value).toZonedDateTime();
+        }
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toInstant().atZone(java.time.ZoneOffset.UTC);
+        }
+        return (ZonedDateTime) value;
+    }
+
+    /**
+     * Live stream of a conversation: "message" events for new messages and "read" events for read receipts
+     * GET /api/chat/conversation/{conversationId}/stream
+     */
+    @GetMapping(value = "/conversation/{conversationId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamConversation(@PathVariable String conversationId) {
+        // No database access here: the stream keeps the request open for its whole lifetime
+        return chatPushService.subscribe(UUID.fromString(conversationId));
+    }
+
     /**
      * Send a message
      * POST /api/chat/conversation/{conversationId}/messages
@@ -198,7 +353,7 @@ public class ChatController {
             
             // Check if conversation, sender, and receiver exist using native SQL
             String checkConversationSql = "SELECT id FROM conversations WHERE id = ?";
-            String checkSenderSql = "SELECT id FROM profiles WHERE id = ?";
+            String checkSenderSql = "SELECT first_name, last_name FROM profiles WHERE id = ?";
             String checkReceiverSql = "SELECT id FROM profiles WHERE id = ?";
             
             @SuppressWarnings("unchecked")
@@ -265,6 +420,15 @@ public class ChatController {
                 .setParameter(2, conversationIdUuid)
                 .executeUpdate();
             
+            unreadCounterService.messageReceived(conversationIdUuid, receiverIdUuid);
+            
+            // Push to open chat screens once the insert commits
+            Object[] sender = senderResult.get(0);
+            String senderName = (sender[0] != null ? sender[0] : "") + " " + (sender[1] != null ? sender[1] : "");
+            chatPushService.messageSent(conversationIdUuid, messageId, senderIdUuid, receiverIdUuid,
+                messageText, senderName, createdAt);
+            meterRegistry.counter("chat.messages.sent").increment();
+            
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("messageId", messageId.toString());
@@ -424,8 +588,9 @@ public class ChatController {
             
             UUID userIdUuid = UUID.fromString(userId);
             
-            // Mark messages as read
-            messageRepository.markMessagesAsRead(conversationIdUuid, userIdUuid);
+            // Mark messages as read and reset the user's unread counter
+            unreadCounterService.markConversationRead(conversationIdUuid, userIdUuid);
+            chatPushService.messagesRead(conversationIdUuid, userIdUuid);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -444,6 +609,45 @@ public class ChatController {
         }
     }
 
+    /**
+     * Unread message counts for the user's chat badges, served from the in-memory counters
+     * GET /api/chat/user/{userId}/unread-count
+     */
+    @GetMapping("/user/{userId}/unread-count")
+    public ResponseEntity<Map<String, Object>> getUnreadCount(@PathVariable String userId) {
+        try {
+            UUID userIdUuid = UUID.fromString(userId);
+            
+            Map<String, Object> conversations = new HashMap<>();
+            unreadCounterService.getUnreadCounts(userIdUuid)
+                .forEach((conversationId, count) -> conversations.put(conversationId.toString(), count));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("totalUnread", unreadCounterService.getTotalUnread(userIdUuid));
+            response.put("conversations", conversations);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid UUID format for userId: {}", userId);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Invalid user ID format");
+            
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("Error fetching unread count for user: {}", userId, e);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to fetch unread count: " + e.getMessage());
+            
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
     /**
      * Get available drivers for paid requests (even if no conversation exists)
      * GET /api/chat/customer/{customerId}/available-drivers
@@ -458,116 +662,104 @@ public class ChatController {
             // Find paid and matched requests with driver information
             List<Map<String, Object>> driverList = new ArrayList<>();
             
-            // Query to get unique drivers with their latest bid info
+            // Unique drivers with their latest bid info, vehicle, conversation, last message and unread count
+            // in one query; the laterals run once per driver instead of one round trip each
             String sql = """
                 SELECT 
-                    d.id as driver_id,
-                    d.first_name as driver_first_name,
-                    d.last_name as driver_last_name,
-                    d.profile_photo_url as driver_photo,
-                    d.phone_number as driver_phone,
-                    COUNT(b.id) as total_parcels,
-                    MAX(b.created_at) as latest_bid_created_at,
-                    (SELECT b2.id FROM bids b2 
-                     JOIN parcel_requests pr2 ON b2.request_id = pr2.id 
-                     JOIN return_routes rr2 ON b2.route_id = rr2.id 
-                     WHERE rr2.driver_id = d.id 
-                     AND pr2.customer_id = :customerId
-                     AND pr2.status = 'MATCHED'
-                     AND b2.status = 'ACCEPTED'
-                     AND EXISTS (SELECT 1 FROM payments p WHERE p.bid_id = b2.id AND p.payment_status = 'completed')
-                     ORDER BY b2.created_at DESC LIMIT 1) as sample_bid_id
-                FROM bids b
-                JOIN parcel_requests pr ON b.request_id = pr.id
-                JOIN return_routes rr ON b.route_id = rr.id
-                JOIN profiles d ON rr.driver_id = d.id
-                WHERE pr.customer_id = :customerId
-                AND pr.status = 'MATCHED'
-                AND b.status = 'ACCEPTED'
-                AND EXISTS (
-                    SELECT 1 FROM payments p 
-                    WHERE p.bid_id = b.id 
-                    AND p.payment_status = 'completed'
-                )
-                GROUP BY d.id, d.first_name, d.last_name, d.profile_photo_url, d.phone_number
-                ORDER BY MAX(b.created_at) DESC
+                    dr.driver_id,
+                    dr.driver_first_name,
+                    dr.driver_last_name,
+                    dr.driver_photo,
+                    dr.driver_phone,
+                    dr.total_parcels,
+                    dr.latest_bid_created_at,
+                    dr.sample_bid_id,
+                    v.make,
+                    v.model,
+                    v.plate_number,
+                    c.id as conversation_id,
+                    lm.message_text as last_message,
+                    lm.created_at as last_message_time,
+                    uc.unread_count
+                FROM (
+                    SELECT 
+                        d.id as driver_id,
+                        d.first_name as driver_first_name,
+                        d.last_name as driver_last_name,
+                        d.profile_photo_url as driver_photo,
+                        d.phone_number as driver_phone,
+                        COUNT(b.id) as total_parcels,
+                        MAX(b.created_at) as latest_bid_created_at,
+                        (SELECT b2.id FROM bids b2 
+                         JOIN parcel_requests pr2 ON b2.request_id = pr2.id 
+                         JOIN return_routes rr2 ON b2.route_id = rr2.id 
+                         WHERE rr2.driver_id = d.id 
+                         AND pr2.customer_id = :customerId
+                         AND pr2.status = 'MATCHED'
+                         AND b2.status = 'ACCEPTED'
+                         AND EXISTS (SELECT 1 FROM payments p WHERE p.bid_id = b2.id AND p.payment_status = 'completed')
+                         ORDER BY b2.created_at DESC LIMIT 1) as sample_bid_id
+                    FROM bids b
+                    JOIN parcel_requests pr ON b.request_id = pr.id
+                    JOIN return_routes rr ON b.route_id = rr.id
+                    JOIN profiles d ON rr.driver_id = d.id
+                    WHERE pr.customer_id = :customerId
+                    AND pr.status = 'MATCHED'
+                    AND b.status = 'ACCEPTED'
+                    AND EXISTS (
+                        SELECT 1 FROM payments p 
+                        WHERE p.bid_id = b.id 
+                        AND p.payment_status = 'completed'
+                    )
+                    GROUP BY d.id, d.first_name, d.last_name, d.profile_photo_url, d.phone_number
+                ) dr
+                LEFT JOIN LATERAL (
+                    SELECT make, model, plate_number
+                    FROM vehicle_details
+                    WHERE driver_id = dr.driver_id
+                    LIMIT 1
+                ) v ON true
+                LEFT JOIN LATERAL (
+                    SELECT c.id
+                    FROM conversations c
+                    JOIN bids b ON c.bid_id = b.id
+                    JOIN return_routes rr ON b.route_id = rr.id
+                    WHERE rr.driver_id = dr.driver_id
+                    AND c.customer_id = :customerId
+                    LIMIT 1
+                ) c ON true
+                LEFT JOIN LATERAL (
+                    SELECT m.message_text, m.created_at FROM messages m
+                    WHERE m.conversation_id = c.id
+                    ORDER BY m.created_at DESC, m.id DESC LIMIT 1
+                ) lm ON true
+                LEFT JOIN conversation_unread_counts uc ON uc.conversation_id = c.id AND uc.user_id = :viewerId
+                ORDER BY dr.latest_bid_created_at DESC
                 """;
             
             @SuppressWarnings("unchecked")
             List<Object[]> results = entityManager.createNativeQuery(sql)
                 .setParameter("customerId", customerIdUuid)
+                .setParameter("viewerId", customerIdUuid)
                 .getResultList();
             
             for (Object[] row : results) {
-                UUID driverId = (UUID) row[0];
-                
                 Map<String, Object> driverData = new HashMap<>();
-                driverData.put("driverId", driverId.toString());
+                driverData.put("driverId", row[0].toString());
                 driverData.put("driverName", (row[1] != null ? row[1] : "") + " " + (row[2] != null ? row[2] : ""));
                 driverData.put("driverPhoto", row[3]);
                 driverData.put("driverPhone", row[4]);
                 driverData.put("totalParcels", row[5]); // Number of parcels this driver is handling
                 driverData.put("latestBidCreatedAt", row[6]);
                 driverData.put("sampleBidId", row[7] != null ? row[7].toString() : null); // Sample bid ID for conversation creation
+                driverData.put("vehicleMake", row[8]);
+                driverData.put("vehicleModel", row[9]);
+                driverData.put("vehiclePlate", row[10]);
                 
-                // Get vehicle details for this driver
-                String vehicleSql = """
-                    SELECT make, model, plate_number
-                    FROM vehicle_details
-                    WHERE driver_id = :driverId
-                    LIMIT 1
-                    """;
-                
-                @SuppressWarnings("unchecked")
-                List<Object[]> vehicleResults = entityManager.createNativeQuery(vehicleSql)
-                    .setParameter("driverId", driverId)
-                    .getResultList();
-                
-                if (!vehicleResults.isEmpty()) {
-                    Object[] vehicleRow = vehicleResults.get(0);
-                    driverData.put("vehicleMake", vehicleRow[0]);
-                    driverData.put("vehicleModel", vehicleRow[1]);
-                    driverData.put("vehiclePlate", vehicleRow[2]);
-                } else {
-                    driverData.put("vehicleMake", null);
-                    driverData.put("vehicleModel", null);
-                    driverData.put("vehiclePlate", null);
-                }
-                
-                // Find conversation for this driver and customer
-                String findConversationSql = """
-                    SELECT c.id, c.last_message_at
-                    FROM conversations c
-                    JOIN bids b ON c.bid_id = b.id
-                    JOIN return_routes rr ON b.route_id = rr.id
-                    WHERE rr.driver_id = :driverId
-                    AND c.customer_id = :customerId
-                    LIMIT 1
-                    """;
-                
-                @SuppressWarnings("unchecked")
-                List<Object[]> conversationResults = entityManager.createNativeQuery(findConversationSql)
-                    .setParameter("driverId", driverId)
-                    .setParameter("customerId", customerIdUuid)
-                    .getResultList();
-                
-                if (!conversationResults.isEmpty()) {
-                    Object[] convRow = conversationResults.get(0);
-                    UUID conversationId = (UUID) convRow[0];
-                    driverData.put("conversationId", conversationId.toString());
+                if (row[11] != null) {
+                    driverData.put("conversationId", row[11].toString());
                     driverData.put("hasConversation", true);
-                    
-                    // Get last message
-                    Message lastMessage = messageRepository.findLastMessageByConversationId(conversationId);
-                    if (lastMessage != null) {
-                        driverData.put("lastMessage", lastMessage.getMessageText());
-                        driverData.put("lastMessageTime", lastMessage.getCreatedAt());
-                    }
-                    
-                    // Count unread messages for this customer
-                    long unreadCount = messageRepository.countByConversationIdAndSenderIdNotAndIsReadFalse(
-                        conversationId, customerIdUuid);
-                    driverData.put("unreadCount", unreadCount);
+                    putLastMessageAndUnread(driverData, row[12], row[13], row[14]);
                 } else {
                     driverData.put("conversationId", null);
                     driverData.put("hasConversation", false);
@@ -689,7 +881,7 @@ public class ChatController {
             
             UUID driverIdUuid = UUID.fromString(driverId);
             
-            // Find active conversations for this driver (matched and paid requests)
+            // Active conversations for this driver (matched and paid requests) with last message and unread count
             String sql = """
                 SELECT DISTINCT 
                     c.id as conversation_id,
@@ -705,12 +897,21 @@ public class ChatController {
                     cu.last_name as customer_last_name,
                     cu.profile_photo_url as customer_photo,
                     cu.phone_number as customer_phone,
-                    b.offered_price
+                    b.offered_price,
+                    lm.message_text as last_message,
+                    lm.created_at as last_message_time,
+                    uc.unread_count
                 FROM conversations c
                 JOIN bids b ON c.bid_id = b.id
                 JOIN parcel_requests pr ON b.request_id = pr.id
                 JOIN return_routes rr ON b.route_id = rr.id
                 JOIN profiles cu ON c.customer_id = cu.id
+                LEFT JOIN LATERAL (
+                    SELECT m.message_text, m.created_at FROM messages m
+                    WHERE m.conversation_id = c.id
+                    ORDER BY m.created_at DESC, m.id DESC LIMIT 1
+                ) lm ON true
+                LEFT JOIN conversation_unread_counts uc ON uc.conversation_id = c.id AND uc.user_id = :viewerId
                 WHERE rr.driver_id = :driverId
                 AND EXISTS (
                     SELECT 1 FROM payments p 
@@ -723,6 +924,7 @@ public class ChatController {
             @SuppressWarnings("unchecked")
             List<Object[]> results = entityManager.createNativeQuery(sql)
                 .setParameter("driverId", driverIdUuid)
+                .setParameter("viewerId", driverIdUuid)
                 .getResultList();
             
             List<Map<String, Object>> conversationList = results.stream().map(row -> {
@@ -740,21 +942,7 @@ public class ChatController {
                 convData.put("customerPhoto", row[11]);
                 convData.put("customerPhone", row[12]);
                 convData.put("offeredPrice", row[13]);
-                
-                // Get last message
-                if (row[0] != null) {
-                    UUID conversationId = UUID.fromString(row[0].toString());
-                    Message lastMessage = messageRepository.findLastMessageByConversationId(conversationId);
-                    if (lastMessage != null) {
-                        convData.put("lastMessage", lastMessage.getMessageText());
-                        convData.put("lastMessageTime", lastMessage.getCreatedAt());
-                    }
-                    
-                    // Count unread messages
-                    long unreadCount = messageRepository.countByConversationIdAndSenderIdNotAndIsReadFalse(
-                        conversationId, driverIdUuid);
-                    convData.put("unreadCount", unreadCount);
-                }
+                putLastMessageAndUnread(convData, row[14], row[15], row[16]);
                 
                 return convData;
             }).toList();
@@ -798,7 +986,8 @@ public class ChatController {
             
             UUID driverIdUuid = UUID.fromString(driverId);
             
-            // Find paid and matched requests with customer information
+            // Paid and matched requests with customer information and, where a conversation exists,
+            // its last message and unread count
             String sql = """
                 SELECT DISTINCT 
                     b.id as bid_id,
@@ -813,12 +1002,21 @@ public class ChatController {
                     cu.phone_number as customer_phone,
                     b.offered_price,
                     b.created_at as bid_created_at,
-                    c.id as conversation_id
+                    c.id as conversation_id,
+                    lm.message_text as last_message,
+                    lm.created_at as last_message_time,
+                    uc.unread_count
                 FROM bids b
                 JOIN parcel_requests pr ON b.request_id = pr.id
                 JOIN return_routes rr ON b.route_id = rr.id
                 JOIN profiles cu ON pr.customer_id = cu.id
                 LEFT JOIN conversations c ON c.bid_id = b.id
+                LEFT JOIN LATERAL (
+                    SELECT m.message_text, m.created_at FROM messages m
+                    WHERE m.conversation_id = c.id
+                    ORDER BY m.created_at DESC, m.id DESC LIMIT 1
+                ) lm ON true
+                LEFT JOIN conversation_unread_counts uc ON uc.conversation_id = c.id AND uc.user_id = :viewerId
                 WHERE rr.driver_id = :driverId
                 AND pr.status = 'MATCHED'
                 AND b.status = 'ACCEPTED'
@@ -833,6 +1031,7 @@ public class ChatController {
             @SuppressWarnings("unchecked")
             List<Object[]> results = entityManager.createNativeQuery(sql)
                 .setParameter("driverId", driverIdUuid)
+                .setParameter("viewerId", driverIdUuid)
                 .getResultList();
             
             List<Map<String, Object>> customerList = new ArrayList<>();
@@ -856,21 +1055,8 @@ public class ChatController {
                 boolean hasConversation = row[12] != null;
                 customerData.put("hasConversation", hasConversation);
                 
-                // If conversation exists, get last message and unread count
                 if (hasConversation) {
-                    UUID conversationId = UUID.fromString(row[12].toString());
-                    
-                    // Get last message
-                    Message lastMessage = messageRepository.findLastMessageByConversationId(conversationId);
-                    if (lastMessage != null) {
-                        customerData.put("lastMessage", lastMessage.getMessageText());
-                        customerData.put("lastMessageTime", lastMessage.getCreatedAt());
-                    }
-                    
-                    // Count unread messages
-                    long unreadCount = messageRepository.countByConversationIdAndSenderIdNotAndIsReadFalse(
-                        conversationId, driverIdUuid);
-                    customerData.put("unreadCount", unreadCount);
+                    putLastMessageAndUnread(customerData, row[13], row[14], row[15]);
                 }
                 
                 customerList.add(customerData);
@@ -1012,7 +1198,8 @@ public class ChatController {
             UUID userIdUuid = UUID.fromString(userId);
             
             // Mark all messages in this conversation as read (except the user's own messages)
-            messageRepository.markMessagesAsRead(conversationIdUuid, userIdUuid);
+            unreadCounterService.markConversationRead(conversationIdUuid, userIdUuid);
+            chatPushService.messagesRead(conversationIdUuid, userIdUuid);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -1,13 +1,18 @@
 package com.example.be.controller;
 
 import com.example.be.dto.DriverLocationUpdateDto;
+import com.example.be.dto.LocationBatchCreateDto;
 import com.example.be.dto.LocationUpdateCreateDto;
 import com.example.be.model.DriverLocationUpdate;
 import com.example.be.service.DriverLocationUpdateService;
+import com.example.be.service.PolylineService;
+import com.example.be.service.TrackingPushService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
@@ -23,6 +28,8 @@ import java.util.stream.Collectors;
 public class DriverLocationUpdateController {
 
     private final DriverLocationUpdateService driverLocationUpdateService;
+    private final TrackingPushService trackingPushService;
+    private final PolylineService polylineService;
 
     @PostMapping
     public ResponseEntity<?> createLocationUpdate(@RequestBody LocationUpdateCreateDto createDto) {
@@ -42,15 +49,79 @@ public class DriverLocationUpdateController {
         }
     }
 
+    /**
+     * Batch of GPS fixes for one or more deliveries, written in the background.
+     *
+     * 202: the points are buffered in memory and normally committed within about a second; they are lost
+     * if the server stops abnormally before that. With wait=true, 200 means every point is committed and
+     * 202 means they are still buffered after the wait timeout. 503 (with Retry-After) means the buffer is
+     * full and nothing was accepted; 400 means nothing was accepted because the batch is invalid or, with
+     * wait=true, names an unknown delivery tracking (without wait such points are dropped in the background).
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createLocationUpdates(@RequestBody LocationBatchCreateDto batchDto,
+                                                   @RequestParam(defaultValue = "false") boolean wait) {
+        int points = batchDto.getPoints() != null ? batchDto.getPoints().size() : 0;
+        log.debug("POST /driver-location-updates/batch - {} points", points);
+        try {
+            DriverLocationUpdateService.IngestOutcome outcome = driverLocationUpdateService.ingestLocationUpdates(batchDto, wait);
+            java.util.Map<String, Object> response = new java.util.HashMap<>();
+            response.put("success", outcome != DriverLocationUpdateService.IngestOutcome.REJECTED);
+            response.put("outcome", outcome);
+            response.put("points", points);
+            switch (outcome) {
+                case STORED:
+                    return ResponseEntity.ok(response);
+                case REJECTED:
+                    response.put("message", "Location buffer is full, retry later");
+                    return ResponseEntity.status(503).header("Retry-After", "1").body(response);
+                default:
+                    return ResponseEntity.accepted().body(response);
+            }
+        } catch (IllegalArgumentException e) {
+            java.util.Map<String, Object> response = new java.util.HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            log.error("Error ingesting location updates: ", e);
+            return ResponseEntity.status(500).body(createErrorResponse(e, "/driver-location-updates/batch"));
+        }
+    }
+
+    /**
+     * Location history of a delivery, newest first.
+     *
+     * bucketSeconds keeps one point per time bucket and toleranceMeters simplifies the line with
+     * Douglas-Peucker; without them every fix is returned. format=polyline returns the points, oldest
+     * first, as one encoded polyline (precision 1e5) instead of a DTO per point.
+     */
     @GetMapping("/delivery-tracking/{deliveryTrackingId}")
-    public ResponseEntity<?> getLocationUpdatesByDeliveryTracking(@PathVariable UUID deliveryTrackingId) {
+    public ResponseEntity<?> getLocationUpdatesByDeliveryTracking(@PathVariable UUID deliveryTrackingId,
+                                                                  @RequestParam(required = false) Double toleranceMeters,
+                                                                  @RequestParam(required = false) Integer bucketSeconds,
+                                                                  @RequestParam(defaultValue = "full") String format) {
         log.info("GET /driver-location-updates/delivery-tracking/{} - Fetching location updates", deliveryTrackingId);
         try {
-            List<DriverLocationUpdate> locationUpdates = driverLocationUpdateService.getLocationUpdatesByDeliveryTracking(deliveryTrackingId);
+            boolean polyline = "polyline".equalsIgnoreCase(format);
+            if (!polyline && !"full".equalsIgnoreCase(format)) {
+                throw new IllegalArgumentException("format must be full or polyline");
+            }
+            List<DriverLocationUpdate> locationUpdates = toleranceMeters != null || bucketSeconds != null
+                ? driverLocationUpdateService.getSimplifiedTrack(deliveryTrackingId, toleranceMeters, bucketSeconds)
+                : driverLocationUpdateService.getLocationUpdatesByDeliveryTracking(deliveryTrackingId);
+            if (polyline) {
+                return ResponseEntity.ok(toPolylineResponse(deliveryTrackingId, locationUpdates));
+            }
             List<DriverLocationUpdateDto> dtos = locationUpdates.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
             return ResponseEntity.ok(dtos);
+        } catch (IllegalArgumentException e) {
+            java.util.Map<String, Object> response = new java.util.HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             log.error("Error fetching location updates: ", e);
             return ResponseEntity.status(500).body(createErrorResponse(e, "/driver-location-updates/delivery-tracking/" + deliveryTrackingId));
@@ -71,6 +142,16 @@ public class DriverLocationUpdateController {
         }
     }
 
+    /**
+     * Live stream of a delivery: "location" events for new fixes and "status" events for status changes
+     */
+    @GetMapping(value = "/delivery-tracking/{deliveryTrackingId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDeliveryTracking(@PathVariable UUID deliveryTrackingId) {
+        log.info("GET /driver-location-updates/delivery-tracking/{}/stream - Subscribing to live tracking", deliveryTrackingId);
+        // No database access here: the stream keeps the request open for its whole lifetime
+        return trackingPushService.subscribe(deliveryTrackingId);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getLocationUpdateById(@PathVariable UUID id) {
         log.info("GET /driver-location-updates/{} - Fetching location update by ID", id);
@@ -84,6 +165,18 @@ public class DriverLocationUpdateController {
         }
     }
 
+    private java.util.Map<String, Object> toPolylineResponse(UUID deliveryTrackingId, List<DriverLocationUpdate> newestFirst) {
+        List<DriverLocationUpdate> oldestFirst = new java.util.ArrayList<>(newestFirst);
+        java.util.Collections.reverse(oldestFirst);
+        java.util.Map<String, Object> response = new java.util.HashMap<>();
+        response.put("deliveryTrackingId", deliveryTrackingId);
+        response.put("polyline", polylineService.encode(DriverLocationUpdateService.toCoords(oldestFirst)));
+        response.put("points", oldestFirst.size());
+        response.put("startedAt", oldestFirst.isEmpty() ? null : oldestFirst.get(0).getRecordedAt());
+        response.put("endedAt", oldestFirst.isEmpty() ? null : oldestFirst.get(oldestFirst.size() - 1).getRecordedAt());
+        return response;
+    }
+
     private DriverLocationUpdateDto convertToDto(DriverLocationUpdate locationUpdate) {
         DriverLocationUpdateDto dto = new DriverLocationUpdateDto();
         dto.setId(locationUpdate.getId());
@@ -9,6 +9,8 @@ import com.example.be.config.PayHereConfig;
 import com.example.be.model.Payment;
 import com.example.be.repository.PaymentRepository;
 import com.example.be.types.PaymentStatusEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -34,6 +36,7 @@ public class PaymentController {
     private final PaymentService paymentService;
     private final PaymentRepository paymentRepository;
     private final PayHereConfig payHereConfig;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Initialize a new PayHere payment
@@ -109,6 +112,8 @@ public class PaymentController {
      */
     @PostMapping("/webhook")
     public ResponseEntity<String> handleWebhook(@RequestParam Map<String, String> webhookData) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             log.info("Received PayHere webhook: {}", webhookData);
             
@@ -118,15 +123,19 @@ public class PaymentController {
             String receivedHash = webhookData.get("md5sig");
             if (!payHereService.verifyHash(response, receivedHash)) {
                 log.warn("Invalid hash received in webhook");
+                outcome = "invalid_hash";
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid hash");
             }
             
             log.info("Webhook processed successfully. Status: {}", response.getPaymentStatus());
+            outcome = "success";
             return ResponseEntity.ok("OK");
             
         } catch (Exception e) {
             log.error("Error processing webhook", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error processing webhook");
+        } finally {
+            sample.stop(meterRegistry.timer("payhere.webhook.requests", "outcome", outcome));
         }
     }
 
@@ -9,11 +9,15 @@ import com.example.be.dto.RouteBidCreateDto;
 import com.example.be.dto.RouteBidWithRequestDto;
 import com.example.be.dto.BidDto;
 import com.example.be.dto.SimpleRouteDto;
+import com.example.be.dto.RouteSearchRequestDTO;
+import com.example.be.dto.RouteSearchResponseDTO;
 import com.example.be.model.ReturnRoute;
 import com.example.be.types.RouteStatus;
 import com.example.be.repository.ReturnRouteRepository;
 import com.example.be.service.RouteService;
 import com.example.be.service.PricePredictionService;
+import com.example.be.service.RouteSearchService;
+import com.example.be.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -42,8 +46,11 @@ import com.example.be.dto.BidSelectionDto;
 @RestController
 @RequestMapping("/api/routes")
 @RequiredArgsConstructor
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = RouteController.NEXT_CURSOR_HEADER)
 public class RouteController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_RECENT_ROUTES_PAGE = 100;
+
     private final RouteService service;
     private final ReturnRouteRepository routeRepo;
     private final BidRepository bidRepository; // For bidding status endpoint
@@ -51,16 +58,31 @@ public class RouteController {
     private final ProfileRepository profileRepository;
     private final com.example.be.service.BidService bidService;
     private final BidSelectionService bidSelectionService;
+    private final RouteSearchService routeSearchService;
 
     @GetMapping
-    public ResponseEntity<?> getRecentRoutes(@RequestParam(defaultValue = "3") int limit) {
-        log.info("GET /api/routes - Fetching {} most recent routes", limit);
+    public ResponseEntity<?> getRecentRoutes(@RequestParam(defaultValue = "3") int limit,
+                                             @RequestParam(required = false) String cursor) {
+        log.info("GET /api/routes - Fetching {} most recent routes (cursor: {})", limit, cursor);
         try {
-            List<ReturnRoute> routes = routeRepo.findAll()
-                .stream()
-                .sorted((r1, r2) -> r2.getCreatedAt().compareTo(r1.getCreatedAt()))
-                .limit(limit)
-                .collect(java.util.stream.Collectors.toList());
+            int pageSize = Math.max(1, Math.min(limit, MAX_RECENT_ROUTES_PAGE));
+            // Fetch one extra row to know whether another page exists
+            org.springframework.data.domain.Pageable page =
+                org.springframework.data.domain.PageRequest.of(0, pageSize + 1);
+            List<ReturnRoute> routes;
+            if (cursor == null || cursor.isBlank()) {
+                routes = routeRepo.findRecentWithDriver(page);
+            } else {
+                KeysetCursor after = KeysetCursor.decode(cursor);
+                routes = routeRepo.findRecentWithDriverBefore(after.timestamp(), after.id(), page);
+            }
+
+            String nextCursor = null;
+            if (routes.size() > pageSize) {
+                routes = routes.subList(0, pageSize);
+                ReturnRoute last = routes.get(pageSize - 1);
+                nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+            }
             
             // Convert to SimpleRouteDto to avoid circular references
             List<SimpleRouteDto> routeDtos = routes.stream()
@@ -74,10 +96,10 @@ public class RouteController {
                     dto.setDriverProfilePhoto(route.getDriver().getProfilePhotoUrl());
                     dto.setOriginLat(route.getOriginLat());
                     dto.setOriginLng(route.getOriginLng());
-                    dto.setOriginAddress(null); // Address not stored in ReturnRoute entity
+                    dto.setOriginAddress(route.getOriginLocationName());
                     dto.setDestinationLat(route.getDestinationLat());
                     dto.setDestinationLng(route.getDestinationLng());
-                    dto.setDestinationAddress(null); // Address not stored in ReturnRoute entity
+                    dto.setDestinationAddress(route.getDestinationLocationName());
                     dto.setDepartureTime(route.getDepartureTime());
                     dto.setDetourToleranceKm(route.getDetourToleranceKm());
                     dto.setSuggestedPriceMin(route.getSuggestedPriceMin());
@@ -89,7 +111,21 @@ public class RouteController {
                 })
                 .collect(java.util.stream.Collectors.toList());
             
-            return ResponseEntity.ok(routeDtos);
+            // The body stays a plain array for existing clients; the cursor travels in a header
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (nextCursor != null) {
+                ok.header(NEXT_CURSOR_HEADER, nextCursor);
+            }
+            return ok.body(routeDtos);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid recent routes cursor: {}", e.getMessage());
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("timestamp", LocalDateTime.now());
+            errorResponse.put("status", 400);
+            errorResponse.put("error", "Bad Request");
+            errorResponse.put("message", e.getMessage());
+            errorResponse.put("path", "/api/routes");
+            return ResponseEntity.badRequest().body(errorResponse);
         } catch (Exception e) {
             log.error("Error fetching recent routes: ", e);
             Map<String, Object> errorResponse = new HashMap<>();
@@ -101,6 +137,47 @@ public class RouteController {
         }
     }
 
+    @PostMapping("/search")
+    public ResponseEntity<?> searchRoutes(@RequestBody RouteSearchRequestDTO request) {
+        log.info("POST /api/routes/search - Searching routes from ({}, {}) to ({}, {})",
+                request.getPickupLat(), request.getPickupLng(), request.getDropoffLat(), request.getDropoffLng());
+        try {
+            long start = System.nanoTime();
+            List<RouteSearchResponseDTO> matches = routeSearchService.search(request);
+            long elapsedMicros = (System.nanoTime() - start) / 1000;
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("timestamp", LocalDateTime.now());
+            result.put("status", 200);
+            result.put("message", "Route search completed successfully");
+            result.put("totalMatches", matches.size());
+            result.put("indexedRoutes", routeSearchService.getIndexedRouteCount());
+            result.put("searchTimeMicros", elapsedMicros);
+            result.put("routes", matches);
+            result.put("path", "/api/routes/search");
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid route search request: {}", e.getMessage());
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("timestamp", LocalDateTime.now());
+            errorResponse.put("status", 400);
+            errorResponse.put("error", "Bad Request");
+            errorResponse.put("message", e.getMessage());
+            errorResponse.put("path", "/api/routes/search");
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            log.error("Error searching routes: ", e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("timestamp", LocalDateTime.now());
+            errorResponse.put("status", 500);
+            errorResponse.put("error", "Internal Server Error");
+            errorResponse.put("message", e.getMessage());
+            errorResponse.put("details", e.getClass().getSimpleName());
+            errorResponse.put("path", "/api/routes/search");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
     @GetMapping("/{routeId}")
     public ResponseEntity<?> getRouteById(@PathVariable UUID routeId) {
         log.info("GET /api/routes/{} - Fetching route by ID", routeId);
@@ -118,10 +195,10 @@ public class RouteController {
                 dto.setDriverProfilePhoto(route.getDriver().getProfilePhotoUrl());
                 dto.setOriginLat(route.getOriginLat());
                 dto.setOriginLng(route.getOriginLng());
-                dto.setOriginAddress(null); // Address not stored in ReturnRoute entity
+                dto.setOriginAddress(route.getOriginLocationName());
                 dto.setDestinationLat(route.getDestinationLat());
                 dto.setDestinationLng(route.getDestinationLng());
-                dto.setDestinationAddress(null); // Address not stored in ReturnRoute entity
+                dto.setDestinationAddress(route.getDestinationLocationName());
                 dto.setDepartureTime(route.getDepartureTime());
                 dto.setDetourToleranceKm(route.getDetourToleranceKm());
                 dto.setSuggestedPriceMin(route.getSuggestedPriceMin());
@@ -467,7 +544,8 @@ public class RouteController {
             response.setLowestBid(bidsAndRequests.getLowestBid());
             
             // Select optimal bids
-            List<com.example.be.dto.BidSelectionDto> optimalBids = bidSelectionService.selectOptimalBids(routeId, response);
+            com.example.be.dto.BidSelectionResultDto selection = bidSelectionService.selectOptimalBidsWithDetails(routeId, response);
+            List<com.example.be.dto.BidSelectionDto> optimalBids = selection.getBids();
             
             Map<String, Object> result = new HashMap<>();
             result.put("timestamp", LocalDateTime.now());
@@ -476,13 +554,27 @@ public class RouteController {
             result.put("routeId", routeId);
             result.put("totalBidsConsidered", bidsAndRequests.getTotalBids());
             result.put("optimalBidsSelected", optimalBids.size());
-            result.put("selectionCriteria", Map.of(
+            // Capacity of this route's vehicle, the one the selection was checked against
+            Map<String, Object> selectionCriteria = new HashMap<>(Map.of(
                 "priceWeight", bidSelectionService.getWPrice(),
                 "volumeWeight", bidSelectionService.getWVolume(),
                 "distanceWeight", bidSelectionService.getWDistance(),
                 "detourWeight", bidSelectionService.getWDetour(),
-                "vehicleCapacity", bidSelectionService.getCapacityC()
+                "vehicleCapacity", selection.getVehicleMaxVolumeM3()
             ));
+            selectionCriteria.put("vehicleMaxWeightKg", selection.getVehicleMaxWeightKg());
+            result.put("selectionCriteria", selectionCriteria);
+            Map<String, Object> solver = new HashMap<>();
+            solver.put("name", selection.getSolver());
+            solver.put("requested", selection.getRequestedSolver());
+            solver.put("provenOptimal", selection.isProvenOptimal());
+            solver.put("timedOut", selection.isTimedOut());
+            solver.put("objective", selection.getObjective());
+            solver.put("greedyObjective", selection.getGreedyObjective());
+            solver.put("upperBound", selection.getUpperBound());
+            solver.put("objectiveGap", selection.getObjectiveGap());
+            solver.put("solveTimeMs", selection.getSolveTimeMs());
+            result.put("solver", solver);
             result.put("optimalBids", optimalBids);
             result.put("path", "/api/routes/" + routeId + "/optimal-bids");
             
@@ -528,13 +620,16 @@ public class RouteController {
             result.put("message", "All bids ranked successfully");
             result.put("routeId", routeId);
             result.put("totalBids", rankedBids.size());
-            result.put("rankingCriteria", Map.of(
+            BidSelectionService.VehicleCapacity capacity = bidSelectionService.getVehicleCapacity(routeId);
+            Map<String, Object> rankingCriteria = new HashMap<>(Map.of(
                 "priceWeight", bidSelectionService.getWPrice(),
                 "volumeWeight", bidSelectionService.getWVolume(),
                 "distanceWeight", bidSelectionService.getWDistance(),
                 "detourWeight", bidSelectionService.getWDetour(),
-                "vehicleCapacity", bidSelectionService.getCapacityC()
+                "vehicleCapacity", capacity.maxVolumeM3()
             ));
+            rankingCriteria.put("vehicleMaxWeightKg", Double.isInfinite(capacity.maxWeightKg()) ? null : capacity.maxWeightKg());
+            result.put("rankingCriteria", rankingCriteria);
             result.put("rankedBids", rankedBids);
             result.put("path", "/api/routes/" + routeId + "/ranked-bids");
             
@@ -0,0 +1,29 @@
+package com.example.be.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BidSelectionResultDto {
+    private List<BidSelectionDto> bids;
+
+    // Solver whose selection was returned (greedy when nothing better was found in time)
+    private String solver;
+    private String requestedSolver;
+    private boolean provenOptimal;
+    private boolean timedOut;
+
+    // Total offered price of the selection, of the greedy selection, and an upper bound on the best possible
+    private Double objective;
+    private Double greedyObjective;
+    private Double upperBound;
+
+    // (upperBound - objective) / upperBound; 0 when the selection is proven optimal
+    private Double objectiveGap;
+    private Long solveTimeMs;
+
+    // Capacity of the route's vehicle the selection was checked against; weight is null when unlimited
+    private Double vehicleMaxVolumeM3;
+    private Double vehicleMaxWeightKg;
+}
@@ -47,6 +47,14 @@ public class DeliveryDetailsDto {
     private BigDecimal currentLng;
     private ZonedDateTime lastLocationUpdate;
     
+    // Live progress along the driver's route, from the latest fix (null until the first fix)
+    private Integer routeSegmentIndex;
+    private Integer routeSegmentCount;
+    private BigDecimal distanceRemainingKm;
+    private ZonedDateTime liveEstimatedArrival;
+    private Boolean offRoute;
+    private BigDecimal distanceFromRouteKm;
+    
     // Additional delivery information
     private String specialInstructions;
     private String parcelPhotos; // JSON string of photo URLs
@@ -0,0 +1,12 @@
+package com.example.be.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class LocationBatchCreateDto {
+    private UUID deliveryTrackingId; // Default for points that do not set their own
+    private List<LocationPointDto> points;
+}
@@ -0,0 +1,15 @@
+package com.example.be.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+@Data
+public class LocationPointDto {
+    private UUID deliveryTrackingId; // Optional when the batch gives one for all points
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+    private ZonedDateTime recordedAt; // Device time of the fix; server time when missing
+}
@@ -0,0 +1,17 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteBidStatsDto {
+    private UUID routeId;
+    private int totalBids;
+    private BigDecimal highestBid;
+}
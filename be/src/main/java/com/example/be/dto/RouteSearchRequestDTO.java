@@ -0,0 +1,23 @@
+package com.example.be.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+
+@Data
+public class RouteSearchRequestDTO {
+    private BigDecimal pickupLat;
+    private BigDecimal pickupLng;
+    private BigDecimal dropoffLat;
+    private BigDecimal dropoffLng;
+
+    // Departure time window (both optional)
+    private ZonedDateTime departureFrom;
+    private ZonedDateTime departureTo;
+
+    // How far (km) pickup/dropoff may be from the driver's route; defaults to route.search.default-detour-km
+    private BigDecimal maxDetourKm;
+
+    private Integer limit;
+}
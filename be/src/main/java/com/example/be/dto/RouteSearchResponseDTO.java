@@ -0,0 +1,22 @@
+package com.example.be.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+@Data
+public class RouteSearchResponseDTO {
+    private UUID routeId;
+    private UUID driverId;
+    private String status;
+    private ZonedDateTime departureTime;
+    private BigDecimal detourToleranceKm;
+
+    // Where along the route the parcel would be picked up / dropped off
+    private Integer pickupSegmentIndex;
+    private Integer dropoffSegmentIndex;
+    private BigDecimal pickupDistanceKm;
+    private BigDecimal dropoffDistanceKm;
+}
@@ -0,0 +1,31 @@
+package com.example.be.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Reverse-geocoding result for one quantised coordinate cell (about 100 m across)
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "geocode_cache")
+public class GeocodeCacheEntry {
+    @Id
+    @Column(name = "cell_key", nullable = false, length = 32)
+    private String cellKey;
+
+    // Street-level address from the Geocoding REST API (GeocodingService)
+    @Column(name = "formatted_address", columnDefinition = "TEXT")
+    private String formattedAddress;
+
+    // Town/city name from the Maps client (RouteService route names)
+    @Column(name = "locality_name")
+    private String localityName;
+
+    @Column(name = "updated_at", nullable = false)
+    private ZonedDateTime updatedAt;
+}
@@ -63,6 +63,13 @@ public class ReturnRoute {
     @Column(name = "estimated_duration_minutes")
     private Integer estimatedDurationMinutes; // Estimated travel time
 
+    // Resolved asynchronously after creation by RouteEnrichmentService
+    @Column(name = "origin_location_name")
+    private String originLocationName;
+
+    @Column(name = "destination_location_name")
+    private String destinationLocationName;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, columnDefinition = "route_status")
     private RouteStatus status = RouteStatus.OPEN;
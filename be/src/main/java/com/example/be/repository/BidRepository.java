@@ -20,6 +20,20 @@ public interface BidRepository extends JpaRepository<Bid, UUID> {
     @Query(value = "UPDATE parcel_requests SET status = CAST(:status AS parcel_request_status), updated_at = NOW() WHERE id = (SELECT request_id FROM bids WHERE id = :bidId)", nativeQuery = true)
     void updateParcelRequestStatusForBid(@Param("bidId") UUID bidId, @Param("status") String status);
 
+    // Set-based status changes used when bidding on a route closes; only bids still PENDING are touched
+    @Modifying
+    @Query(value = "UPDATE bids SET status = CAST(:status AS bid_status), updated_at = NOW() " +
+            "WHERE route_id = :routeId AND status = 'PENDING' AND id IN (:bidIds)", nativeQuery = true)
+    int updatePendingBidStatuses(@Param("routeId") UUID routeId,
+                                 @Param("bidIds") java.util.Collection<UUID> bidIds,
+                                 @Param("status") String status);
+
+    // Only requests whose bid among the given ones actually ended up ACCEPTED
+    @Modifying
+    @Query(value = "UPDATE parcel_requests SET status = CAST(:status AS parcel_request_status), updated_at = NOW() " +
+            "WHERE id IN (SELECT request_id FROM bids WHERE id IN (:bidIds) AND status = 'ACCEPTED')", nativeQuery = true)
+    int updateParcelRequestStatusForAcceptedBids(@Param("bidIds") java.util.Collection<UUID> bidIds, @Param("status") String status);
+
     @Modifying
     @Query(value = "INSERT INTO bids (request_id, route_id, start_index, end_index, offered_price, status, created_at, updated_at) " +
             "VALUES (:requestId, :routeId, :startIndex, :endIndex, :offeredPrice, CAST(:status AS bid_status), NOW(), NOW())", nativeQuery = true)
@@ -77,6 +91,28 @@ public interface BidRepository extends JpaRepository<Bid, UUID> {
             "WHERE rr.driver_id = :driverId AND b.status = CAST(:status AS bid_status)", nativeQuery = true)
     int countByRouteDriverIdAndStatus(@Param("driverId") UUID driverId, @Param("status") String status);
 
+    // Bid count and highest offer for every route of a driver, in one grouped query
+    @Query(value = "SELECT b.route_id, COUNT(*), MAX(b.offered_price) FROM bids b " +
+            "INNER JOIN return_routes rr ON b.route_id = rr.id " +
+            "WHERE rr.driver_id = :driverId GROUP BY b.route_id", nativeQuery = true)
+    List<Object[]> findBidStatsByDriverId(@Param("driverId") UUID driverId);
+
+    // Parcel requests that have any bid on a route, with their customer and the route's bids (optionally
+    // filtered by status) in one row per bid; requests with no matching bid come back once with null bid columns
+    @Query(value = "SELECT pr.id, pr.customer_id, pr.pickup_lat, pr.pickup_lng, pr.dropoff_lat, pr.dropoff_lng, " +
+            "pr.weight_kg, pr.volume_m3, pr.description, pr.max_budget, pr.deadline, CAST(pr.status AS text), " +
+            "pr.created_at, pr.updated_at, " +
+            "p.first_name, p.last_name, p.email, p.phone_number, " +
+            "b.id AS bid_id, b.start_index, b.end_index, b.offered_price, CAST(b.status AS text), " +
+            "b.created_at AS bid_created_at, b.updated_at AS bid_updated_at " +
+            "FROM parcel_requests pr " +
+            "INNER JOIN profiles p ON pr.customer_id = p.id " +
+            "LEFT JOIN bids b ON b.request_id = pr.id AND b.route_id = :routeId " +
+            "AND (:status IS NULL OR b.status = CAST(:status AS bid_status)) " +
+            "WHERE EXISTS (SELECT 1 FROM bids rb WHERE rb.request_id = pr.id AND rb.route_id = :routeId) " +
+            "ORDER BY pr.created_at DESC, pr.id, b.created_at DESC", nativeQuery = true)
+    List<Object[]> findRequestsWithBidsByRouteId(@Param("routeId") UUID routeId, @Param("status") String status);
+
     // Find bids by route ID with optional status filtering
     @Query(value = "SELECT * FROM bids WHERE route_id = :routeId" +
             " AND (:status IS NULL OR status = CAST(:status AS bid_status)) ORDER BY created_at DESC", nativeQuery = true)
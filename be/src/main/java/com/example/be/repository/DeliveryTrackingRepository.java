@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,6 +29,12 @@ public interface DeliveryTrackingRepository extends JpaRepository<DeliveryTracki
     @Query(value = "SELECT * FROM delivery_tracking WHERE bid_id = :bidId ORDER BY created_at DESC LIMIT 1", nativeQuery = true)
     Optional<DeliveryTracking> findLatestByBidId(@Param("bidId") UUID bidId);
     
+    /**
+     * Which of the given delivery tracking IDs exist
+     */
+    @Query(value = "SELECT id FROM delivery_tracking WHERE id IN (:ids)", nativeQuery = true)
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+    
     /**
      * Count delivery tracking records by bid ID
      */
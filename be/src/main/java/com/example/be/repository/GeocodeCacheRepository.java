@@ -0,0 +1,38 @@
+package com.example.be.repository;
+
+import com.example.be.model.GeocodeCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZonedDateTime;
+
+@Repository
+public interface GeocodeCacheRepository extends JpaRepository<GeocodeCacheEntry, String> {
+
+    /**
+     * Insert or merge a cache entry; null fields never overwrite values already stored
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO geocode_cache (cell_key, formatted_address, locality_name, updated_at)
+        VALUES (:cellKey, :formattedAddress, :localityName, :updatedAt)
+        ON CONFLICT (cell_key) DO UPDATE SET
+            formatted_address = COALESCE(EXCLUDED.formatted_address, geocode_cache.formatted_address),
+            locality_name = COALESCE(EXCLUDED.locality_name, geocode_cache.locality_name),
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    void upsert(@Param("cellKey") String cellKey,
+                @Param("formattedAddress") String formattedAddress,
+                @Param("localityName") String localityName,
+                @Param("updatedAt") ZonedDateTime updatedAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM geocode_cache WHERE updated_at < :cutoff", nativeQuery = true)
+    int deleteOlderThan(@Param("cutoff") ZonedDateTime cutoff);
+}
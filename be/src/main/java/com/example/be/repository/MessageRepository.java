@@ -29,6 +29,53 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
     @Query(value = "SELECT * FROM messages WHERE conversation_id = :conversationId ORDER BY created_at DESC LIMIT 1", nativeQuery = true)
     Message findLastMessageByConversationId(@Param("conversationId") UUID conversationId);
     
+    // Newest page of a conversation, newest first, with the sender's name
+    @Query(value = "SELECT m.id, m.message_text, m.sender_id, m.receiver_id, m.is_read, m.created_at, " +
+            "p.first_name, p.last_name FROM messages m JOIN profiles p ON m.sender_id = p.id " +
+            "WHERE m.conversation_id = :conversationId " +
+            "ORDER BY m.created_at DESC, m.id DESC LIMIT :limit", nativeQuery = true)
+    List<Object[]> findLatestPage(@Param("conversationId") UUID conversationId, @Param("limit") int limit);
+
+    // Page of messages strictly older than the (createdAt, id) cursor, newest first
+    @Query(value = "SELECT m.id, m.message_text, m.sender_id, m.receiver_id, m.is_read, m.created_at, " +
+            "p.first_name, p.last_name FROM messages m JOIN profiles p ON m.sender_id = p.id " +
+            "WHERE m.conversation_id = :conversationId " +
+            "AND (m.created_at < :createdAt OR (m.created_at = :createdAt AND m.id < :id)) " +
+            "ORDER BY m.created_at DESC, m.id DESC LIMIT :limit", nativeQuery = true)
+    List<Object[]> findPageBefore(@Param("conversationId") UUID conversationId,
+                                  @Param("createdAt") java.time.ZonedDateTime createdAt,
+                                  @Param("id") UUID id,
+                                  @Param("limit") int limit);
+
+    // Messages strictly newer than the (createdAt, id) cursor, oldest first
+    @Query(value = "SELECT m.id, m.message_text, m.sender_id, m.receiver_id, m.is_read, m.created_at, " +
+            "p.first_name, p.last_name FROM messages m JOIN profiles p ON m.sender_id = p.id " +
+            "WHERE m.conversation_id = :conversationId " +
+            "AND (m.created_at > :createdAt OR (m.created_at = :createdAt AND m.id > :id)) " +
+            "ORDER BY m.created_at ASC, m.id ASC LIMIT :limit", nativeQuery = true)
+    List<Object[]> findSince(@Param("conversationId") UUID conversationId,
+                             @Param("createdAt") java.time.ZonedDateTime createdAt,
+                             @Param("id") UUID id,
+                             @Param("limit") int limit);
+
+    // Unread counter of a user in a conversation, created on first use; returns the new count
+    @Query(value = "INSERT INTO conversation_unread_counts (conversation_id, user_id, unread_count, updated_at) " +
+            "VALUES (:conversationId, :userId, 1, NOW()) " +
+            "ON CONFLICT (conversation_id, user_id) DO UPDATE " +
+            "SET unread_count = conversation_unread_counts.unread_count + 1, updated_at = NOW() " +
+            "RETURNING unread_count", nativeQuery = true)
+    int incrementUnreadCount(@Param("conversationId") UUID conversationId, @Param("userId") UUID userId);
+
+    @Modifying
+    @Query(value = "UPDATE conversation_unread_counts SET unread_count = 0, updated_at = NOW() " +
+            "WHERE conversation_id = :conversationId AND user_id = :userId AND unread_count <> 0", nativeQuery = true)
+    int resetUnreadCount(@Param("conversationId") UUID conversationId, @Param("userId") UUID userId);
+
+    // Conversations in which the user has unread messages, with their counts
+    @Query(value = "SELECT conversation_id, unread_count FROM conversation_unread_counts " +
+            "WHERE user_id = :userId AND unread_count > 0", nativeQuery = true)
+    List<Object[]> findUnreadCountsByUserId(@Param("userId") UUID userId);
+
     // Mark messages as read
     @Modifying
     @Query(value = "UPDATE messages SET is_read = true WHERE conversation_id = :conversationId AND sender_id != :userId", nativeQuery = true)
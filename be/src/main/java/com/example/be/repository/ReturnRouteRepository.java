@@ -1,6 +1,7 @@
 package com.example.be.repository;
 
 import com.example.be.model.ReturnRoute;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -96,7 +97,7 @@ public interface ReturnRouteRepository extends JpaRepository<ReturnRoute, UUID>
         @Param("totalDistanceKm") java.math.BigDecimal totalDistanceKm
     );
 
-    @Modifying
+    @Modifying(clearAutomatically = true)
     @Query(value = """
         UPDATE return_routes SET
             origin_lat = COALESCE(:originLat, origin_lat),
@@ -150,4 +151,133 @@ public interface ReturnRouteRepository extends JpaRepository<ReturnRoute, UUID>
     @Query(value = "SELECT * FROM return_routes WHERE departure_time <= :closingTime AND status = 'INITIATED'", nativeQuery = true)
     List<ReturnRoute> findRoutesForBidClosing(@Param("closingTime") ZonedDateTime closingTime);
 
+    /**
+     * Lock up to :limit routes whose bidding should be closed (departure within the closing window, pending
+     * bids, nothing accepted yet) and that no node holds a live claim on. Rows locked by another transaction
+     * are skipped rather than waited for.
+     */
+    @Query(value = """
+        SELECT rr.id FROM return_routes rr
+        WHERE rr.status = 'INITIATED'
+        AND rr.departure_time <= :closingTime
+        AND (rr.bidding_claimed_until IS NULL OR rr.bidding_claimed_until < NOW())
+        AND EXISTS (SELECT 1 FROM bids b WHERE b.route_id = rr.id AND b.status = 'PENDING')
+        AND NOT EXISTS (SELECT 1 FROM bids b WHERE b.route_id = rr.id AND b.status = 'ACCEPTED')
+        ORDER BY rr.departure_time ASC
+        LIMIT :limit
+        FOR UPDATE OF rr SKIP LOCKED
+        """, nativeQuery = true)
+    List<UUID> lockRoutesForBidClosing(@Param("closingTime") ZonedDateTime closingTime, @Param("limit") int limit);
+
+    /**
+     * Same as {@link #lockRoutesForBidClosing} for OPEN routes whose bidding has ended
+     */
+    @Query(value = """
+        SELECT rr.id FROM return_routes rr
+        WHERE rr.status = 'OPEN'
+        AND rr.departure_time <= :biddingCutoffTime
+        AND rr.bidding_start <= NOW()
+        AND (rr.bidding_claimed_until IS NULL OR rr.bidding_claimed_until < NOW())
+        AND EXISTS (SELECT 1 FROM bids b WHERE b.route_id = rr.id AND b.status = 'PENDING')
+        AND NOT EXISTS (SELECT 1 FROM bids b WHERE b.route_id = rr.id AND b.status = 'ACCEPTED')
+        ORDER BY rr.departure_time ASC
+        LIMIT :limit
+        FOR UPDATE OF rr SKIP LOCKED
+        """, nativeQuery = true)
+    List<UUID> lockRoutesForAutomaticBidding(@Param("biddingCutoffTime") ZonedDateTime biddingCutoffTime,
+                                             @Param("limit") int limit);
+
+    /**
+     * Single-route form of {@link #lockRoutesForBidClosing}, used when a route's deadline fires
+     */
+    @Query(value = """
+        SELECT rr.id FROM return_routes rr
+        WHERE rr.id = :routeId
+        AND rr.status = 'INITIATED'
+        AND rr.departure_time <= :closingTime
+        AND (rr.bidding_claimed_until IS NULL OR rr.bidding_claimed_until < NOW())
+        AND EXISTS (SELECT 1 FROM bids b WHERE b.route_id = rr.id AND b.status = 'PENDING')
+        AND NOT EXISTS (SELECT 1 FROM bids b WHERE b.route_id = rr.id AND b.status = 'ACCEPTED')
+        FOR UPDATE OF rr SKIP LOCKED
+        """, nativeQuery = true)
+    List<UUID> lockRouteForBidClosing(@Param("routeId") UUID routeId, @Param("closingTime") ZonedDateTime closingTime);
+
+    /**
+     * Single-route form of {@link #lockRoutesForAutomaticBidding}, used when a route's deadline fires
+     */
+    @Query(value = """
+        SELECT rr.id FROM return_routes rr
+        WHERE rr.id = :routeId
+        AND rr.status = 'OPEN'
+        AND rr.departure_time <= :biddingCutoffTime
+        AND rr.bidding_start <= NOW()
+        AND (rr.bidding_claimed_until IS NULL OR rr.bidding_claimed_until < NOW())
+        AND EXISTS (SELECT 1 FROM bids b WHERE b.route_id = rr.id AND b.status = 'PENDING')
+        AND NOT EXISTS (SELECT 1 FROM bids b WHERE b.route_id = rr.id AND b.status = 'ACCEPTED')
+        FOR UPDATE OF rr SKIP LOCKED
+        """, nativeQuery = true)
+    List<UUID> lockRouteForAutomaticBidding(@Param("routeId") UUID routeId,
+                                            @Param("biddingCutoffTime") ZonedDateTime biddingCutoffTime);
+
+    @Modifying
+    @Query(value = """
+        UPDATE return_routes SET bidding_claimed_by = :claimedBy, bidding_claimed_until = :claimedUntil
+        WHERE id IN (:routeIds)
+        """, nativeQuery = true)
+    int claimRoutesForBidding(@Param("routeIds") List<UUID> routeIds,
+                              @Param("claimedBy") String claimedBy,
+                              @Param("claimedUntil") ZonedDateTime claimedUntil);
+
+    /**
+     * The claimed route, locked for the rest of the transaction, if this node still holds its claim
+     */
+    @Query(value = "SELECT * FROM return_routes WHERE id = :routeId AND bidding_claimed_by = :claimedBy FOR UPDATE",
+            nativeQuery = true)
+    java.util.Optional<ReturnRoute> lockClaimedRoute(@Param("routeId") UUID routeId, @Param("claimedBy") String claimedBy);
+
+    @Modifying
+    @Query(value = "UPDATE return_routes SET bidding_claimed_by = NULL, bidding_claimed_until = NULL WHERE id = :routeId",
+            nativeQuery = true)
+    int releaseBiddingClaim(@Param("routeId") UUID routeId);
+
+    @Modifying
+    @Query(value = "UPDATE return_routes SET status = CAST(:status AS route_status), updated_at = NOW() WHERE id = :routeId",
+            nativeQuery = true)
+    int updateRouteStatus(@Param("routeId") UUID routeId, @Param("status") String status);
+
+    /**
+     * Routes that are still open for customers to find (used to build the route search index)
+     */
+    @Query(value = "SELECT * FROM return_routes WHERE status IN ('OPEN', 'INITIATED')", nativeQuery = true)
+    List<ReturnRoute> findSearchableRoutes();
+
+    /**
+     * First page of routes, newest first, with the driver profile fetched in the same query
+     */
+    @Query("SELECT r FROM ReturnRoute r JOIN FETCH r.driver ORDER BY r.createdAt DESC, r.id DESC")
+    List<ReturnRoute> findRecentWithDriver(Pageable pageable);
+
+    /**
+     * Next page of routes strictly after the (createdAt, id) keyset cursor, newest first
+     */
+    @Query("""
+        SELECT r FROM ReturnRoute r JOIN FETCH r.driver
+        WHERE r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)
+        ORDER BY r.createdAt DESC, r.id DESC
+        """)
+    List<ReturnRoute> findRecentWithDriverBefore(@Param("createdAt") ZonedDateTime createdAt,
+                                                 @Param("id") UUID id,
+                                                 Pageable pageable);
+
+    @Modifying
+    @Query(value = """
+        UPDATE return_routes SET
+            origin_location_name = :originName,
+            destination_location_name = :destinationName
+        WHERE id = :routeId
+        """, nativeQuery = true)
+    int updateLocationNames(@Param("routeId") UUID routeId,
+                            @Param("originName") String originName,
+                            @Param("destinationName") String destinationName);
+
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.example.be.repository;
 
 import com.example.be.model.RouteSegment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -24,4 +25,15 @@ public interface RouteSegmentRepository extends JpaRepository<RouteSegment, UUID
      * Find segments by route ID and location name
      */
     List<RouteSegment> findByRouteIdAndLocationName(UUID routeId, String locationName);
-} 
\ No newline at end of file
+
+    /**
+     * Segments of all OPEN/INITIATED routes, grouped by route (used to build the route search index)
+     */
+    @Query(value = """
+        SELECT s.* FROM route_segments s
+        JOIN return_routes r ON r.id = s.route_id
+        WHERE r.status IN ('OPEN', 'INITIATED')
+        ORDER BY s.route_id, s.segment_index
+        """, nativeQuery = true)
+    List<RouteSegment> findSegmentsOfSearchableRoutes();
+}
\ No newline at end of file
@@ -4,20 +4,20 @@ import com.example.be.dto.BidsAndRequestsResponse;
 import com.example.be.dto.RouteBidsAndRequestsDto;
 import com.example.be.dto.BidSelectionDto;
 import com.example.be.model.ReturnRoute;
-import com.example.be.model.Bid;
 import com.example.be.repository.ReturnRouteRepository;
 import com.example.be.repository.BidRepository;
 import com.example.be.types.RouteStatus;
 import com.example.be.types.BidStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -38,112 +38,112 @@ public class BidAutomationService {
     @Autowired
     private BidSelectionService bidSelectionService;
     
+    @Autowired
+    private RouteBiddingClaimService claimService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     /**
-     * Scheduled method to automatically process bidding for routes where bidding has ended.
-     * Runs every minute to check for routes where bidding should end.
+     * Reconciliation sweep for routes where bidding has ended. Routes are normally handled the moment
+     * bidding ends by BidDeadlineScheduler; this catches anything it missed. Due routes are claimed in
+     * batches (see RouteBiddingClaimService), so every node can run this without double-booking a route.
      */
-    @Scheduled(fixedRate = 60000) // Run every 60 seconds
-    @Transactional
+    @Scheduled(fixedRateString = "${bid.closing.reconcile-interval-ms:900000}")
     public void processAutomaticBidSelection() {
         log.debug("Running automatic bid selection process...");
         
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             // Get routes where bidding should end (departure_time - 2 hours <= current time)
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime biddingCutoff = now.plusHours(2); // Routes departing in the next 2 hours
-            
-            List<ReturnRoute> routesForBidding = returnRouteRepository.findRoutesForAutomaticBidding(biddingCutoff);
+            ZonedDateTime biddingCutoff = ZonedDateTime.now().plusHours(2); // Routes departing in the next 2 hours
             
-            log.info("Found {} routes eligible for automatic bid selection", routesForBidding.size());
+            int processed = claimService.processDueRoutes("Automatic bid selection",
+                    limit -> returnRouteRepository.lockRoutesForAutomaticBidding(biddingCutoff, limit),
+                    this::processRouteAutomaticBidSelection);
             
-            for (ReturnRoute route : routesForBidding) {
-                try {
-                    processRouteAutomaticBidSelection(route);
-                } catch (Exception e) {
-                    log.error("Error processing automatic bid selection for route {}: {}", 
-                             route.getId(), e.getMessage(), e);
-                }
-            }
+            log.info("Processed automatic bid selection for {} routes", processed);
             
         } catch (Exception e) {
             log.error("Error in automatic bid selection process: {}", e.getMessage(), e);
+        } finally {
+            sample.stop(meterRegistry.timer("bid.jobs.runs", "job", "bid_selection", "trigger", "sweep"));
         }
     }
     
     /**
-     * Process automatic bid selection for a specific route
+     * Select bids for one route whose bidding has just ended, if it is still due and unclaimed
      */
-    private void processRouteAutomaticBidSelection(ReturnRoute route) {
-        log.info("Processing automatic bid selection for route: {}", route.getId());
-        
+    public boolean selectBidsForDueRoute(UUID routeId) {
+        ZonedDateTime biddingCutoff = ZonedDateTime.now().plusHours(2);
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            // Check if route already has accepted bids
-            long acceptedBidsCount = bidRepository.countByRouteIdAndStatus(route.getId(), BidStatus.ACCEPTED.name());
-            if (acceptedBidsCount > 0) {
-                log.info("Route {} already has accepted bids, skipping automatic selection", route.getId());
-                return;
-            }
-            
-            // Get all pending bids for this route
-            RouteBidsAndRequestsDto bidsAndRequests = bidService.getBidsAndRequestsByRouteId(route.getId(), BidStatus.PENDING);
-            
-            if (bidsAndRequests.getTotalBids() == 0) {
-                log.info("No pending bids found for route {}, skipping automatic selection", route.getId());
-                return;
-            }
-            
-            log.info("Found {} pending bids for route {}", bidsAndRequests.getTotalBids(), route.getId());
-            
-            // Convert to BidsAndRequestsResponse format for BidSelectionService
-            BidsAndRequestsResponse response = new BidsAndRequestsResponse();
-            response.setRouteId(bidsAndRequests.getRouteId());
-            response.setParcelRequestsWithBids(bidsAndRequests.getParcelRequestsWithBids());
-            response.setTotalParcelRequests(bidsAndRequests.getTotalParcelRequests());
-            response.setTotalBids(bidsAndRequests.getTotalBids());
-            response.setHighestBid(bidsAndRequests.getHighestBid());
-            response.setAverageBid(bidsAndRequests.getAverageBid());
-            response.setLowestBid(bidsAndRequests.getLowestBid());
-            
-            // Select optimal bids using the existing service
-            List<BidSelectionDto> optimalBids = bidSelectionService.selectOptimalBids(route.getId(), response);
-            
-            log.info("Selected {} optimal bids for route {}", optimalBids.size(), route.getId());
-            
-            // Mark selected bids as ACCEPTED
-            for (BidSelectionDto selectedBid : optimalBids) {
-                try {
-                    updateBidStatus(selectedBid.getId(), BidStatus.ACCEPTED);
-                    log.info("Marked bid {} as ACCEPTED for route {}", selectedBid.getId(), route.getId());
-                } catch (Exception e) {
-                    log.error("Error updating bid {} status: {}", selectedBid.getId(), e.getMessage());
-                }
-            }
-            
-            // Update route status to BOOKED if we have accepted bids
-            if (!optimalBids.isEmpty()) {
-                route.setStatus(RouteStatus.BOOKED);
-                route.setUpdatedAt(ZonedDateTime.now());
-                returnRouteRepository.save(route);
-                log.info("Updated route {} status to BOOKED", route.getId());
-            }
-            
-        } catch (Exception e) {
-            log.error("Error processing route {} for automatic bid selection: {}", 
-                     route.getId(), e.getMessage(), e);
+            return claimService.processRoute("Automatic bid selection", routeId,
+                    () -> returnRouteRepository.lockRouteForAutomaticBidding(routeId, biddingCutoff),
+                    this::processRouteAutomaticBidSelection);
+        } finally {
+            sample.stop(meterRegistry.timer("bid.jobs.runs", "job", "bid_selection", "trigger", "deadline"));
         }
     }
     
     /**
-     * Update bid status
+     * Process automatic bid selection for a specific route. Runs inside the route's own transaction;
+     * any failure propagates so that route alone is rolled back.
      */
-    private void updateBidStatus(UUID bidId, BidStatus newStatus) {
-        Bid bid = bidRepository.findById(bidId)
-            .orElseThrow(() -> new RuntimeException("Bid not found: " + bidId));
+    private void processRouteAutomaticBidSelection(ReturnRoute route) {
+        log.info("Processing automatic bid selection for route: {}", route.getId());
+        meterRegistry.counter("bid.jobs.routes", "job", "bid_selection").increment();
+        
+        // Check if route already has accepted bids
+        long acceptedBidsCount = bidRepository.countByRouteIdAndStatus(route.getId(), BidStatus.ACCEPTED.name());
+        if (acceptedBidsCount > 0) {
+            log.info("Route {} already has accepted bids, skipping automatic selection", route.getId());
+            return;
+        }
+        
+        // Get all pending bids for this route
+        RouteBidsAndRequestsDto bidsAndRequests = bidService.getBidsAndRequestsByRouteId(route.getId(), BidStatus.PENDING);
+        
+        if (bidsAndRequests.getTotalBids() == 0) {
+            log.info("No pending bids found for route {}, skipping automatic selection", route.getId());
+            return;
+        }
         
-        bid.setStatus(newStatus);
-        bid.setUpdatedAt(ZonedDateTime.now());
-        bidRepository.save(bid);
+        log.info("Found {} pending bids for route {}", bidsAndRequests.getTotalBids(), route.getId());
         
-        log.debug("Updated bid {} status to {}", bidId, newStatus);
+        // Convert to BidsAndRequestsResponse format for BidSelectionService
+        BidsAndRequestsResponse response = new BidsAndRequestsResponse();
+        response.setRouteId(bidsAndRequests.getRouteId());
+        response.setParcelRequestsWithBids(bidsAndRequests.getParcelRequestsWithBids());
+        response.setTotalParcelRequests(bidsAndRequests.getTotalParcelRequests());
+        response.setTotalBids(bidsAndRequests.getTotalBids());
+        response.setHighestBid(bidsAndRequests.getHighestBid());
+        response.setAverageBid(bidsAndRequests.getAverageBid());
+        response.setLowestBid(bidsAndRequests.getLowestBid());
+        
+        // Select optimal bids using the existing service
+        List<BidSelectionDto> optimalBids = bidSelectionService.selectOptimalBids(route.getId(), response);
+        
+        log.info("Selected {} optimal bids for route {}", optimalBids.size(), route.getId());
+        
+        if (optimalBids.isEmpty()) {
+            return;
+        }
+        
+        // Mark selected bids as ACCEPTED in one statement
+        List<UUID> selectedBidIds = new ArrayList<>(optimalBids.size());
+        for (BidSelectionDto selectedBid : optimalBids) {
+            selectedBidIds.add(selectedBid.getId());
+        }
+        int accepted = bidRepository.updatePendingBidStatuses(route.getId(), selectedBidIds, BidStatus.ACCEPTED.name());
+        log.info("Marked {} bids as ACCEPTED for route {}", accepted, route.getId());
+        
+        // Update route status to BOOKED and the matched parcel requests if we have accepted bids
+        if (accepted > 0) {
+            int matched = bidRepository.updateParcelRequestStatusForAcceptedBids(selectedBidIds, "MATCHED");
+            log.info("Updated {} parcel requests to MATCHED for route {}", matched, route.getId());
+            returnRouteRepository.updateRouteStatus(route.getId(), RouteStatus.BOOKED.name());
+            log.info("Updated route {} status to BOOKED", route.getId());
+        }
     }
 }
@@ -8,6 +8,8 @@ import com.example.be.model.ReturnRoute;
 import com.example.be.repository.BidRepository;
 import com.example.be.repository.ReturnRouteRepository;
 import com.example.be.types.BidStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -15,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -27,34 +30,48 @@ public class BidClosingService {
     private final BidRepository bidRepository;
     private final BidService bidService;
     private final BidSelectionService bidSelectionService;
+    private final RouteBiddingClaimService claimService;
+    private final MeterRegistry meterRegistry;
     
     /**
-     * Scheduled task that runs every minute to check for routes that need bid closing
-     * This ensures bids are closed even if the server was down
+     * Reconciliation sweep for routes that need bid closing. Routes are normally closed the moment their
+     * deadline passes by BidDeadlineScheduler; this catches anything it missed (server down, failed or
+     * out-of-band changes). Due routes are claimed in batches (see RouteBiddingClaimService), so every node
+     * can run this without closing a route twice.
      */
-    @Scheduled(fixedRate = 60000) // Run every 60 seconds
-    @Transactional
+    @Scheduled(fixedRateString = "${bid.closing.reconcile-interval-ms:900000}")
     public void processExpiredBids() {
         log.info("Starting scheduled bid closing process...");
         
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             // Find routes where bidding should be closed (3 hours before departure)
             ZonedDateTime threeHoursFromNow = ZonedDateTime.now().plusHours(3);
-            List<ReturnRoute> routesToClose = routeRepository.findRoutesForBidClosing(threeHoursFromNow);
+            int closed = claimService.processDueRoutes("Bid closing",
+                    limit -> routeRepository.lockRoutesForBidClosing(threeHoursFromNow, limit),
+                    this::processRouteBidClosing);
             
-            log.info("Found {} routes that need bid closing", routesToClose.size());
-            
-            for (ReturnRoute route : routesToClose) {
-                try {
-                    processRouteBidClosing(route);
-                } catch (Exception e) {
-                    log.error("Error processing bid closing for route {}: ", route.getId(), e);
-                    // Continue with other routes even if one fails
-                }
-            }
+            log.info("Closed bidding on {} routes", closed);
             
         } catch (Exception e) {
             log.error("Error in scheduled bid closing process: ", e);
+        } finally {
+            sample.stop(meterRegistry.timer("bid.jobs.runs", "job", "bid_closing", "trigger", "sweep"));
+        }
+    }
+    
+    /**
+     * Close bidding on one route whose deadline has just passed, if it is still due and unclaimed
+     */
+    public boolean closeDueRoute(UUID routeId) {
+        ZonedDateTime threeHoursFromNow = ZonedDateTime.now().plusHours(3);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return claimService.processRoute("Bid closing", routeId,
+                    () -> routeRepository.lockRouteForBidClosing(routeId, threeHoursFromNow),
+                    this::processRouteBidClosing);
+        } finally {
+            sample.stop(meterRegistry.timer("bid.jobs.runs", "job", "bid_closing", "trigger", "deadline"));
         }
     }
     
@@ -64,6 +81,7 @@ public class BidClosingService {
     private void processRouteBidClosing(ReturnRoute route) {
         UUID routeId = route.getId();
         log.info("Processing bid closing for route: {}", routeId);
+        meterRegistry.counter("bid.jobs.routes", "job", "bid_closing").increment();
         
         // Check if bidding is already closed for this route
         if (isBiddingAlreadyClosed(routeId)) {
@@ -105,10 +123,10 @@ public class BidClosingService {
                 winningBid.getId(), winningBid.getScore(), routeId);
         
         // Accept the winning bid
-        acceptWinningBid(winningBid.getId());
+        acceptWinningBid(routeId, winningBid.getId());
         
         // Reject all other bids
-        rejectOtherBids(rankedBids, winningBid.getId());
+        rejectOtherBids(routeId, rankedBids, winningBid.getId());
         
         // Update route status to indicate bidding is closed
         updateRouteBiddingStatus(routeId, true);
@@ -122,44 +140,40 @@ public class BidClosingService {
      */
     private boolean isBiddingAlreadyClosed(UUID routeId) {
         // Check if there are any accepted bids for this route using native SQL
-        List<Bid> acceptedBids = bidRepository.findByRouteIdAndStatusNative(routeId, "ACCEPTED");
-        return !acceptedBids.isEmpty();
+        return bidRepository.countByRouteIdAndStatus(routeId, BidStatus.ACCEPTED.name()) > 0;
     }
     
     /**
      * Accept the winning bid using native SQL
      */
-    private void acceptWinningBid(UUID bidId) {
-        try {
-            // Use native SQL to update bid status to avoid enum issues
-            bidRepository.updateBidStatus(bidId, "ACCEPTED");
-            
-            // Also update the associated parcel request status to MATCHED
-            bidRepository.updateParcelRequestStatusForBid(bidId, "MATCHED");
-            
-            log.info("Successfully accepted winning bid: {} and updated parcel request status to MATCHED", bidId);
-        } catch (Exception e) {
-            log.error("Error accepting winning bid {}: ", bidId, e);
-            throw e;
+    private void acceptWinningBid(UUID routeId, UUID bidId) {
+        // Only a still-pending bid can win; if it changed under us, roll back this route and retry later
+        int accepted = bidRepository.updatePendingBidStatuses(routeId, List.of(bidId), BidStatus.ACCEPTED.name());
+        if (accepted == 0) {
+            throw new IllegalStateException("Winning bid " + bidId + " is no longer pending");
         }
+        
+        // Also update the associated parcel request status to MATCHED
+        bidRepository.updateParcelRequestStatusForBid(bidId, "MATCHED");
+        
+        log.info("Successfully accepted winning bid: {} and updated parcel request status to MATCHED", bidId);
     }
     
     /**
-     * Reject all other bids using native SQL
+     * Reject all other ranked bids in one statement
      */
-    private void rejectOtherBids(List<BidSelectionDto> rankedBids, UUID winningBidId) {
+    private void rejectOtherBids(UUID routeId, List<BidSelectionDto> rankedBids, UUID winningBidId) {
+        List<UUID> losingBidIds = new ArrayList<>(rankedBids.size());
         for (BidSelectionDto bid : rankedBids) {
             if (!bid.getId().equals(winningBidId)) {
-                try {
-                    // Use native SQL to update bid status to avoid enum issues
-                    bidRepository.updateBidStatus(bid.getId(), "REJECTED");
-                    log.debug("Rejected bid: {}", bid.getId());
-                } catch (Exception e) {
-                    log.error("Error rejecting bid {}: ", bid.getId(), e);
-                    // Continue with other bids even if one fails
-                }
+                losingBidIds.add(bid.getId());
             }
         }
+        if (losingBidIds.isEmpty()) {
+            return;
+        }
+        int rejected = bidRepository.updatePendingBidStatuses(routeId, losingBidIds, BidStatus.REJECTED.name());
+        log.debug("Rejected {} bids for route {}", rejected, routeId);
     }
     
     /**
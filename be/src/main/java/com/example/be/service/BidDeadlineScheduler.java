@@ -0,0 +1,178 @@
+package com.example.be.service;
+
+import com.example.be.model.ReturnRoute;
+import com.example.be.repository.ReturnRouteRepository;
+import com.example.be.util.HierarchicalTimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires bid closing for each route at its own deadline instead of waiting for the next sweep.
+ *
+ * Every open route has two deadlines in in-memory timing wheels: bid closing at departure - 3h and
+ * automatic bid selection when bidding ends (departure - 2h, but not before bidding starts). They are
+ * loaded at startup and kept current by RouteService on create, update and delete. When a deadline
+ * passes, only that route is claimed and processed; whether it is actually due (status, pending bids)
+ * is decided by the claim query, so a stale deadline does nothing. The periodic sweeps in
+ * BidClosingService and BidAutomationService remain as a reconciliation safety net.
+ */
+@Slf4j
+@Service
+public class BidDeadlineScheduler {
+
+    static final Duration CLOSING_BEFORE_DEPARTURE = Duration.ofHours(3);
+    static final Duration SELECTION_BEFORE_DEPARTURE = Duration.ofHours(2);
+
+    private final ReturnRouteRepository routeRepository;
+    private final BidClosingService bidClosingService;
+    private final BidAutomationService bidAutomationService;
+    private final Executor workers;
+    private final long tickMillis;
+
+    private final HierarchicalTimingWheel<UUID> closingDeadlines;
+    private final HierarchicalTimingWheel<UUID> selectionDeadlines;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "bid-deadline-ticker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public BidDeadlineScheduler(ReturnRouteRepository routeRepository,
+                                BidClosingService bidClosingService,
+                                BidAutomationService bidAutomationService,
+                                @Qualifier("bidDeadlineExecutor") Executor workers,
+                                @Value("${bid.deadline.tick-ms:1000}") long tickMillis,
+                                @Value("${bid.deadline.wheel-size:512}") int wheelSize) {
+        this.routeRepository = routeRepository;
+        this.bidClosingService = bidClosingService;
+        this.bidAutomationService = bidAutomationService;
+        this.workers = workers;
+        this.tickMillis = tickMillis;
+        long now = System.currentTimeMillis();
+        this.closingDeadlines = new HierarchicalTimingWheel<>(tickMillis, wheelSize, now);
+        this.selectionDeadlines = new HierarchicalTimingWheel<>(tickMillis, wheelSize, now);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            List<ReturnRoute> routes = routeRepository.findSearchableRoutes();
+            for (ReturnRoute route : routes) {
+                // Deadlines that already passed are left to the reconciliation sweep
+                schedule(route.getId(), route.getDepartureTime(), route.getBiddingStart(), false);
+            }
+            log.info("Loaded bid deadlines for {} routes ({} closing, {} selection pending)",
+                    routes.size(), closingDeadlines.size(), selectionDeadlines.size());
+        } catch (Exception e) {
+            log.error("Could not load bid deadlines, relying on the reconciliation sweep: ", e);
+        }
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * (Re)schedule a route's deadlines once the current transaction commits. A deadline that has
+     * already passed fires straight away.
+     */
+    public void track(UUID routeId, ZonedDateTime departureTime, ZonedDateTime biddingStart) {
+        afterCommit(() -> schedule(routeId, departureTime, biddingStart, true));
+    }
+
+    public void untrack(UUID routeId) {
+        afterCommit(() -> {
+            closingDeadlines.cancel(routeId);
+            selectionDeadlines.cancel(routeId);
+        });
+    }
+
+    public int getScheduledClosingCount() {
+        return closingDeadlines.size();
+    }
+
+    public int getScheduledSelectionCount() {
+        return selectionDeadlines.size();
+    }
+
+    private void schedule(UUID routeId, ZonedDateTime departureTime, ZonedDateTime biddingStart, boolean fireIfDue) {
+        if (departureTime == null) {
+            closingDeadlines.cancel(routeId);
+            selectionDeadlines.cancel(routeId);
+            return;
+        }
+        long closingAt = departureTime.minus(CLOSING_BEFORE_DEPARTURE).toInstant().toEpochMilli();
+        if (!closingDeadlines.schedule(routeId, closingAt) && fireIfDue) {
+            fire(routeId, true);
+        }
+
+        long selectionAt = departureTime.minus(SELECTION_BEFORE_DEPARTURE).toInstant().toEpochMilli();
+        if (biddingStart != null) {
+            selectionAt = Math.max(selectionAt, biddingStart.toInstant().toEpochMilli());
+        }
+        if (!selectionDeadlines.schedule(routeId, selectionAt) && fireIfDue) {
+            fire(routeId, false);
+        }
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            for (UUID routeId : closingDeadlines.advanceTo(now)) {
+                fire(routeId, true);
+            }
+            for (UUID routeId : selectionDeadlines.advanceTo(now)) {
+                fire(routeId, false);
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the ticker
+            log.error("Error advancing bid deadlines: ", e);
+        }
+    }
+
+    private void fire(UUID routeId, boolean closing) {
+        try {
+            workers.execute(() -> {
+                if (closing) {
+                    bidClosingService.closeDueRoute(routeId);
+                } else {
+                    bidAutomationService.selectBidsForDueRoute(routeId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Bid deadline workers are saturated, route {} is left to the reconciliation sweep", routeId);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+}
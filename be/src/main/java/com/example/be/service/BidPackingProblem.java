@@ -0,0 +1,231 @@
+package com.example.be.service;
+
+import com.example.be.dto.BidSelectionDto;
+import com.example.be.util.SegmentLoadTree;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Bid selection as a packing problem: choose bids maximising total offered price so that, on every
+ * route segment, the parcels on board fit the vehicle's weight and volume, and each parcel request
+ * is carried at most once. Items are indexed in the order given (best score first), which is also
+ * the order the greedy solver tries them in.
+ */
+public final class BidPackingProblem {
+
+    static final double EPSILON = 1e-9;
+
+    private final int size;
+    private final int segments;
+    private final int[] start;
+    private final int[] end;
+    private final double[] volume;
+    private final double[] weight;
+    private final double[] value;
+    private final int[] group;
+    private final int groups;
+    private final double maxVolume;
+    private final double maxWeight;
+
+    private BidPackingProblem(int size, int segments, int[] start, int[] end, double[] volume, double[] weight,
+                              double[] value, int[] group, int groups, double maxVolume, double maxWeight) {
+        this.size = size;
+        this.segments = segments;
+        this.start = start;
+        this.end = end;
+        this.volume = volume;
+        this.weight = weight;
+        this.value = value;
+        this.group = group;
+        this.groups = groups;
+        this.maxVolume = maxVolume;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Build from bids already sorted by score, best first
+     */
+    public static BidPackingProblem of(List<BidSelectionDto> rankedBids, BidSelectionService.VehicleCapacity capacity) {
+        int n = rankedBids.size();
+        int[] start = new int[n];
+        int[] end = new int[n];
+        double[] volume = new double[n];
+        double[] weight = new double[n];
+        double[] value = new double[n];
+        int[] group = new int[n];
+        Map<UUID, Integer> groupIds = new HashMap<>();
+        int maxEnd = 0;
+
+        for (int i = 0; i < n; i++) {
+            BidSelectionDto bid = rankedBids.get(i);
+            boolean hasRange = bid.getStartIndex() != null && bid.getEndIndex() != null
+                && bid.getStartIndex() >= 0 && bid.getStartIndex() <= bid.getEndIndex();
+            // Bids without a usable segment range only have to fit on their own
+            start[i] = hasRange ? bid.getStartIndex() : -1;
+            end[i] = hasRange ? bid.getEndIndex() : -1;
+            maxEnd = Math.max(maxEnd, end[i]);
+            volume[i] = bid.getVolume() != null ? bid.getVolume().doubleValue() : 0.0;
+            weight[i] = bid.getWeightKg() != null ? bid.getWeightKg().doubleValue() : 0.0;
+            value[i] = bid.getOfferedPrice() != null ? bid.getOfferedPrice().doubleValue() : 0.0;
+            group[i] = bid.getRequestId() != null
+                ? groupIds.computeIfAbsent(bid.getRequestId(), k -> groupIds.size())
+                : -1;
+        }
+        // Bids without a request ID get their own group each
+        int groups = groupIds.size();
+        for (int i = 0; i < n; i++) {
+            if (group[i] < 0) {
+                group[i] = groups++;
+            }
+        }
+        return new BidPackingProblem(n, maxEnd + 1, start, end, volume, weight, value, group, groups,
+            capacity.maxVolumeM3(), capacity.maxWeightKg());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double value(int item) {
+        return value[item];
+    }
+
+    int group(int item) {
+        return group[item];
+    }
+
+    int groupCount() {
+        return groups;
+    }
+
+    SegmentLoadTree newLoad() {
+        return new SegmentLoadTree(segments);
+    }
+
+    /**
+     * True if the item fits on every segment it rides on, given the current loads
+     */
+    boolean fits(int item, SegmentLoadTree volumeLoad, SegmentLoadTree weightLoad) {
+        if (start[item] < 0) {
+            return volume[item] <= maxVolume + EPSILON && weight[item] <= maxWeight + EPSILON;
+        }
+        return volumeLoad.max(start[item], end[item]) + volume[item] <= maxVolume + EPSILON
+            && weightLoad.max(start[item], end[item]) + weight[item] <= maxWeight + EPSILON;
+    }
+
+    /**
+     * Load (sign = 1) or unload (sign = -1) the item on its segments
+     */
+    void place(int item, SegmentLoadTree volumeLoad, SegmentLoadTree weightLoad, int sign) {
+        if (start[item] >= 0) {
+            volumeLoad.add(start[item], end[item], sign * volume[item]);
+            weightLoad.add(start[item], end[item], sign * weight[item]);
+        }
+    }
+
+    double objective(int[] items) {
+        double total = 0;
+        for (int item : items) {
+            total += value[item];
+        }
+        return total;
+    }
+
+    /**
+     * Volume and weight "used" by the item in the surrogate relaxation: load times segments ridden
+     */
+    double surrogateVolume(int item) {
+        return start[item] < 0 ? 0 : (end[item] - start[item] + 1) * volume[item];
+    }
+
+    double surrogateWeight(int item) {
+        return start[item] < 0 ? 0 : (end[item] - start[item] + 1) * weight[item];
+    }
+
+    /**
+     * Upper bound on the value obtainable from the available items, given the surrogate capacity
+     * already used. Summing the per-segment constraints gives one knapsack per dimension
+     * (sum of load x segments &lt;= capacity x segment count), whose fractional optimum is an upper
+     * bound for the real problem; the smaller of the weight and volume bounds is returned.
+     */
+    double surrogateBound(IntPredicate available, double usedVolume, double usedWeight,
+                          int[] volumeOrder, int[] weightOrder) {
+        double byVolume = fractionalKnapsack(available, volumeOrder, true, maxVolume * segments - usedVolume);
+        double byWeight = fractionalKnapsack(available, weightOrder, false, maxWeight * segments - usedWeight);
+        return Math.min(byVolume, byWeight);
+    }
+
+    double rootBound() {
+        return surrogateBound(i -> true, 0, 0, densityOrder(true), densityOrder(false));
+    }
+
+    /**
+     * Items by value per unit of surrogate volume (or weight), best first
+     */
+    int[] densityOrder(boolean byVolume) {
+        return sortedBy(i -> {
+            double cost = byVolume ? surrogateVolume(i) : surrogateWeight(i);
+            return cost <= 0 ? Double.POSITIVE_INFINITY : value[i] / cost;
+        });
+    }
+
+    int[] valueOrder() {
+        return sortedBy(i -> value[i]);
+    }
+
+    private int[] sortedBy(IntToDoubleFunction key) {
+        return IntStream.range(0, size)
+            .boxed()
+            .sorted((a, b) -> Double.compare(key.applyAsDouble(b), key.applyAsDouble(a)))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    private double fractionalKnapsack(IntPredicate available, int[] order, boolean byVolume, double capacity) {
+        double total = 0;
+        double remaining = Math.max(0, capacity);
+        for (int item : order) {
+            if (!available.test(item)) {
+                continue;
+            }
+            double cost = byVolume ? surrogateVolume(item) : surrogateWeight(item);
+            if (cost <= remaining) {
+                total += value[item];
+                remaining -= cost;
+            } else {
+                total += value[item] * remaining / cost;
+                break;
+            }
+        }
+        return total;
+    }
+
+    int[] chosenItems(boolean[] chosen) {
+        int count = 0;
+        for (boolean c : chosen) {
+            if (c) {
+                count++;
+            }
+        }
+        int[] items = new int[count];
+        int k = 0;
+        for (int i = 0; i < chosen.length; i++) {
+            if (chosen[i]) {
+                items[k++] = i;
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public String toString() {
+        return "BidPackingProblem{bids=" + size + ", segments=" + segments
+            + ", maxVolume=" + maxVolume + ", maxWeight=" + maxWeight + "}";
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.be.service;
+
+/**
+ * Result of one {@link BidPackingSolver} run. Items are indices into the {@link BidPackingProblem}.
+ *
+ * @param solver    name of the solver whose selection this is
+ * @param items     chosen bids, ascending
+ * @param objective total offered price of the chosen bids
+ * @param optimal   true when the solver proved no better selection exists
+ * @param timedOut  true when the time budget ran out before the solver finished
+ */
+public record BidPackingSolution(String solver, int[] items, double objective, boolean optimal, boolean timedOut) {
+}
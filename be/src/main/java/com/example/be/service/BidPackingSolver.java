@@ -0,0 +1,17 @@
+package com.example.be.service;
+
+/**
+ * Strategy for choosing which bids a route accepts. Implementations are Spring beans picked by
+ * {@link #name()} through the bid.selection.solver property.
+ */
+public interface BidPackingSolver {
+
+    String name();
+
+    /**
+     * Solve the problem, stopping once System.nanoTime() passes deadlineNanos.
+     * The incumbent (may be null) is a feasible selection to improve on; if nothing better is found
+     * in time it is returned unchanged apart from the timedOut flag.
+     */
+    BidPackingSolution solve(BidPackingProblem problem, BidPackingSolution incumbent, long deadlineNanos);
+}
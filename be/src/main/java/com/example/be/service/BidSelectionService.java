@@ -1,17 +1,21 @@
 package com.example.be.service;
 
 import com.example.be.dto.BidSelectionDto;
+import com.example.be.dto.BidSelectionResultDto;
 import com.example.be.dto.BidsAndRequestsResponse;
 import com.example.be.dto.ParcelRequestWithBidsDto;
 import com.example.be.dto.BidDto;
 import com.example.be.model.ReturnRoute;
+import com.example.be.model.Vehicle;
 import com.example.be.repository.ReturnRouteRepository;
+import com.example.be.repository.VehicleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.UUID;
@@ -35,34 +39,74 @@ public class BidSelectionService {
     @Value("${bid.weights.detour:0.1}")
     private double wDetour;
     
+    // Fallback volume capacity (m3) for drivers without a registered vehicle
     @Value("${vehicle.capacity:100.0}")
     private double capacityC;
     
+    // Packing solver: auto, greedy, branch-and-bound or local-search
+    @Value("${bid.selection.solver:auto}")
+    private String solverMode;
+    
+    @Value("${bid.selection.time-budget-ms:200}")
+    private long timeBudgetMs;
+    
+    // In auto mode, routes with up to this many bids are solved exactly
+    @Value("${bid.selection.exact-max-bids:40}")
+    private int exactMaxBids;
+    
     private final GeocodingService geocodingService;
     
     private final ReturnRouteRepository routeRepository;
+    
+    private final VehicleRepository vehicleRepository;
+    
+    private final RouteGeometryService routeGeometryService;
+    
+    private final List<BidPackingSolver> packingSolvers;
+    
+    // Used only for routes without stored segments or distance
+    private static final double DEFAULT_ROUTE_KM = 100.0;
+
+    /**
+     * What the route's vehicle can carry at once; weight is unlimited when the vehicle has none recorded
+     */
+    public record VehicleCapacity(double maxWeightKg, double maxVolumeM3) {
+    }
 
     /**
      * Takes the API's BidsAndRequestsResponse, flattens all the BidDTOs into internal Bids,
-     * computes a score for each, and then greedily selects the highest-scoring ones
-     * that fit capacity segment-by-segment.
+     * computes a score for each, and then selects the set of bids with the highest total price
+     * that fits the driver's vehicle (weight and volume) on every segment, one bid per parcel.
      */
     public List<BidSelectionDto> selectOptimalBids(UUID routeId, BidsAndRequestsResponse resp) {
+        return selectOptimalBidsWithDetails(routeId, resp).getBids();
+    }
+
+    /**
+     * Same as {@link #selectOptimalBids}, also reporting which solver produced the selection and
+     * how far it may be from the best possible revenue
+     */
+    public BidSelectionResultDto selectOptimalBidsWithDetails(UUID routeId, BidsAndRequestsResponse resp) {
         log.info("Starting optimal bid selection for route: {}", routeId);
         
         // Get route details
         ReturnRoute route = routeRepository.findById(routeId)
             .orElseThrow(() -> new RuntimeException("Route not found: " + routeId));
+        VehicleCapacity capacity = getVehicleCapacity(route);
+        RouteGeometryService.RouteGeometry geometry = routeGeometryService.getGeometry(route);
         
         // 1) figure out the min / max prices across *all* bids
         double minPrice = resp.getLowestBid() != null ? resp.getLowestBid().doubleValue() : 0.0;
         double maxPrice = resp.getHighestBid() != null ? resp.getHighestBid().doubleValue() : 0.0;
-        double totalDist = 100.0; // Default distance - you can enhance this with actual route calculation
+        double totalDist = routeLengthKm(route, geometry);
         
         // Handle case where there are no bids or all bids have zero price
         if (minPrice == 0.0 && maxPrice == 0.0) {
             log.warn("No valid bids found for route: {} - returning empty list", routeId);
-            return new ArrayList<>();
+            BidSelectionResultDto empty = new BidSelectionResultDto();
+            empty.setBids(new ArrayList<>());
+            setCapacity(empty, capacity);
+            return empty;
         }
         
         log.info("Price range: min={}, max={}, total distance={}", minPrice, maxPrice, totalDist);
@@ -78,14 +122,14 @@ public class BidSelectionService {
         // 3) normalize & score
         allBids.forEach(b -> {
             double normPrice = (maxPrice - minPrice) > 0 ? (b.getOfferedPrice().doubleValue() - minPrice) / (maxPrice - minPrice) : 0.5;
-            double normVol = b.getVolume().doubleValue() / capacityC;
+            double normVol = volumeOf(b) / capacity.maxVolumeM3();
             
-            // Calculate distance for this bid's segments
-            double bidDist = calculateBidDistance(b.getStartIndex(), b.getEndIndex(), route);
+            // Distance this bid rides along the route, from the segment prefix sums
+            double bidDist = calculateBidDistance(b.getStartIndex(), b.getEndIndex(), geometry);
             double normDist = bidDist / totalDist;
             
-            // Estimate detour percentage (simplified calculation)
-            double detourPct = estimateDetourPercentage(b.getStartIndex(), b.getEndIndex(), route);
+            // Extra driving to reach the pickup and dropoff, as a share of the route
+            double detourPct = estimateDetourPercentage(b, geometry, totalDist);
             
             // Set normalized values
             b.setNormalizedPrice(normPrice);
@@ -104,17 +148,64 @@ public class BidSelectionService {
                 b.getId(), normPrice, normVol, normDist, detourPct, score);
         });
 
-        // 4) greedy pick
-        List<BidSelectionDto> selected = new ArrayList<>();
-        List<BidSelectionDto> optimalBids = allBids.stream()
+        // 4) pack: best total price that fits on every segment, starting from the greedy-by-score selection
+        List<BidSelectionDto> ranked = allBids.stream()
             .sorted(Comparator.comparing(BidSelectionDto::getScore).reversed())
-            .filter(b -> fitsCapacityOnAllSegments(b, route, selected))
-            .peek(selected::add)
             .collect(Collectors.toList());
+        BidPackingProblem problem = BidPackingProblem.of(ranked, capacity);
+        
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + Math.max(0, timeBudgetMs) * 1_000_000L;
+        BidPackingSolution greedy = solver(GreedyBidPackingSolver.NAME).solve(problem, null, deadline);
+        BidPackingSolver chosenSolver = chooseSolver(problem);
+        BidPackingSolution solution = chosenSolver.name().equals(GreedyBidPackingSolver.NAME)
+            ? greedy
+            : chosenSolver.solve(problem, greedy, deadline);
+        long solveMillis = (System.nanoTime() - startNanos) / 1_000_000L;
+        
+        // Items are indices into the score-ordered list, so ascending order keeps best score first
+        List<BidSelectionDto> optimalBids = new ArrayList<>();
+        for (int item : solution.items()) {
+            optimalBids.add(ranked.get(item));
+        }
+        fillLocationNames(optimalBids);
+        
+        double upperBound = solution.optimal() ? solution.objective() : Math.max(solution.objective(), problem.rootBound());
+        double gap = upperBound > 0 ? (upperBound - solution.objective()) / upperBound : 0.0;
+        
+        BidSelectionResultDto result = new BidSelectionResultDto();
+        result.setBids(optimalBids);
+        result.setSolver(solution.solver());
+        result.setRequestedSolver(chosenSolver.name());
+        result.setProvenOptimal(solution.optimal());
+        result.setTimedOut(solution.timedOut());
+        result.setObjective(solution.objective());
+        result.setGreedyObjective(greedy.objective());
+        result.setUpperBound(upperBound);
+        result.setObjectiveGap(gap);
+        result.setSolveTimeMs(solveMillis);
+        setCapacity(result, capacity);
 
-        log.info("Selected {} optimal bids out of {} total bids", optimalBids.size(), allBids.size());
+        log.info("Selected {} optimal bids out of {} total bids using {} (revenue={}, greedy={}, gap={}, {} ms{})",
+            optimalBids.size(), allBids.size(), solution.solver(), solution.objective(), greedy.objective(),
+            String.format("%.4f", gap), solveMillis, solution.timedOut() ? ", time budget exceeded" : "");
         
-        return optimalBids;
+        return result;
+    }
+
+    private BidPackingSolver chooseSolver(BidPackingProblem problem) {
+        String mode = solverMode == null || solverMode.isBlank() ? "auto" : solverMode.trim();
+        if ("auto".equalsIgnoreCase(mode)) {
+            return solver(problem.size() <= exactMaxBids ? BranchAndBoundBidPackingSolver.NAME : LocalSearchBidPackingSolver.NAME);
+        }
+        return solver(mode);
+    }
+
+    private BidPackingSolver solver(String name) {
+        return packingSolvers.stream()
+            .filter(s -> s.name().equalsIgnoreCase(name))
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Unknown bid selection solver: " + name));
     }
 
     /**
@@ -127,11 +218,13 @@ public class BidSelectionService {
         // Get route details
         ReturnRoute route = routeRepository.findById(routeId)
             .orElseThrow(() -> new RuntimeException("Route not found: " + routeId));
+        VehicleCapacity capacity = getVehicleCapacity(route);
+        RouteGeometryService.RouteGeometry geometry = routeGeometryService.getGeometry(route);
         
         // 1) figure out the min / max prices across *all* bids
         double minPrice = resp.getLowestBid() != null ? resp.getLowestBid().doubleValue() : 0.0;
         double maxPrice = resp.getHighestBid() != null ? resp.getHighestBid().doubleValue() : 0.0;
-        double totalDist = 100.0; // Default distance - you can enhance this with actual route calculation
+        double totalDist = routeLengthKm(route, geometry);
         
         // Handle case where there are no bids or all bids have zero price
         if (minPrice == 0.0 && maxPrice == 0.0) {
@@ -152,14 +245,14 @@ public class BidSelectionService {
         // 3) normalize & score (same as optimal selection)
         allBids.forEach(b -> {
             double normPrice = (maxPrice - minPrice) > 0 ? (b.getOfferedPrice().doubleValue() - minPrice) / (maxPrice - minPrice) : 0.5;
-            double normVol = b.getVolume().doubleValue() / capacityC;
+            double normVol = volumeOf(b) / capacity.maxVolumeM3();
             
-            // Calculate distance for this bid's segments
-            double bidDist = calculateBidDistance(b.getStartIndex(), b.getEndIndex(), route);
+            // Distance this bid rides along the route, from the segment prefix sums
+            double bidDist = calculateBidDistance(b.getStartIndex(), b.getEndIndex(), geometry);
             double normDist = bidDist / totalDist;
             
-            // Estimate detour percentage (simplified calculation)
-            double detourPct = estimateDetourPercentage(b.getStartIndex(), b.getEndIndex(), route);
+            // Extra driving to reach the pickup and dropoff, as a share of the route
+            double detourPct = estimateDetourPercentage(b, geometry, totalDist);
             
             // Set normalized values
             b.setNormalizedPrice(normPrice);
@@ -183,6 +276,7 @@ public class BidSelectionService {
             .sorted(Comparator.comparing(BidSelectionDto::getScore).reversed())
             .collect(Collectors.toList());
 
+        fillLocationNames(rankedBids);
         log.info("Ranked {} bids by score", rankedBids.size());
         
         return rankedBids;
@@ -220,80 +314,132 @@ public class BidSelectionService {
         bid.setDropoffLat(request.getDropoffLat());
         bid.setDropoffLng(request.getDropoffLng());
         
-        // Convert coordinates to location names
-        try {
-            if (request.getPickupLat() != null && request.getPickupLng() != null) {
-                String pickupLocation = geocodingService.getLocationName(request.getPickupLat(), request.getPickupLng());
-                bid.setPickupLocation(pickupLocation);
+        // Location names are filled in after scoring, in one batch (see fillLocationNames)
+        
+        return bid;
+    }
+
+    /**
+     * Resolve pickup and delivery names for the bids being returned, with every distinct point
+     * looked up once and cache misses fetched concurrently
+     */
+    private void fillLocationNames(List<BidSelectionDto> bids) {
+        List<double[]> points = new ArrayList<>();
+        for (BidSelectionDto bid : bids) {
+            if (bid.getPickupLat() != null && bid.getPickupLng() != null) {
+                points.add(new double[]{bid.getPickupLat().doubleValue(), bid.getPickupLng().doubleValue()});
             }
-            
-            if (request.getDropoffLat() != null && request.getDropoffLng() != null) {
-                String deliveryLocation = geocodingService.getLocationName(request.getDropoffLat(), request.getDropoffLng());
-                bid.setDeliveryLocation(deliveryLocation);
+            if (bid.getDropoffLat() != null && bid.getDropoffLng() != null) {
+                points.add(new double[]{bid.getDropoffLat().doubleValue(), bid.getDropoffLng().doubleValue()});
             }
+        }
+        if (points.isEmpty()) {
+            return;
+        }
+        
+        Map<String, String> names;
+        try {
+            names = geocodingService.getLocationNames(points);
         } catch (Exception e) {
-            log.warn("Error geocoding locations for bid {}: {}", bidDto.getId(), e.getMessage());
-            // Set fallback coordinate strings if geocoding fails
-            if (request.getPickupLat() != null && request.getPickupLng() != null) {
-                bid.setPickupLocation(String.format("%.4f, %.4f", 
-                    request.getPickupLat().doubleValue(), request.getPickupLng().doubleValue()));
+            log.warn("Error geocoding locations for {} bids: {}", bids.size(), e.getMessage());
+            names = Map.of();
+        }
+        for (BidSelectionDto bid : bids) {
+            if (bid.getPickupLat() != null && bid.getPickupLng() != null) {
+                bid.setPickupLocation(locationName(names, bid.getPickupLat(), bid.getPickupLng()));
             }
-            if (request.getDropoffLat() != null && request.getDropoffLng() != null) {
-                bid.setDeliveryLocation(String.format("%.4f, %.4f", 
-                    request.getDropoffLat().doubleValue(), request.getDropoffLng().doubleValue()));
+            if (bid.getDropoffLat() != null && bid.getDropoffLng() != null) {
+                bid.setDeliveryLocation(locationName(names, bid.getDropoffLat(), bid.getDropoffLng()));
             }
         }
-        
-        return bid;
     }
 
-    private double calculateBidDistance(Integer startIndex, Integer endIndex, ReturnRoute route) {
-        // Simplified distance calculation - you can enhance this based on your route segments
-        if (startIndex == null || endIndex == null) {
-            return 0.0;
+    private String locationName(Map<String, String> names, java.math.BigDecimal lat, java.math.BigDecimal lng) {
+        String name = names.get(geocodingService.locationKey(lat, lng));
+        // Fall back to coordinate strings if geocoding failed
+        return name != null ? name : String.format("%.4f, %.4f", lat.doubleValue(), lng.doubleValue());
+    }
+
+    private double routeLengthKm(ReturnRoute route, RouteGeometryService.RouteGeometry geometry) {
+        if (geometry != null && geometry.totalKm() > 0) {
+            return geometry.totalKm();
         }
-        
-        // For now, assume equal segment distances
-        double totalDistance = 100.0; // Default distance - you can enhance this with actual route calculation
-        int totalSegments = Math.max(1, endIndex - startIndex + 1);
-        
-        return totalDistance * (totalSegments / 10.0); // Simplified calculation
+        if (route.getTotalDistanceKm() != null && route.getTotalDistanceKm().signum() > 0) {
+            return route.getTotalDistanceKm().doubleValue();
+        }
+        return DEFAULT_ROUTE_KM;
     }
 
-    private double estimateDetourPercentage(Integer startIndex, Integer endIndex, ReturnRoute route) {
-        // Simplified detour calculation - you can enhance this based on your route logic
+    private double calculateBidDistance(Integer startIndex, Integer endIndex, RouteGeometryService.RouteGeometry geometry) {
         if (startIndex == null || endIndex == null) {
             return 0.0;
         }
-        
-        // For now, assume minimal detour for simplicity
-        return 0.1; // 10% detour as default
+        if (geometry == null) {
+            // No stored segments: assume ten equal segments over the default distance
+            int totalSegments = Math.max(1, endIndex - startIndex + 1);
+            return DEFAULT_ROUTE_KM * (totalSegments / 10.0);
+        }
+        return geometry.distanceKm(startIndex, endIndex);
     }
 
-    private boolean fitsCapacityOnAllSegments(BidSelectionDto candidate, ReturnRoute route, List<BidSelectionDto> chosen) {
-        // Simplified capacity check - you can enhance this based on your route segments
-        double totalVolume = candidate.getVolume().doubleValue();
-        
-        // Add volume from already chosen bids that might overlap
-        for (BidSelectionDto chosenBid : chosen) {
-            if (hasOverlap(candidate, chosenBid)) {
-                totalVolume += chosenBid.getVolume().doubleValue();
-            }
+    /**
+     * Out-and-back distance from the route to the pickup (at the start segment) and to the dropoff
+     * (at the end segment), relative to the route length and capped at 100%
+     */
+    private double estimateDetourPercentage(BidSelectionDto bid, RouteGeometryService.RouteGeometry geometry, double totalDist) {
+        if (bid.getStartIndex() == null || bid.getEndIndex() == null) {
+            return 0.0;
         }
-        
-        return totalVolume <= capacityC;
+        if (geometry == null || bid.getPickupLat() == null || bid.getPickupLng() == null
+                || bid.getDropoffLat() == null || bid.getDropoffLng() == null) {
+            // Not enough geometry to measure; assume a 10% detour as before
+            return 0.1;
+        }
+        double pickupKm = geometry.distanceToSegmentKm(
+            bid.getPickupLat().doubleValue(), bid.getPickupLng().doubleValue(), bid.getStartIndex());
+        double dropoffKm = geometry.distanceToSegmentKm(
+            bid.getDropoffLat().doubleValue(), bid.getDropoffLng().doubleValue(), bid.getEndIndex());
+        return Math.min(1.0, 2 * (pickupKm + dropoffKm) / totalDist);
     }
 
-    private boolean hasOverlap(BidSelectionDto bid1, BidSelectionDto bid2) {
-        // Check if two bids overlap in their segments
-        if (bid1.getStartIndex() == null || bid1.getEndIndex() == null ||
-            bid2.getStartIndex() == null || bid2.getEndIndex() == null) {
-            return false;
-        }
+    /**
+     * Capacity of the driver's vehicle. Drivers with several vehicles are assumed to use the one
+     * with the most volume; without a vehicle the vehicle.capacity property is used for volume.
+     */
+    public VehicleCapacity getVehicleCapacity(ReturnRoute route) {
+        List<Vehicle> vehicles = route.getDriver() != null
+            ? vehicleRepository.findByDriverId(route.getDriver().getId())
+            : List.of();
+        Vehicle vehicle = vehicles.stream()
+            .max(Comparator.comparing((Vehicle v) -> v.getMaxVolumeM3() != null ? v.getMaxVolumeM3().doubleValue() : 0.0)
+                .thenComparing(v -> v.getMaxWeightKg() != null ? v.getMaxWeightKg().doubleValue() : 0.0))
+            .orElse(null);
         
-        return !(bid1.getEndIndex() < bid2.getStartIndex() || bid2.getEndIndex() < bid1.getStartIndex());
+        double maxVolume = vehicle != null && vehicle.getMaxVolumeM3() != null && vehicle.getMaxVolumeM3().signum() > 0
+            ? vehicle.getMaxVolumeM3().doubleValue() : capacityC;
+        double maxWeight = vehicle != null && vehicle.getMaxWeightKg() != null && vehicle.getMaxWeightKg().signum() > 0
+            ? vehicle.getMaxWeightKg().doubleValue() : Double.POSITIVE_INFINITY;
+        return new VehicleCapacity(maxWeight, maxVolume);
     }
-    
+
+    /**
+     * Capacity of the vehicle of the given route, as used by the selection
+     */
+    public VehicleCapacity getVehicleCapacity(UUID routeId) {
+        ReturnRoute route = routeRepository.findById(routeId)
+            .orElseThrow(() -> new RuntimeException("Route not found: " + routeId));
+        return getVehicleCapacity(route);
+    }
+
+    private static void setCapacity(BidSelectionResultDto result, VehicleCapacity capacity) {
+        result.setVehicleMaxVolumeM3(capacity.maxVolumeM3());
+        result.setVehicleMaxWeightKg(Double.isInfinite(capacity.maxWeightKg()) ? null : capacity.maxWeightKg());
+    }
+
+    private double volumeOf(BidSelectionDto bid) {
+        return bid.getVolume() != null ? bid.getVolume().doubleValue() : 0.0;
+    }
+
     // Getter methods for configuration values
     public double getWPrice() { return wPrice; }
     public double getWVolume() { return wVolume; }
@@ -111,114 +111,176 @@ public class BidService {
         return dtos;
     }
 
+    /**
+     * Bid count and highest offer per route for all of a driver's routes, keyed by route ID.
+     * Routes without bids are absent from the map.
+     */
+    @Transactional(readOnly = true)
+    public java.util.Map<UUID, com.example.be.dto.RouteBidStatsDto> getBidStatsByDriver(UUID driverId) {
+        java.util.Map<UUID, com.example.be.dto.RouteBidStatsDto> stats = new java.util.HashMap<>();
+        for (Object[] row : bidRepository.findBidStatsByDriverId(driverId)) {
+            UUID routeId = (UUID) row[0];
+            int count = ((Number) row[1]).intValue();
+            java.math.BigDecimal highest = row[2] != null ? (java.math.BigDecimal) row[2] : java.math.BigDecimal.ZERO;
+            stats.put(routeId, new com.example.be.dto.RouteBidStatsDto(routeId, count, highest));
+        }
+        return stats;
+    }
+
     @Transactional(readOnly = true)
     public com.example.be.dto.RouteBidsAndRequestsDto getBidsAndRequestsByRouteId(UUID routeId, com.example.be.types.BidStatus status) {
-        // Get bids for the route
-        List<BidDto> allBids = getBidsByRouteIdAndStatus(routeId, status);
-        
-        // Get parcel requests for the route
-        List<com.example.be.model.ParcelRequest> parcelRequests = parcelRequestRepository.findByRouteIdNative(routeId);
-        
-        // Create hierarchical structure
-        List<com.example.be.dto.ParcelRequestWithBidsDto> parcelRequestsWithBids = new ArrayList<>();
-        
-        for (com.example.be.model.ParcelRequest request : parcelRequests) {
-            com.example.be.dto.ParcelRequestWithBidsDto requestWithBids = new com.example.be.dto.ParcelRequestWithBidsDto();
-            
-            // Set parcel request details
-            requestWithBids.setId(request.getId());
-            requestWithBids.setCustomerId(request.getCustomer().getId());
-            requestWithBids.setPickupLat(request.getPickupLat());
-            requestWithBids.setPickupLng(request.getPickupLng());
-            requestWithBids.setDropoffLat(request.getDropoffLat());
-            requestWithBids.setDropoffLng(request.getDropoffLng());
-            requestWithBids.setWeightKg(request.getWeightKg());
-            requestWithBids.setVolumeM3(request.getVolumeM3());
-            requestWithBids.setDescription(request.getDescription());
-            requestWithBids.setMaxBudget(request.getMaxBudget());
-            requestWithBids.setDeadline(request.getDeadline());
-            requestWithBids.setStatus(request.getStatus());
-            requestWithBids.setCreatedAt(request.getCreatedAt());
-            requestWithBids.setUpdatedAt(request.getUpdatedAt());
-            
-            // Set customer information
-            requestWithBids.setCustomerFirstName(request.getCustomer().getFirstName());
-            requestWithBids.setCustomerLastName(request.getCustomer().getLastName());
-            requestWithBids.setCustomerEmail(request.getCustomer().getEmail());
-            requestWithBids.setCustomerPhone(request.getCustomer().getPhoneNumber());
-            
-            // Filter bids for this specific parcel request
-            List<BidDto> requestBids = new ArrayList<>();
-            for (BidDto bid : allBids) {
-                if (bid.getRequestId() != null && bid.getRequestId().equals(request.getId())) {
-                    requestBids.add(bid);
-                }
+        String statusStr = status != null ? status.name() : null;
+
+        // One row per bid (or one bid-less row per request), already ordered by request then bid
+        List<Object[]> rows = bidRepository.findRequestsWithBidsByRouteId(routeId, statusStr);
+
+        java.util.Map<UUID, com.example.be.dto.ParcelRequestWithBidsDto> requestsById = new java.util.LinkedHashMap<>();
+        java.util.Map<UUID, PriceStats> requestStats = new java.util.HashMap<>();
+        PriceStats overall = new PriceStats();
+
+        for (Object[] row : rows) {
+            UUID requestId = (UUID) row[0];
+            com.example.be.dto.ParcelRequestWithBidsDto requestWithBids = requestsById.get(requestId);
+            if (requestWithBids == null) {
+                requestWithBids = toParcelRequestWithBids(row);
+                requestsById.put(requestId, requestWithBids);
+                requestStats.put(requestId, new PriceStats());
             }
-            requestWithBids.setBids(requestBids);
-            requestWithBids.setTotalBids(requestBids.size());
-            
-            // Calculate statistics for this parcel request
-            java.math.BigDecimal highestBid = java.math.BigDecimal.ZERO;
-            java.math.BigDecimal lowestBid = java.math.BigDecimal.ZERO; // Initialize to ZERO instead of null
-            java.math.BigDecimal totalBidAmount = java.math.BigDecimal.ZERO;
-            
-            for (BidDto bid : requestBids) {
-                if (bid.getOfferedPrice() != null) {
-                    if (highestBid.compareTo(bid.getOfferedPrice()) < 0) {
-                        highestBid = bid.getOfferedPrice();
-                    }
-                    if (lowestBid.compareTo(java.math.BigDecimal.ZERO) == 0 || lowestBid.compareTo(bid.getOfferedPrice()) > 0) {
-                        lowestBid = bid.getOfferedPrice();
-                    }
-                    totalBidAmount = totalBidAmount.add(bid.getOfferedPrice());
-                }
+
+            if (row[18] == null) {
+                continue;
             }
-            
-            java.math.BigDecimal averageBid = requestBids.isEmpty() ? java.math.BigDecimal.ZERO : 
-                totalBidAmount.divide(java.math.BigDecimal.valueOf(requestBids.size()), 2, java.math.BigDecimal.ROUND_HALF_UP);
-            
-            requestWithBids.setHighestBid(highestBid);
-            requestWithBids.setAverageBid(averageBid);
-            requestWithBids.setLowestBid(lowestBid);
-            
-            parcelRequestsWithBids.add(requestWithBids);
+            BidDto bid = new BidDto();
+            bid.setId((UUID) row[18]);
+            bid.setRequestId(requestId);
+            bid.setRouteId(routeId);
+            bid.setStartIndex(row[19] != null ? ((Number) row[19]).intValue() : null);
+            bid.setEndIndex(row[20] != null ? ((Number) row[20]).intValue() : null);
+            bid.setOfferedPrice((java.math.BigDecimal) row[21]);
+            bid.setStatus(row[22] != null ? com.example.be.types.BidStatus.valueOf((String) row[22]) : null);
+            bid.setCreatedAt(toZonedDateTime(row[23]));
+            bid.setUpdatedAt(toZonedDateTime(row[24]));
+            requestWithBids.getBids().add(bid);
+
+            requestStats.get(requestId).add(bid.getOfferedPrice());
+            overall.add(bid.getOfferedPrice());
         }
-        
-        // Calculate overall statistics
-        java.math.BigDecimal overallHighestBid = java.math.BigDecimal.ZERO;
-        java.math.BigDecimal overallLowestBid = java.math.BigDecimal.ZERO; // Initialize to ZERO instead of null
-        java.math.BigDecimal overallTotalBidAmount = java.math.BigDecimal.ZERO;
-        int totalBidsCount = 0;
-        
-        for (BidDto bid : allBids) {
-            if (bid.getOfferedPrice() != null) {
-                if (overallHighestBid.compareTo(bid.getOfferedPrice()) < 0) {
-                    overallHighestBid = bid.getOfferedPrice();
-                }
-                if (overallLowestBid.compareTo(java.math.BigDecimal.ZERO) == 0 || overallLowestBid.compareTo(bid.getOfferedPrice()) > 0) {
-                    overallLowestBid = bid.getOfferedPrice();
-                }
-                overallTotalBidAmount = overallTotalBidAmount.add(bid.getOfferedPrice());
-                totalBidsCount++;
-            }
+
+        List<com.example.be.dto.ParcelRequestWithBidsDto> parcelRequestsWithBids = new ArrayList<>(requestsById.values());
+        for (com.example.be.dto.ParcelRequestWithBidsDto requestWithBids : parcelRequestsWithBids) {
+            PriceStats stats = requestStats.get(requestWithBids.getId());
+            requestWithBids.setTotalBids(requestWithBids.getBids().size());
+            requestWithBids.setHighestBid(stats.highest());
+            requestWithBids.setAverageBid(stats.average());
+            requestWithBids.setLowestBid(stats.lowest());
         }
-        
-        java.math.BigDecimal overallAverageBid = totalBidsCount == 0 ? java.math.BigDecimal.ZERO : 
-            overallTotalBidAmount.divide(java.math.BigDecimal.valueOf(totalBidsCount), 2, java.math.BigDecimal.ROUND_HALF_UP);
-        
+
         // Create response DTO
         com.example.be.dto.RouteBidsAndRequestsDto response = new com.example.be.dto.RouteBidsAndRequestsDto();
         response.setRouteId(routeId);
         response.setParcelRequestsWithBids(parcelRequestsWithBids);
         response.setTotalParcelRequests(parcelRequestsWithBids.size());
-        response.setTotalBids(totalBidsCount);
-        response.setHighestBid(overallHighestBid);
-        response.setAverageBid(overallAverageBid);
-        response.setLowestBid(overallLowestBid);
-        
+        response.setTotalBids(overall.count);
+        response.setHighestBid(overall.highest());
+        response.setAverageBid(overall.average());
+        response.setLowestBid(overall.lowest());
+
         return response;
     }
 
+    // Request and customer columns of a findRequestsWithBidsByRouteId row
+    private com.example.be.dto.ParcelRequestWithBidsDto toParcelRequestWithBids(Object[] row) {
+        com.example.be.dto.ParcelRequestWithBidsDto requestWithBids = new com.example.be.dto.ParcelRequestWithBidsDto();
+        requestWithBids.setId((UUID) row[0]);
+        requestWithBids.setCustomerId((UUID) row[1]);
+        requestWithBids.setPickupLat((java.math.BigDecimal) row[2]);
+        requestWithBids.setPickupLng((java.math.BigDecimal) row[3]);
+        requestWithBids.setDropoffLat((java.math.BigDecimal) row[4]);
+        requestWithBids.setDropoffLng((java.math.BigDecimal) row[5]);
+        requestWithBids.setWeightKg((java.math.BigDecimal) row[6]);
+        requestWithBids.setVolumeM3((java.math.BigDecimal) row[7]);
+        requestWithBids.setDescription((String) row[8]);
+        requestWithBids.setMaxBudget((java.math.BigDecimal) row[9]);
+        requestWithBids.setDeadline(toZonedDateTime(row[10]));
+        requestWithBids.setStatus(row[11] != null ? com.example.be.types.ParcelStatus.valueOf((String) row[11]) : null);
+        requestWithBids.setCreatedAt(toZonedDateTime(row[12]));
+        requestWithBids.setUpdatedAt(toZonedDateTime(row[13]));
+
+        // Set customer information
+        requestWithBids.setCustomerFirstName((String) row[14]);
+        requestWithBids.setCustomerLastName((String) row[15]);
+        requestWithBids.setCustomerEmail((String) row[16]);
+        requestWithBids.setCustomerPhone((String) row[17]);
+
+        requestWithBids.setBids(new ArrayList<>());
+        return requestWithBids;
+    }
+
+    // Native queries return timestamptz as Timestamp, OffsetDateTime or LocalDateTime depending on the driver
+    private static ZonedDateTime toZonedDateTime(Object value) {
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toInstant().atZone(java.time.ZoneId.systemDefault());
+        } else if (value instanceof java.time.OffsetDateTime) {
+            return ((java.time.OffsetDateTime) value).toZonedDateTime();
+        } else if (value instanceof java.time.Instant) {
+            return ((java.time.Instant) value).atZone(java.time.ZoneId.systemDefault());
+        } else if (value instanceof java.time.LocalDateTime) {
+            return ((java.time.LocalDateTime) value).atZone(java.time.ZoneId.systemDefault());
+        }
+        return null;
+    }
+
+    /**
+     * Highest, lowest and average of a set of prices, accumulated in whole cents. Highest and lowest keep
+     * the original BigDecimal; all three are ZERO when no price was added.
+     */
+    private static final class PriceStats {
+        private int count;
+        private long totalCents;
+        private long highestCents = Long.MIN_VALUE;
+        private long lowestCents = Long.MAX_VALUE;
+        private java.math.BigDecimal highest;
+        private java.math.BigDecimal lowest;
+
+        void add(java.math.BigDecimal price) {
+            if (price == null) {
+                return;
+            }
+            long cents = price.setScale(2, java.math.RoundingMode.HALF_UP).unscaledValue().longValue();
+            count++;
+            totalCents += cents;
+            if (cents > highestCents) {
+                highestCents = cents;
+                highest = price;
+            }
+            if (cents < lowestCents) {
+                lowestCents = cents;
+                lowest = price;
+            }
+        }
+
+        java.math.BigDecimal highest() {
+            return count == 0 ? java.math.BigDecimal.ZERO : highest;
+        }
+
+        java.math.BigDecimal lowest() {
+            return count == 0 ? java.math.BigDecimal.ZERO : lowest;
+        }
+
+        java.math.BigDecimal average() {
+            if (count == 0) {
+                return java.math.BigDecimal.ZERO;
+            }
+            // Round half up to whole cents, as the BigDecimal divide with scale 2 did
+            long quotient = totalCents / count;
+            long remainder = totalCents % count;
+            if (Math.abs(remainder) * 2 >= count) {
+                quotient += Long.signum(totalCents);
+            }
+            return java.math.BigDecimal.valueOf(quotient, 2);
+        }
+    }
+
     @Transactional(readOnly = true)
     public BidDto getBidById(UUID id) {
         logger.info("Looking up Bid with id: {}", id);
@@ -0,0 +1,110 @@
+package com.example.be.service;
+
+import com.example.be.util.SegmentLoadTree;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exact depth-first branch and bound. Bids are branched on highest price first and subtrees are
+ * pruned with the surrogate knapsack bound from {@link BidPackingProblem#surrogateBound}.
+ * Meant for routes with a few dozen bids; larger instances usually run out of time budget.
+ */
+@Component
+public class BranchAndBoundBidPackingSolver implements BidPackingSolver {
+
+    public static final String NAME = "branch-and-bound";
+
+    // How many nodes to expand between clock checks
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public BidPackingSolution solve(BidPackingProblem problem, BidPackingSolution incumbent, long deadlineNanos) {
+        Search search = new Search(problem, incumbent, deadlineNanos);
+        search.run(0, 0, 0, 0);
+
+        if (search.bestItems == null && incumbent != null) {
+            // Incumbent was never beaten
+            return new BidPackingSolution(incumbent.solver(), incumbent.items(), incumbent.objective(),
+                !search.aborted, search.aborted);
+        }
+        int[] items = search.bestItems != null ? search.bestItems : new int[0];
+        return new BidPackingSolution(NAME, items, problem.objective(items), !search.aborted, search.aborted);
+    }
+
+    private static final class Search {
+        private final BidPackingProblem problem;
+        private final long deadlineNanos;
+        private final int[] order;
+        private final int[] depthOf;
+        private final int[] volumeOrder;
+        private final int[] weightOrder;
+        private final SegmentLoadTree volumeLoad;
+        private final SegmentLoadTree weightLoad;
+        private final boolean[] groupUsed;
+        private final boolean[] chosen;
+
+        private double best;
+        private int[] bestItems;
+        private long nodes;
+        private boolean aborted;
+
+        Search(BidPackingProblem problem, BidPackingSolution incumbent, long deadlineNanos) {
+            this.problem = problem;
+            this.deadlineNanos = deadlineNanos;
+            this.order = problem.valueOrder();
+            this.depthOf = new int[problem.size()];
+            for (int d = 0; d < order.length; d++) {
+                depthOf[order[d]] = d;
+            }
+            this.volumeOrder = problem.densityOrder(true);
+            this.weightOrder = problem.densityOrder(false);
+            this.volumeLoad = problem.newLoad();
+            this.weightLoad = problem.newLoad();
+            this.groupUsed = new boolean[problem.groupCount()];
+            this.chosen = new boolean[problem.size()];
+            this.best = incumbent != null ? incumbent.objective() : Double.NEGATIVE_INFINITY;
+        }
+
+        void run(int depth, double current, double usedVolume, double usedWeight) {
+            if (aborted) {
+                return;
+            }
+            if (++nodes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadlineNanos) {
+                aborted = true;
+                return;
+            }
+            if (current > best + BidPackingProblem.EPSILON) {
+                best = current;
+                bestItems = problem.chosenItems(chosen);
+            }
+            if (depth == order.length) {
+                return;
+            }
+            // Items at this depth or later are undecided; skip those whose parcel is already on board
+            double bound = current + problem.surrogateBound(
+                i -> depthOf[i] >= depth && !groupUsed[problem.group(i)],
+                usedVolume, usedWeight, volumeOrder, weightOrder);
+            if (bound <= best + BidPackingProblem.EPSILON) {
+                return;
+            }
+
+            int item = order[depth];
+            int group = problem.group(item);
+            if (!groupUsed[group] && problem.fits(item, volumeLoad, weightLoad)) {
+                problem.place(item, volumeLoad, weightLoad, 1);
+                groupUsed[group] = true;
+                chosen[item] = true;
+                run(depth + 1, current + problem.value(item),
+                    usedVolume + problem.surrogateVolume(item), usedWeight + problem.surrogateWeight(item));
+                chosen[item] = false;
+                groupUsed[group] = false;
+                problem.place(item, volumeLoad, weightLoad, -1);
+            }
+            run(depth + 1, current, usedVolume, usedWeight);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.be.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Pushes new chat messages and read receipts to clients subscribed to a conversation, so open chat
+ * screens no longer poll the message list
+ */
+@Service
+public class ChatPushService {
+
+    private final LiveEventHub hub;
+    private final long streamTimeoutMs;
+
+    public ChatPushService(LiveEventHub hub,
+                           @Value("${chat.push.stream-timeout-ms:1800000}") long streamTimeoutMs) {
+        this.hub = hub;
+        this.streamTimeoutMs = streamTimeoutMs;
+    }
+
+    public SseEmitter subscribe(UUID conversationId) {
+        return hub.subscribe(topic(conversationId), streamTimeoutMs);
+    }
+
+    /**
+     * Broadcast a message once the sending transaction commits; same fields as the message list endpoint
+     */
+    public void messageSent(UUID conversationId, UUID messageId, UUID senderId, UUID receiverId,
+                            String text, String senderName, Instant createdAt) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("conversationId", conversationId.toString());
+        message.put("id", messageId.toString());
+        message.put("text", text);
+        message.put("senderId", senderId.toString());
+        message.put("receiverId", receiverId != null ? receiverId.toString() : null);
+        message.put("isRead", false);
+        message.put("createdAt", createdAt);
+        message.put("senderName", senderName);
+        hub.publishAfterCommit(topic(conversationId), "message", message);
+    }
+
+    /**
+     * Broadcast that readerId has read every message in the conversation sent by the other party
+     */
+    public void messagesRead(UUID conversationId, UUID readerId) {
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("conversationId", conversationId.toString());
+        receipt.put("readerId", readerId.toString());
+        receipt.put("readAt", Instant.now());
+        hub.publishAfterCommit(topic(conversationId), "read", receipt);
+    }
+
+    private static String topic(UUID conversationId) {
+        return "chat:" + conversationId;
+    }
+}
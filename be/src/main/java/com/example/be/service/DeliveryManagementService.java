@@ -20,7 +20,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.Optional;
@@ -40,6 +44,8 @@ public class DeliveryManagementService {
     private final GeocodingService geocodingService;
     private final NotificationService notificationService;
     private final ProfileRepository profileRepository;
+    private final TrackingPushService trackingPushService;
+    private final RouteProgressService routeProgressService;
     
     /**
      * Get comprehensive delivery details for a specific bid
@@ -97,6 +103,21 @@ public class DeliveryManagementService {
             statusString,
             now
         );
+        trackingPushService.statusChanged(tracking.getId(), bidId, previousStatus, statusString, now);
+        if (updateDto.getStatus() == DeliveryStatusEnum.delivered || updateDto.getStatus() == DeliveryStatusEnum.cancelled) {
+            // Only forget the progress once the status change is committed; a rollback keeps it tracked
+            UUID trackingId = tracking.getId();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        routeProgressService.remove(trackingId);
+                    }
+                });
+            } else {
+                routeProgressService.remove(trackingId);
+            }
+        }
         
         // Record location update if provided
         if (updateDto.getCurrentLat() != null && updateDto.getCurrentLng() != null) {
@@ -377,6 +398,25 @@ public class DeliveryManagementService {
             dto.setLastLocationUpdate(location.getRecordedAt());
         }
         
+        // Live progress along the route; kept up to date in memory by the stored-fix feed
+        try {
+            LocationIngestBuffer.Fix latestFix = latestLocation
+                .map(location -> new LocationIngestBuffer.Fix(location.getId(), tracking.getId(),
+                    location.getLatitude(), location.getLongitude(), location.getRecordedAt()))
+                .orElse(null);
+            routeProgressService.getProgress(tracking.getId(), bid.getRoute(), request.getDropoffLat(), request.getDropoffLng(), latestFix)
+                .ifPresent(progress -> {
+                    dto.setRouteSegmentIndex(progress.segmentIndex());
+                    dto.setRouteSegmentCount(progress.segmentCount());
+                    dto.setDistanceRemainingKm(BigDecimal.valueOf(progress.distanceRemainingKm()).setScale(2, RoundingMode.HALF_UP));
+                    dto.setLiveEstimatedArrival(progress.estimatedArrival());
+                    dto.setOffRoute(progress.offRoute());
+                    dto.setDistanceFromRouteKm(BigDecimal.valueOf(progress.distanceFromRouteKm()).setScale(2, RoundingMode.HALF_UP));
+                });
+        } catch (Exception e) {
+            log.error("Error computing route progress for bid {}: ", bid.getId(), e);
+        }
+        
         // Check payment completion status
         dto.setPaymentCompleted(isPaymentCompleted(bid.getId()));
         
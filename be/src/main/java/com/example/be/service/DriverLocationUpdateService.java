@@ -1,25 +1,67 @@
 package com.example.be.service;
 
+import com.example.be.dto.LocationBatchCreateDto;
+import com.example.be.dto.LocationPointDto;
 import com.example.be.model.DriverLocationUpdate;
+import com.example.be.repository.DeliveryTrackingRepository;
 import com.example.be.repository.DriverLocationUpdateRepository;
+import com.example.be.util.TrackSimplifier;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class DriverLocationUpdateService {
     
+    /**
+     * What happened to a batch of location updates
+     */
+    public enum IngestOutcome {
+        BUFFERED,       // queued, written in the background
+        STORED,         // committed before returning
+        NOT_CONFIRMED,  // queued, but not committed within the wait timeout
+        REJECTED        // buffer full, nothing queued
+    }
+    
     private final DriverLocationUpdateRepository driverLocationUpdateRepository;
+    private final DeliveryTrackingRepository deliveryTrackingRepository;
+    private final LocationIngestBuffer locationIngestBuffer;
+    private final LatestPositionStore latestPositionStore;
+    private final LocationTrackCompactionService locationTrackCompactionService;
+    private final int maxPointsPerRequest;
+    private final long waitTimeoutMs;
     
     @Autowired
-    public DriverLocationUpdateService(DriverLocationUpdateRepository driverLocationUpdateRepository) {
+    public DriverLocationUpdateService(DriverLocationUpdateRepository driverLocationUpdateRepository,
+                                       DeliveryTrackingRepository deliveryTrackingRepository,
+                                       LocationIngestBuffer locationIngestBuffer,
+                                       LatestPositionStore latestPositionStore,
+                                       LocationTrackCompactionService locationTrackCompactionService,
+                                       @Value("${location.ingest.max-points-per-request:1000}") int maxPointsPerRequest,
+                                       @Value("${location.ingest.wait-timeout-ms:10000}") long waitTimeoutMs) {
         this.driverLocationUpdateRepository = driverLocationUpdateRepository;
+        this.deliveryTrackingRepository = deliveryTrackingRepository;
+        this.locationIngestBuffer = locationIngestBuffer;
+        this.latestPositionStore = latestPositionStore;
+        this.locationTrackCompactionService = locationTrackCompactionService;
+        this.maxPointsPerRequest = maxPointsPerRequest;
+        this.waitTimeoutMs = waitTimeoutMs;
     }
     
     @Transactional
@@ -31,23 +73,191 @@ public class DriverLocationUpdateService {
         locationUpdate.setLongitude(longitude);
         locationUpdate.setRecordedAt(ZonedDateTime.now());
         
-        return driverLocationUpdateRepository.save(locationUpdate);
+        DriverLocationUpdate saved = driverLocationUpdateRepository.save(locationUpdate);
+        LocationIngestBuffer.Fix fix = new LocationIngestBuffer.Fix(saved.getId(), deliveryTrackingId,
+                saved.getLatitude(), saved.getLongitude(), saved.getRecordedAt());
+        // Live views learn about the fix once it is committed, same as for buffered batches
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locationIngestBuffer.fixesStored(List.of(fix));
+                }
+            });
+        } else {
+            locationIngestBuffer.fixesStored(List.of(fix));
+        }
+        return saved;
+    }
+    
+    /**
+     * Hand a batch of fixes to the write-behind buffer. Without waitForStore the fixes are only in memory
+     * when this returns and no database connection is used on the calling thread; fixes for unknown
+     * delivery trackings are dropped by the writer. With it, the tracking ids are checked before anything
+     * is buffered, then this blocks until the fixes are committed or the wait timeout passes.
+     *
+     * @throws IllegalArgumentException if the batch is invalid, or (when waiting) names an unknown delivery tracking
+     */
+    public IngestOutcome ingestLocationUpdates(LocationBatchCreateDto batch, boolean waitForStore) {
+        List<LocationIngestBuffer.Fix> fixes = toFixes(batch);
+        if (waitForStore) {
+            requireKnownTrackings(fixes);
+        }
+        CompletableFuture<Void> stored = locationIngestBuffer.offer(fixes);
+        if (stored == null) {
+            return IngestOutcome.REJECTED;
+        }
+        if (!waitForStore) {
+            return IngestOutcome.BUFFERED;
+        }
+        try {
+            stored.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            return IngestOutcome.STORED;
+        } catch (TimeoutException e) {
+            return IngestOutcome.NOT_CONFIRMED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return IngestOutcome.NOT_CONFIRMED;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e.getCause();
+            }
+            throw new RuntimeException("Failed to store location updates: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    private void requireKnownTrackings(List<LocationIngestBuffer.Fix> fixes) {
+        Set<UUID> trackingIds = new HashSet<>();
+        for (LocationIngestBuffer.Fix fix : fixes) {
+            trackingIds.add(fix.deliveryTrackingId());
+        }
+        trackingIds.removeAll(deliveryTrackingRepository.findExistingIds(trackingIds));
+        if (!trackingIds.isEmpty()) {
+            throw new IllegalArgumentException("Unknown delivery tracking: " + trackingIds.iterator().next());
+        }
+    }
+    
+    private List<LocationIngestBuffer.Fix> toFixes(LocationBatchCreateDto batch) {
+        List<LocationPointDto> points = batch.getPoints();
+        if (points == null || points.isEmpty()) {
+            throw new IllegalArgumentException("At least one point is required");
+        }
+        if (points.size() > maxPointsPerRequest) {
+            throw new IllegalArgumentException("At most " + maxPointsPerRequest + " points per request");
+        }
+        
+        ZonedDateTime now = ZonedDateTime.now();
+        List<LocationIngestBuffer.Fix> fixes = new ArrayList<>(points.size());
+        for (LocationPointDto point : points) {
+            UUID deliveryTrackingId = point.getDeliveryTrackingId() != null
+                    ? point.getDeliveryTrackingId() : batch.getDeliveryTrackingId();
+            if (deliveryTrackingId == null) {
+                throw new IllegalArgumentException("deliveryTrackingId is required");
+            }
+            BigDecimal latitude = point.getLatitude();
+            BigDecimal longitude = point.getLongitude();
+            if (latitude == null || longitude == null
+                    || latitude.abs().compareTo(BigDecimal.valueOf(90)) > 0
+                    || longitude.abs().compareTo(BigDecimal.valueOf(180)) > 0) {
+                throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+            }
+            ZonedDateTime recordedAt = point.getRecordedAt() != null && !point.getRecordedAt().isAfter(now)
+                    ? point.getRecordedAt() : now;
+            fixes.add(new LocationIngestBuffer.Fix(UUID.randomUUID(), deliveryTrackingId, latitude, longitude, recordedAt));
+        }
+        return fixes;
     }
     
+    /**
+     * Full track, newest first: recent raw fixes followed by older compacted ones
+     */
     @Transactional(readOnly = true)
     public List<DriverLocationUpdate> getLocationUpdatesByDeliveryTracking(UUID deliveryTrackingId) {
-        return driverLocationUpdateRepository.findByDeliveryTrackingIdOrderByRecordedAtDesc(deliveryTrackingId);
+        return withCompactedFixes(driverLocationUpdateRepository.findByDeliveryTrackingIdOrderByRecordedAtDesc(deliveryTrackingId),
+                deliveryTrackingId, null, null);
     }
     
+    /**
+     * Full track reduced for display, newest first like {@link #getLocationUpdatesByDeliveryTracking}.
+     * Points are first thinned to one per time bucket, then simplified with Douglas-Peucker; pass null
+     * to skip either step.
+     */
+    @Transactional(readOnly = true)
+    public List<DriverLocationUpdate> getSimplifiedTrack(UUID deliveryTrackingId, Double toleranceMeters, Integer bucketSeconds) {
+        if (toleranceMeters != null && !(toleranceMeters > 0)) {
+            throw new IllegalArgumentException("toleranceMeters must be positive");
+        }
+        if (bucketSeconds != null && bucketSeconds <= 0) {
+            throw new IllegalArgumentException("bucketSeconds must be positive");
+        }
+        List<DriverLocationUpdate> track = new ArrayList<>(getLocationUpdatesByDeliveryTracking(deliveryTrackingId));
+        java.util.Collections.reverse(track);
+        if (bucketSeconds != null) {
+            long[] times = new long[track.size()];
+            for (int i = 0; i < times.length; i++) {
+                times[i] = track.get(i).getRecordedAt().toInstant().toEpochMilli();
+            }
+            track = select(track, TrackSimplifier.downsampleByTime(times, bucketSeconds * 1000L));
+        }
+        if (toleranceMeters != null) {
+            track = select(track, TrackSimplifier.douglasPeucker(toCoords(track), toleranceMeters / 1000.0));
+        }
+        java.util.Collections.reverse(track);
+        return track;
+    }
+    
+    /**
+     * Packed {lat0, lng0, lat1, lng1, ...} of the fixes, the layout PolylineService and TrackSimplifier use
+     */
+    public static double[] toCoords(List<DriverLocationUpdate> fixes) {
+        double[] coords = new double[fixes.size() * 2];
+        for (int i = 0; i < fixes.size(); i++) {
+            coords[2 * i] = fixes.get(i).getLatitude().doubleValue();
+            coords[2 * i + 1] = fixes.get(i).getLongitude().doubleValue();
+        }
+        return coords;
+    }
+    
+    private static List<DriverLocationUpdate> select(List<DriverLocationUpdate> fixes, int[] indices) {
+        List<DriverLocationUpdate> selected = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            selected.add(fixes.get(index));
+        }
+        return selected;
+    }
+    
+    /**
+     * Fixes within [startTime, endTime], newest first, from both raw rows and compacted tracks
+     */
     @Transactional(readOnly = true)
     public List<DriverLocationUpdate> getLocationUpdatesByDeliveryTrackingAndTimeRange(
             UUID deliveryTrackingId, ZonedDateTime startTime, ZonedDateTime endTime) {
-        return driverLocationUpdateRepository.findByDeliveryTrackingIdAndTimeRange(deliveryTrackingId, startTime, endTime);
+        return withCompactedFixes(driverLocationUpdateRepository.findByDeliveryTrackingIdAndTimeRange(deliveryTrackingId, startTime, endTime),
+                deliveryTrackingId, startTime, endTime);
     }
     
-    @Transactional(readOnly = true)
+    private List<DriverLocationUpdate> withCompactedFixes(List<DriverLocationUpdate> raw, UUID deliveryTrackingId,
+                                                          ZonedDateTime startTime, ZonedDateTime endTime) {
+        List<LocationIngestBuffer.Fix> compacted =
+                locationTrackCompactionService.findCompactedFixes(deliveryTrackingId, startTime, endTime);
+        if (compacted.isEmpty()) {
+            return raw;
+        }
+        List<DriverLocationUpdate> merged = new ArrayList<>(raw.size() + compacted.size());
+        merged.addAll(raw);
+        for (LocationIngestBuffer.Fix fix : compacted) {
+            merged.add(fix.toLocationUpdate());
+        }
+        merged.sort(java.util.Comparator.comparing(DriverLocationUpdate::getRecordedAt).reversed());
+        return merged;
+    }
+    
+    /**
+     * Served from the in-memory latest-position store; the database is read only on a miss. Not
+     * transactional, so a memory hit does not take a connection.
+     */
     public Optional<DriverLocationUpdate> getLatestLocationUpdate(UUID deliveryTrackingId) {
-        return driverLocationUpdateRepository.findLatestByDeliveryTrackingId(deliveryTrackingId);
+        return latestPositionStore.getLatest(deliveryTrackingId);
     }
     
     @Transactional(readOnly = true)
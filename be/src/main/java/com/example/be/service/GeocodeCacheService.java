@@ -0,0 +1,324 @@
+package com.example.be.service;
+
+import com.example.be.model.GeocodeCacheEntry;
+import com.example.be.repository.GeocodeCacheRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier reverse-geocoding cache shared by {@link GoogleMapsClient} and {@link GeocodingService}.
+ *
+ * Coordinates are quantised to a ~100 m cell, looked up in a bounded in-process LRU with a TTL,
+ * then in the geocode_cache table, and only then resolved through the supplied Google call.
+ * Database writes happen on a background thread so a read-only request transaction (and our
+ * single-connection pool) never waits on them.
+ */
+@Slf4j
+@Service
+public class GeocodeCacheService {
+
+    /**
+     * What one reverse-geocode produced; either field may be null if the caller's API did not return it
+     */
+    public record GeocodedPlace(String formattedAddress, String localityName) {
+    }
+
+    private final GeocodeCacheRepository cacheRepo;
+    private final double precisionDeg;
+    private final int maxEntries;
+    private final Duration memoryTtl;
+    private final Duration persistentTtl;
+
+    private final Map<String, CachedPlace> memory;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "geocode-cache-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong databaseHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public GeocodeCacheService(GeocodeCacheRepository cacheRepo,
+                               @Value("${geocode.cache.precision-deg:0.001}") double precisionDeg,
+                               @Value("${geocode.cache.max-entries:10000}") int maxEntries,
+                               @Value("${geocode.cache.memory-ttl-hours:24}") long memoryTtlHours,
+                               @Value("${geocode.cache.persistent-ttl-days:90}") long persistentTtlDays) {
+        this.cacheRepo = cacheRepo;
+        this.precisionDeg = precisionDeg;
+        this.maxEntries = maxEntries;
+        this.memoryTtl = Duration.ofHours(memoryTtlHours);
+        this.persistentTtl = Duration.ofDays(persistentTtlDays);
+        this.memory = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPlace> eldest) {
+                return size() > GeocodeCacheService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Street-level address for the cell containing (lat, lng); loader is called only on a miss
+     */
+    public String resolveAddress(double lat, double lng, Supplier<GeocodedPlace> loader) {
+        return resolve(lat, lng, GeocodedPlace::formattedAddress, loader);
+    }
+
+    /**
+     * Town/city name for the cell containing (lat, lng); loader is called only on a miss
+     */
+    public String resolveLocality(double lat, double lng, Supplier<GeocodedPlace> loader) {
+        return resolve(lat, lng, GeocodedPlace::localityName, loader);
+    }
+
+    /**
+     * Street-level addresses for many points at once, keyed by {@link #cellKey}; same tiers and
+     * parallelism as {@link #resolveLocalities}
+     */
+    public Map<String, String> resolveAddresses(Collection<double[]> points,
+                                                BiFunction<Double, Double, GeocodedPlace> loader,
+                                                Executor executor,
+                                                long timeoutMs) {
+        return resolveBatch(points, GeocodedPlace::formattedAddress, loader, executor, timeoutMs);
+    }
+
+    /**
+     * Town/city names for many points at once, keyed by {@link #cellKey}. Each distinct cell is looked up
+     * once: memory first, then a single geocode_cache query on the calling thread, and only the remaining
+     * misses are loaded in parallel on the given executor. Cells that fail or miss the deadline are absent.
+     */
+    public Map<String, String> resolveLocalities(Collection<double[]> points,
+                                                 BiFunction<Double, Double, GeocodedPlace> loader,
+                                                 Executor executor,
+                                                 long timeoutMs) {
+        return resolveBatch(points, GeocodedPlace::localityName, loader, executor, timeoutMs);
+    }
+
+    public String cellKey(double lat, double lng) {
+        return Math.round(lat / precisionDeg) + ":" + Math.round(lng / precisionDeg);
+    }
+
+    private Map<String, String> resolveBatch(Collection<double[]> points,
+                                             Function<GeocodedPlace, String> field,
+                                             BiFunction<Double, Double, GeocodedPlace> loader,
+                                             Executor executor,
+                                             long timeoutMs) {
+        Map<String, double[]> pending = new LinkedHashMap<>();
+        for (double[] point : points) {
+            pending.putIfAbsent(cellKey(point[0], point[1]), point);
+        }
+
+        Map<String, String> resolved = new HashMap<>();
+        Map<String, GeocodedPlace> known = new HashMap<>();
+        pending.entrySet().removeIf(e -> {
+            CachedPlace cached = getFromMemory(e.getKey());
+            if (cached == null) {
+                return false;
+            }
+            if (field.apply(cached.place) != null) {
+                memoryHits.incrementAndGet();
+                resolved.put(e.getKey(), field.apply(cached.place));
+                return true;
+            }
+            known.put(e.getKey(), cached.place);
+            return false;
+        });
+
+        if (!pending.isEmpty()) {
+            // Database tier stays on the caller's thread: the request already holds our only pooled connection
+            try {
+                for (GeocodeCacheEntry entry : cacheRepo.findAllById(pending.keySet())) {
+                    if (!entry.getUpdatedAt().isAfter(ZonedDateTime.now().minus(persistentTtl))) {
+                        continue;
+                    }
+                    GeocodedPlace place = new GeocodedPlace(entry.getFormattedAddress(), entry.getLocalityName());
+                    known.put(entry.getCellKey(), place);
+                    if (field.apply(place) != null) {
+                        databaseHits.incrementAndGet();
+                        putInMemory(entry.getCellKey(), place);
+                        resolved.put(entry.getCellKey(), field.apply(place));
+                        pending.remove(entry.getCellKey());
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Could not read geocode cache entries: {}", e.getMessage());
+            }
+        }
+
+        Map<String, CompletableFuture<GeocodedPlace>> loads = new LinkedHashMap<>();
+        for (Map.Entry<String, double[]> e : pending.entrySet()) {
+            double[] point = e.getValue();
+            try {
+                loads.put(e.getKey(), CompletableFuture.supplyAsync(() -> loader.apply(point[0], point[1]), executor));
+            } catch (RejectedExecutionException ex) {
+                log.warn("Geocoding pool is saturated, skipping lookup for cell {}", e.getKey());
+            }
+        }
+        if (loads.isEmpty()) {
+            return resolved;
+        }
+        misses.addAndGet(loads.size());
+
+        try {
+            CompletableFuture.allOf(loads.values().toArray(new CompletableFuture[0]))
+                    .get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Batch reverse geocoding exceeded {} ms, using the {} lookups that finished",
+                    timeoutMs, loads.values().stream().filter(CompletableFuture::isDone).count());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Individual failures are handled per future below
+        }
+
+        for (Map.Entry<String, CompletableFuture<GeocodedPlace>> e : loads.entrySet()) {
+            GeocodedPlace loaded = e.getValue().isDone() && !e.getValue().isCompletedExceptionally()
+                    ? e.getValue().join() : null;
+            if (loaded == null || field.apply(loaded) == null) {
+                continue;
+            }
+            GeocodedPlace previous = known.get(e.getKey());
+            GeocodedPlace merged = previous == null ? loaded : new GeocodedPlace(
+                    loaded.formattedAddress() != null ? loaded.formattedAddress() : previous.formattedAddress(),
+                    loaded.localityName() != null ? loaded.localityName() : previous.localityName());
+            putInMemory(e.getKey(), merged);
+            persistAsync(e.getKey(), loaded);
+            resolved.put(e.getKey(), field.apply(merged));
+        }
+        return resolved;
+    }
+
+    private String resolve(double lat, double lng, Function<GeocodedPlace, String> field, Supplier<GeocodedPlace> loader) {
+        String key = cellKey(lat, lng);
+
+        CachedPlace cached = getFromMemory(key);
+        if (cached != null && field.apply(cached.place) != null) {
+            memoryHits.incrementAndGet();
+            return field.apply(cached.place);
+        }
+
+        GeocodedPlace known = loadFromDatabase(key);
+        if (known == null && cached != null) {
+            known = cached.place;
+        }
+        if (known != null && field.apply(known) != null) {
+            databaseHits.incrementAndGet();
+            putInMemory(key, known);
+            return field.apply(known);
+        }
+
+        misses.incrementAndGet();
+        GeocodedPlace loaded = loader.get();
+        if (loaded == null || field.apply(loaded) == null) {
+            // Failed lookups are not cached so a transient Google error is retried next time
+            return null;
+        }
+
+        GeocodedPlace merged = known == null ? loaded : new GeocodedPlace(
+                loaded.formattedAddress() != null ? loaded.formattedAddress() : known.formattedAddress(),
+                loaded.localityName() != null ? loaded.localityName() : known.localityName());
+        putInMemory(key, merged);
+        persistAsync(key, loaded);
+        return field.apply(merged);
+    }
+
+    private CachedPlace getFromMemory(String key) {
+        synchronized (memory) {
+            CachedPlace cached = memory.get(key);
+            if (cached != null && cached.expiresAtMillis < System.currentTimeMillis()) {
+                memory.remove(key);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void putInMemory(String key, GeocodedPlace place) {
+        synchronized (memory) {
+            memory.put(key, new CachedPlace(place, System.currentTimeMillis() + memoryTtl.toMillis()));
+        }
+    }
+
+    private GeocodedPlace loadFromDatabase(String key) {
+        try {
+            Optional<GeocodeCacheEntry> entry = cacheRepo.findById(key);
+            if (entry.isPresent() && entry.get().getUpdatedAt().isAfter(ZonedDateTime.now().minus(persistentTtl))) {
+                return new GeocodedPlace(entry.get().getFormattedAddress(), entry.get().getLocalityName());
+            }
+        } catch (Exception e) {
+            log.warn("Could not read geocode cache entry {}: {}", key, e.getMessage());
+        }
+        return null;
+    }
+
+    private void persistAsync(String key, GeocodedPlace place) {
+        try {
+            writer.execute(() -> {
+                try {
+                    cacheRepo.upsert(key, place.formattedAddress(), place.localityName(), ZonedDateTime.now());
+                } catch (Exception e) {
+                    log.warn("Could not persist geocode cache entry {}: {}", key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Geocode cache writer is shut down, skipping persist of {}", key);
+        }
+    }
+
+    /**
+     * Drop persisted entries past their TTL once a day
+     */
+    @Scheduled(cron = "${geocode.cache.cleanup-cron:0 30 3 * * *}")
+    public void evictExpiredEntries() {
+        try {
+            int removed = cacheRepo.deleteOlderThan(ZonedDateTime.now().minus(persistentTtl));
+            log.info("Removed {} expired geocode cache entries", removed);
+        } catch (Exception e) {
+            log.error("Error evicting expired geocode cache entries: ", e);
+        }
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDatabaseHits() {
+        return databaseHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    private record CachedPlace(GeocodedPlace place, long expiresAtMillis) {
+    }
+}
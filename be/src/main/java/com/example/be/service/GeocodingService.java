@@ -1,13 +1,19 @@
 package com.example.be.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Service
 @Slf4j
@@ -17,9 +23,20 @@ public class GeocodingService {
     private String googleMapsApiKey;
     
     private final RestTemplate restTemplate;
+    private final GeocodeCacheService geocodeCache;
+    private final Executor geocodingExecutor;
+    private final long batchTimeoutMs;
+    private final MeterRegistry meterRegistry;
     
-    public GeocodingService() {
+    public GeocodingService(GeocodeCacheService geocodeCache,
+                            @Qualifier("geocodingExecutor") Executor geocodingExecutor,
+                            @Value("${geocoding.batch.timeout-ms:5000}") long batchTimeoutMs,
+                            MeterRegistry meterRegistry) {
         this.restTemplate = new RestTemplate();
+        this.geocodeCache = geocodeCache;
+        this.geocodingExecutor = geocodingExecutor;
+        this.batchTimeoutMs = batchTimeoutMs;
+        this.meterRegistry = meterRegistry;
     }
     
     /**
@@ -29,6 +46,27 @@ public class GeocodingService {
      * @return Formatted address string or coordinates if geocoding fails
      */
     public String reverseGeocode(BigDecimal latitude, BigDecimal longitude) {
+        if (latitude == null || longitude == null) {
+            return "Unknown Location";
+        }
+        
+        String address = geocodeCache.resolveAddress(latitude.doubleValue(), longitude.doubleValue(),
+                () -> fetchPlace(latitude, longitude));
+        if (address != null) {
+            return address;
+        }
+        
+        // Fallback to coordinates if geocoding fails
+        return String.format("%.4f, %.4f", latitude.doubleValue(), longitude.doubleValue());
+    }
+    
+    /**
+     * Call the Geocoding REST API; only reached on a geocode cache miss
+     * @return the formatted address and locality, or null if Google could not resolve the point
+     */
+    private GeocodeCacheService.GeocodedPlace fetchPlace(BigDecimal latitude, BigDecimal longitude) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             String url = String.format(
                 "https://maps.googleapis.com/maps/api/geocode/json?latlng=%s,%s&key=%s",
@@ -40,6 +78,7 @@ public class GeocodingService {
             // Make API call and parse response
             @SuppressWarnings("unchecked")
             Map<String, Object> response = restTemplate.getForObject(url, Map.class);
+            outcome = response != null && "OK".equals(response.get("status")) ? "success" : "no_result";
             
             if (response != null && "OK".equals(response.get("status"))) {
                 @SuppressWarnings("unchecked")
@@ -47,20 +86,38 @@ public class GeocodingService {
                 if (results != null && !results.isEmpty()) {
                     String formattedAddress = (String) results.get(0).get("formatted_address");
                     log.debug("Geocoded {}, {} to: {}", latitude, longitude, formattedAddress);
-                    return formattedAddress;
+                    return new GeocodeCacheService.GeocodedPlace(formattedAddress, extractLocality(results.get(0)));
                 }
             } else {
                 log.warn("Geocoding API returned status: {}", response != null ? response.get("status") : "null");
             }
-            
-            // Fallback to coordinates if geocoding fails
-            return String.format("%.4f, %.4f", latitude.doubleValue(), longitude.doubleValue());
+            return null;
         } catch (Exception e) {
             log.error("Error in reverse geocoding for {}, {}: ", latitude, longitude, e);
-            return String.format("%.4f, %.4f", latitude.doubleValue(), longitude.doubleValue());
+            return null;
+        } finally {
+            sample.stop(meterRegistry.timer("maps.api.requests", "api", "geocode", "outcome", outcome));
         }
     }
     
+    /**
+     * Locality (or district) component of a geocoding result, matching GoogleMapsClient.getLocalityName
+     */
+    @SuppressWarnings("unchecked")
+    private String extractLocality(Map<String, Object> result) {
+        List<Map<String, Object>> components = (List<Map<String, Object>>) result.get("address_components");
+        if (components == null) {
+            return null;
+        }
+        for (Map<String, Object> component : components) {
+            List<String> types = (List<String>) component.get("types");
+            if (types != null && (types.contains("locality") || types.contains("administrative_area_level_2"))) {
+                return (String) component.get("long_name");
+            }
+        }
+        return null;
+    }
+    
     /**
      * Get a shorter, more readable location name (e.g., city and country)
      * @param latitude The latitude coordinate
@@ -69,24 +126,56 @@ public class GeocodingService {
      */
     public String getLocationName(BigDecimal latitude, BigDecimal longitude) {
         try {
-            String fullAddress = reverseGeocode(latitude, longitude);
-            
-            // If we got coordinates back, return as is
-            if (fullAddress.matches("^-?\\d+\\.\\d+, -?\\d+\\.\\d+$")) {
-                return fullAddress;
-            }
-            
-            // Try to extract city and country from full address
-            String[] parts = fullAddress.split(", ");
-            if (parts.length >= 2) {
-                // Return last two parts (usually city and country for Sri Lankan addresses)
-                return parts[parts.length - 2] + ", " + parts[parts.length - 1];
-            }
-            
-            return fullAddress;
+            return shortenAddress(reverseGeocode(latitude, longitude));
         } catch (Exception e) {
             log.error("Error getting location name for {}, {}: ", latitude, longitude, e);
             return String.format("%.4f, %.4f", latitude.doubleValue(), longitude.doubleValue());
         }
     }
+    
+    /**
+     * Short location names for many points in one go. Points are deduplicated by geocode cache cell,
+     * cache misses are fetched in parallel on the bounded geocoding pool, and each point that could
+     * not be resolved in time gets its coordinates. Look results up with {@link #locationKey}.
+     */
+    public Map<String, String> getLocationNames(Collection<double[]> points) {
+        Map<String, String> addresses = geocodeCache.resolveAddresses(points,
+                (lat, lng) -> fetchPlace(BigDecimal.valueOf(lat), BigDecimal.valueOf(lng)),
+                geocodingExecutor, batchTimeoutMs);
+        
+        Map<String, String> names = new HashMap<>();
+        for (double[] point : points) {
+            String key = geocodeCache.cellKey(point[0], point[1]);
+            if (!names.containsKey(key)) {
+                String address = addresses.get(key);
+                names.put(key, address != null
+                        ? shortenAddress(address)
+                        : String.format("%.4f, %.4f", point[0], point[1]));
+            }
+        }
+        return names;
+    }
+    
+    /**
+     * Key of a point in the map returned by {@link #getLocationNames}
+     */
+    public String locationKey(BigDecimal latitude, BigDecimal longitude) {
+        return geocodeCache.cellKey(latitude.doubleValue(), longitude.doubleValue());
+    }
+    
+    private String shortenAddress(String fullAddress) {
+        // If we got coordinates back, return as is
+        if (fullAddress.matches("^-?\\d+\\.\\d+, -?\\d+\\.\\d+$")) {
+            return fullAddress;
+        }
+        
+        // Try to extract city and country from full address
+        String[] parts = fullAddress.split(", ");
+        if (parts.length >= 2) {
+            // Return last two parts (usually city and country for Sri Lankan addresses)
+            return parts[parts.length - 2] + ", " + parts[parts.length - 1];
+        }
+        
+        return fullAddress;
+    }
 }
@@ -5,38 +5,110 @@ import com.google.maps.GeocodingApi;
 import com.google.maps.DirectionsApi;
 import com.google.maps.model.*;
 import com.example.be.util.LatLng;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
 @Slf4j
 @Service
 public class GoogleMapsClient {
     private final GeoApiContext context;
+    private final GeocodeCacheService geocodeCache;
+    private final Executor geocodingExecutor;
+    private final long batchTimeoutMs;
+    private final MeterRegistry meterRegistry;
 
-    public GoogleMapsClient(@Value("${google.maps.api-key}") String apiKey) {
+    public GoogleMapsClient(@Value("${google.maps.api-key}") String apiKey,
+                            GeocodeCacheService geocodeCache,
+                            @Qualifier("geocodingExecutor") Executor geocodingExecutor,
+                            @Value("${geocoding.batch.timeout-ms:5000}") long batchTimeoutMs,
+                            MeterRegistry meterRegistry) {
         this.context = new GeoApiContext.Builder()
             .apiKey(apiKey)
             .build();
+        this.geocodeCache = geocodeCache;
+        this.geocodingExecutor = geocodingExecutor;
+        this.batchTimeoutMs = batchTimeoutMs;
+        this.meterRegistry = meterRegistry;
     }
 
     public DirectionsResult getDirections(LatLng origin, LatLng dest) throws Exception {
         log.info("Getting directions from ({}, {}) to ({}, {})", origin.getLat(), origin.getLng(), dest.getLat(), dest.getLng());
         
-        return DirectionsApi.newRequest(context)
+        return timed("directions", () -> DirectionsApi.newRequest(context)
             .mode(TravelMode.DRIVING)
             .origin(new com.google.maps.model.LatLng(origin.getLat(), origin.getLng()))
             .destination(new com.google.maps.model.LatLng(dest.getLat(), dest.getLng()))
             .alternatives(true)
-            .await();
+            .await());
     }
 
     public GeocodingResult[] reverseGeocode(com.google.maps.model.LatLng point) throws Exception {
         log.info("Reverse geocoding point ({}, {})", point.lat, point.lng);
         
-        return GeocodingApi.newRequest(context)
+        return timed("reverse_geocode", () -> GeocodingApi.newRequest(context)
             .latlng(point)
             .resultType(AddressType.LOCALITY)
-            .await();
+            .await());
+    }
+
+    // Latency of one Google Maps call, tagged with whether it returned or threw
+    private <T> T timed(String api, Callable<T> call) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.call();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(meterRegistry.timer("maps.api.requests", "api", api, "outcome", outcome));
+        }
+    }
+
+    /**
+     * Town/city name for a point (locality, then district, then the formatted address),
+     * served from the geocode cache when possible. Returns null if Google could not resolve it.
+     */
+    public String getLocalityName(double lat, double lng) {
+        return geocodeCache.resolveLocality(lat, lng, () -> fetchLocality(lat, lng));
+    }
+
+    /**
+     * Town/city names for many points, keyed by {@link GeocodeCacheService#cellKey}. Cache misses are
+     * fetched in parallel on the bounded geocoding pool; points that could not be resolved are absent.
+     */
+    public Map<String, String> getLocalityNames(Collection<double[]> points) {
+        return geocodeCache.resolveLocalities(points, this::fetchLocality, geocodingExecutor, batchTimeoutMs);
+    }
+
+    private GeocodeCacheService.GeocodedPlace fetchLocality(double lat, double lng) {
+        try {
+            GeocodingResult[] results = reverseGeocode(new com.google.maps.model.LatLng(lat, lng));
+            if (results == null || results.length == 0) {
+                return null;
+            }
+            // Look for locality (city/town) in the address components
+            for (AddressComponent component : results[0].addressComponents) {
+                for (AddressComponentType type : component.types) {
+                    if (type == AddressComponentType.LOCALITY ||
+                        type == AddressComponentType.ADMINISTRATIVE_AREA_LEVEL_2) {
+                        return new GeocodeCacheService.GeocodedPlace(null, component.longName);
+                    }
+                }
+            }
+            // Fallback to formatted address if no locality found
+            return new GeocodeCacheService.GeocodedPlace(null, results[0].formattedAddress);
+        } catch (Exception e) {
+            log.warn("Reverse geocoding failed for ({}, {}): {}", lat, lng, e.getMessage());
+            return null;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.example.be.service;
+
+import com.example.be.util.SegmentLoadTree;
+import org.springframework.stereotype.Component;
+
+/**
+ * Takes bids best score first whenever they still fit; O(n log S)
+ */
+@Component
+public class GreedyBidPackingSolver implements BidPackingSolver {
+
+    public static final String NAME = "greedy";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public BidPackingSolution solve(BidPackingProblem problem, BidPackingSolution incumbent, long deadlineNanos) {
+        SegmentLoadTree volumeLoad = problem.newLoad();
+        SegmentLoadTree weightLoad = problem.newLoad();
+        boolean[] groupUsed = new boolean[problem.groupCount()];
+        boolean[] chosen = new boolean[problem.size()];
+
+        for (int item = 0; item < problem.size(); item++) {
+            if (!groupUsed[problem.group(item)] && problem.fits(item, volumeLoad, weightLoad)) {
+                problem.place(item, volumeLoad, weightLoad, 1);
+                groupUsed[problem.group(item)] = true;
+                chosen[item] = true;
+            }
+        }
+        int[] items = problem.chosenItems(chosen);
+        return new BidPackingSolution(NAME, items, problem.objective(items), false, false);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.be.service;
+
+import com.example.be.model.DriverLocationUpdate;
+import com.example.be.repository.DriverLocationUpdateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest GPS fix per delivery tracking, kept in memory so live-tracking polls do not query
+ * driver_location_updates.
+ *
+ * Entries are updated whenever a fix is stored on this node (single posts and flushed batches), and
+ * loaded from the database (raw fixes, then compacted tracks) on a miss, for example after a restart.
+ * Fixes stored on another node are not seen here, so an entry not refreshed locally within max-age is
+ * re-read from the database once. Entries idle for longer than the eviction time are removed.
+ */
+@Slf4j
+@Service
+public class LatestPositionStore {
+
+    private final DriverLocationUpdateRepository driverLocationUpdateRepository;
+    private final LocationTrackCompactionService locationTrackCompactionService;
+    private final long maxAgeMillis;
+    private final long evictAfterMillis;
+    private final Map<UUID, Entry> latest = new ConcurrentHashMap<>();
+
+    public LatestPositionStore(DriverLocationUpdateRepository driverLocationUpdateRepository,
+                               LocationIngestBuffer locationIngestBuffer,
+                               LocationTrackCompactionService locationTrackCompactionService,
+                               @Value("${tracking.latest.max-age-ms:10000}") long maxAgeMillis,
+                               @Value("${tracking.latest.evict-after-minutes:60}") long evictAfterMinutes) {
+        this.driverLocationUpdateRepository = driverLocationUpdateRepository;
+        this.locationTrackCompactionService = locationTrackCompactionService;
+        this.maxAgeMillis = maxAgeMillis;
+        this.evictAfterMillis = Duration.ofMinutes(evictAfterMinutes).toMillis();
+        locationIngestBuffer.addStoredListener(this::update);
+    }
+
+    /**
+     * Record stored fixes; an older fix never replaces a newer one
+     */
+    public void update(List<LocationIngestBuffer.Fix> fixes) {
+        long now = System.currentTimeMillis();
+        for (LocationIngestBuffer.Fix fix : fixes) {
+            latest.merge(fix.deliveryTrackingId(), new Entry(fix, now), (current, candidate) ->
+                    current.fix != null && current.fix.recordedAt().isAfter(candidate.fix.recordedAt())
+                            ? new Entry(current.fix, now) : candidate);
+        }
+    }
+
+    /**
+     * Latest fix of the delivery tracking, from memory when fresh and otherwise from the database
+     */
+    public Optional<DriverLocationUpdate> getLatest(UUID deliveryTrackingId) {
+        long now = System.currentTimeMillis();
+        Entry entry = latest.get(deliveryTrackingId);
+        if (entry == null || now - entry.refreshedAt > maxAgeMillis) {
+            entry = load(deliveryTrackingId, now);
+        }
+        return entry.fix != null ? Optional.of(entry.fix.toLocationUpdate()) : Optional.empty();
+    }
+
+    public int size() {
+        return latest.size();
+    }
+
+    @Scheduled(fixedRateString = "${tracking.latest.evict-interval-ms:300000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - evictAfterMillis;
+        latest.values().removeIf(entry -> entry.refreshedAt < cutoff);
+    }
+
+    private Entry load(UUID deliveryTrackingId, long now) {
+        LocationIngestBuffer.Fix fix = driverLocationUpdateRepository.findLatestByDeliveryTrackingId(deliveryTrackingId)
+                .map(update -> new LocationIngestBuffer.Fix(update.getId(), deliveryTrackingId,
+                        update.getLatitude(), update.getLongitude(), update.getRecordedAt()))
+                // All raw fixes of an older delivery may have been compacted
+                .or(() -> locationTrackCompactionService.findLatestCompactedFix(deliveryTrackingId))
+                .orElse(null);
+        // Remembering "no fix yet" is safe: the first stored fix replaces it
+        Entry loaded = new Entry(fix, now);
+        return latest.merge(deliveryTrackingId, loaded, (current, candidate) ->
+                current.fix != null && (candidate.fix == null || current.fix.recordedAt().isAfter(candidate.fix.recordedAt()))
+                        ? new Entry(current.fix, now) : candidate);
+    }
+
+    private record Entry(LocationIngestBuffer.Fix fix, long refreshedAt) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.be.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process publish/subscribe over Server-Sent Events. Clients subscribe to a topic (for example one
+ * conversation) and receive every event published to it while connected.
+ *
+ * Subscribers are held in memory on the node that accepted the stream, so with several backend nodes
+ * events reach only the subscribers of the node that published them; clients keep their periodic
+ * refresh as a fallback. Stream handlers must not touch the database: with open-in-view the request's
+ * EntityManager lives as long as the stream, and a connection taken there would be held just as long.
+ */
+@Slf4j
+@Service
+public class LiveEventHub {
+
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Open a stream on the topic; it ends after timeoutMs, when the client disconnects or on shutdown
+     */
+    public SseEmitter subscribe(String topic, long timeoutMs) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        subscribers.compute(topic, (t, list) -> {
+            List<SseEmitter> topicSubscribers = list != null ? list : new CopyOnWriteArrayList<>();
+            topicSubscribers.add(emitter);
+            return topicSubscribers;
+        });
+
+        Runnable remove = () -> unsubscribe(topic, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // Tell the client the stream is open so it can stop polling
+        send(topic, emitter, SseEmitter.event().name("subscribed").data(Map.of("topic", topic)));
+        return emitter;
+    }
+
+    /**
+     * Send an event to every subscriber of the topic right away
+     */
+    public void publish(String topic, String eventName, Object payload) {
+        List<SseEmitter> topicSubscribers = subscribers.get(topic);
+        if (topicSubscribers == null || topicSubscribers.isEmpty()) {
+            return;
+        }
+        for (SseEmitter emitter : topicSubscribers) {
+            send(topic, emitter, SseEmitter.event().name(eventName).data(payload, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    /**
+     * Publish once the current transaction commits, so subscribers never see data that was rolled back
+     */
+    public void publishAfterCommit(String topic, String eventName, Object payload) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(topic, eventName, payload);
+                }
+            });
+        } else {
+            publish(topic, eventName, payload);
+        }
+    }
+
+    public boolean hasSubscribers(String topic) {
+        List<SseEmitter> topicSubscribers = subscribers.get(topic);
+        return topicSubscribers != null && !topicSubscribers.isEmpty();
+    }
+
+    public int getSubscriberCount() {
+        int count = 0;
+        for (List<SseEmitter> topicSubscribers : subscribers.values()) {
+            count += topicSubscribers.size();
+        }
+        return count;
+    }
+
+    /**
+     * Comment line to every stream so proxies keep idle connections open and dead clients are dropped
+     */
+    @Scheduled(fixedRateString = "${live.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Map.Entry<String, List<SseEmitter>> entry : subscribers.entrySet()) {
+            for (SseEmitter emitter : entry.getValue()) {
+                send(entry.getKey(), emitter, SseEmitter.event().comment("keep-alive"));
+            }
+        }
+    }
+
+    private void send(String topic, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; drop it and end the stream
+            log.debug("Dropping subscriber of {}: {}", topic, e.getMessage());
+            unsubscribe(topic, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(String topic, SseEmitter emitter) {
+        subscribers.computeIfPresent(topic, (t, list) -> {
+            list.remove(emitter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (List<SseEmitter> topicSubscribers : subscribers.values()) {
+            for (SseEmitter emitter : topicSubscribers) {
+                emitter.complete();
+            }
+        }
+        subscribers.clear();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.be.service;
+
+import com.example.be.util.SegmentLoadTree;
+import org.springframework.stereotype.Component;
+
+/**
+ * Improves a starting selection by exchange moves: drop one accepted bid, refill the freed capacity
+ * with the highest-priced bids that now fit, and keep the change if revenue goes up. This is the
+ * move that fixes a long-haul bid blocking two shorter ones. Repeats until no move helps or the
+ * time budget runs out; suited to routes with too many bids for branch and bound.
+ */
+@Component
+public class LocalSearchBidPackingSolver implements BidPackingSolver {
+
+    public static final String NAME = "local-search";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public BidPackingSolution solve(BidPackingProblem problem, BidPackingSolution incumbent, long deadlineNanos) {
+        int n = problem.size();
+        int[] byValue = problem.valueOrder();
+        SegmentLoadTree volumeLoad = problem.newLoad();
+        SegmentLoadTree weightLoad = problem.newLoad();
+        boolean[] groupUsed = new boolean[problem.groupCount()];
+        boolean[] chosen = new boolean[n];
+        double start = 0;
+        if (incumbent != null) {
+            for (int item : incumbent.items()) {
+                problem.place(item, volumeLoad, weightLoad, 1);
+                groupUsed[problem.group(item)] = true;
+                chosen[item] = true;
+                start += problem.value(item);
+            }
+        }
+
+        double objective = start + refill(problem, byValue, -1, volumeLoad, weightLoad, groupUsed, chosen, null, null);
+        boolean timedOut = false;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            // Cheapest accepted bids first: dropping them costs the least
+            for (int d = n - 1; d >= 0 && !improved; d--) {
+                if (System.nanoTime() > deadlineNanos) {
+                    timedOut = true;
+                    break;
+                }
+                int dropped = byValue[d];
+                if (!chosen[dropped]) {
+                    continue;
+                }
+                unplace(problem, dropped, volumeLoad, weightLoad, groupUsed, chosen);
+
+                int[] added = new int[n];
+                int[] addedCount = new int[1];
+                double gain = refill(problem, byValue, dropped, volumeLoad, weightLoad, groupUsed, chosen, added, addedCount)
+                    - problem.value(dropped);
+                if (gain > BidPackingProblem.EPSILON) {
+                    objective += gain;
+                    improved = true;
+                } else {
+                    for (int k = 0; k < addedCount[0]; k++) {
+                        unplace(problem, added[k], volumeLoad, weightLoad, groupUsed, chosen);
+                    }
+                    problem.place(dropped, volumeLoad, weightLoad, 1);
+                    groupUsed[problem.group(dropped)] = true;
+                    chosen[dropped] = true;
+                }
+            }
+            if (timedOut) {
+                break;
+            }
+        }
+
+        if (incumbent != null && objective <= incumbent.objective() + BidPackingProblem.EPSILON) {
+            return new BidPackingSolution(incumbent.solver(), incumbent.items(), incumbent.objective(), false, timedOut);
+        }
+        int[] items = problem.chosenItems(chosen);
+        return new BidPackingSolution(NAME, items, problem.objective(items), false, timedOut);
+    }
+
+    // Add every unchosen bid that fits, highest price first; returns the value added
+    private double refill(BidPackingProblem problem, int[] byValue, int skip, SegmentLoadTree volumeLoad,
+                          SegmentLoadTree weightLoad, boolean[] groupUsed, boolean[] chosen,
+                          int[] added, int[] addedCount) {
+        double gain = 0;
+        for (int item : byValue) {
+            if (item == skip || chosen[item] || groupUsed[problem.group(item)]
+                    || !problem.fits(item, volumeLoad, weightLoad)) {
+                continue;
+            }
+            problem.place(item, volumeLoad, weightLoad, 1);
+            groupUsed[problem.group(item)] = true;
+            chosen[item] = true;
+            gain += problem.value(item);
+            if (added != null) {
+                added[addedCount[0]++] = item;
+            }
+        }
+        return gain;
+    }
+
+    private void unplace(BidPackingProblem problem, int item, SegmentLoadTree volumeLoad, SegmentLoadTree weightLoad,
+                         boolean[] groupUsed, boolean[] chosen) {
+        problem.place(item, volumeLoad, weightLoad, -1);
+        groupUsed[problem.group(item)] = false;
+        chosen[item] = false;
+    }
+}
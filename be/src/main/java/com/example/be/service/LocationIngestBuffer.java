@@ -0,0 +1,360 @@
+package com.example.be.service;
+
+import com.example.be.model.DeliveryTracking;
+import com.example.be.model.DriverLocationUpdate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind buffer for driver GPS fixes. Fixes are queued in memory and written by one background
+ * thread with JDBC batch inserts, one transaction per batch, when batch-size fixes are waiting or the
+ * oldest has waited flush-interval-ms, so a fleet of drivers costs a few short transactions per second
+ * instead of one per ping.
+ *
+ * Durability: a fix is only in this node's memory until its batch commits. Fixes still buffered when
+ * the process dies are lost; on a normal shutdown the buffer is drained first. A batch that fails is
+ * retried up to max-attempts times and then dropped, and fixes for unknown delivery trackings are
+ * discarded. Callers that need to know a fix is stored wait on the future returned by {@link #offer}.
+ *
+ * Backpressure: the buffer holds at most capacity fixes, counting those being written. A batch that
+ * does not fit is rejected as a whole and the client should retry later.
+ *
+ * Stored listeners are told about every committed fix, including single fixes stored directly by
+ * DriverLocationUpdateService, so live views follow one feed.
+ */
+@Slf4j
+@Service
+public class LocationIngestBuffer {
+
+    /**
+     * One GPS fix; the id is assigned on ingest so it is known before the row is written
+     */
+    public record Fix(UUID id, UUID deliveryTrackingId, BigDecimal latitude, BigDecimal longitude,
+                      ZonedDateTime recordedAt) {
+
+        /**
+         * Detached entity with the same values, for callers that work with DriverLocationUpdate
+         */
+        public DriverLocationUpdate toLocationUpdate() {
+            DriverLocationUpdate update = new DriverLocationUpdate();
+            update.setId(id);
+            update.setDeliveryTracking(new DeliveryTracking());
+            update.getDeliveryTracking().setId(deliveryTrackingId);
+            update.setLatitude(latitude);
+            update.setLongitude(longitude);
+            update.setRecordedAt(recordedAt);
+            return update;
+        }
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO driver_location_updates " +
+            "(id, delivery_tracking_id, latitude, longitude, recorded_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int maxAttempts;
+
+    private final Semaphore permits;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "location-ingest-flusher");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile boolean stopping;
+    private final List<Consumer<List<Fix>>> storedListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public LocationIngestBuffer(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${location.ingest.capacity:20000}") int capacity,
+                                @Value("${location.ingest.batch-size:500}") int batchSize,
+                                @Value("${location.ingest.flush-interval-ms:1000}") long flushIntervalMs,
+                                @Value("${location.ingest.max-attempts:5}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.permits = new Semaphore(capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.execute(this::run);
+    }
+
+    /**
+     * Queue fixes for writing, all or none.
+     *
+     * @return a future completed once every fix is committed (exceptionally if any was dropped or
+     *         discarded), or null if the buffer has no room and nothing was queued
+     */
+    public CompletableFuture<Void> offer(List<Fix> fixes) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (fixes.isEmpty()) {
+            done.complete(null);
+            return done;
+        }
+        if (stopping || fixes.size() > capacity || !permits.tryAcquire(fixes.size())) {
+            rejected.addAndGet(fixes.size());
+            return null;
+        }
+        Batch batch = new Batch(fixes.size(), done);
+        for (Fix fix : fixes) {
+            queue.add(new Pending(fix, batch));
+        }
+        accepted.addAndGet(fixes.size());
+        return done;
+    }
+
+    /**
+     * Register a listener for committed fixes; it runs on the thread that stored them and must not block
+     */
+    public void addStoredListener(Consumer<List<Fix>> listener) {
+        storedListeners.add(listener);
+    }
+
+    /**
+     * Tell the stored listeners about fixes that have been committed
+     */
+    public void fixesStored(List<Fix> fixes) {
+        if (fixes.isEmpty()) {
+            return;
+        }
+        for (Consumer<List<Fix>> listener : storedListeners) {
+            try {
+                listener.accept(fixes);
+            } catch (Exception e) {
+                log.warn("Location listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    public int getBufferedCount() {
+        return capacity - permits.availablePermits();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void run() {
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                flushNext(flushIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Never let an unexpected error end the flusher
+                log.error("Error flushing location updates: ", e);
+            }
+        }
+    }
+
+    /**
+     * Wait up to maxWaitMs for a fix, collect a batch and write it
+     *
+     * @return number of fixes taken from the queue
+     */
+    int flushNext(long maxWaitMs) throws InterruptedException {
+        Pending first = queue.poll(maxWaitMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<Pending> chunk = new ArrayList<>(batchSize);
+        chunk.add(first);
+        // Linger until the batch is full or the first fix has waited the flush interval
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(stopping ? 0 : flushIntervalMs);
+        while (chunk.size() < batchSize) {
+            queue.drainTo(chunk, batchSize - chunk.size());
+            long remaining = deadline - System.nanoTime();
+            if (chunk.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            chunk.add(next);
+        }
+        writeWithRetry(chunk);
+        return chunk.size();
+    }
+
+    private void writeWithRetry(List<Pending> chunk) throws InterruptedException {
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    write(chunk);
+                    return;
+                } catch (Exception e) {
+                    if (attempt >= maxAttempts) {
+                        log.error("Dropping {} location updates after {} failed attempts: {}",
+                                chunk.size(), attempt, e.getMessage());
+                        dropped.addAndGet(chunk.size());
+                        for (Pending pending : chunk) {
+                            pending.batch.fail(e);
+                        }
+                        return;
+                    }
+                    log.warn("Writing {} location updates failed (attempt {}), retrying: {}",
+                            chunk.size(), attempt, e.getMessage());
+                    // The buffer keeps filling meanwhile; once it is full new batches are rejected
+                    Thread.sleep(Math.min(attempt * flushIntervalMs, 10_000L));
+                }
+            }
+        } finally {
+            permits.release(chunk.size());
+        }
+    }
+
+    private void write(List<Pending> chunk) {
+        Set<UUID> trackingIds = new HashSet<>();
+        for (Pending pending : chunk) {
+            trackingIds.add(pending.fix.deliveryTrackingId());
+        }
+
+        List<Pending> rows = transactionTemplate.execute(status -> {
+            Set<UUID> known = new HashSet<>(namedJdbcTemplate.queryForList(
+                    "SELECT id FROM delivery_tracking WHERE id IN (:ids)", Map.of("ids", trackingIds), UUID.class));
+            List<Pending> valid = new ArrayList<>(chunk.size());
+            for (Pending pending : chunk) {
+                if (known.contains(pending.fix.deliveryTrackingId())) {
+                    valid.add(pending);
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Fix fix = valid.get(i).fix;
+                    ps.setObject(1, fix.id());
+                    ps.setObject(2, fix.deliveryTrackingId());
+                    ps.setBigDecimal(3, fix.latitude());
+                    ps.setBigDecimal(4, fix.longitude());
+                    ps.setObject(5, fix.recordedAt().toOffsetDateTime());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return valid.size();
+                }
+            });
+            return valid;
+        });
+
+        List<Pending> stored = rows != null ? rows : List.of();
+        written.addAndGet(stored.size());
+        List<Fix> storedFixes = new ArrayList<>(stored.size());
+        for (Pending pending : stored) {
+            storedFixes.add(pending.fix);
+        }
+        fixesStored(storedFixes);
+        if (stored.size() < chunk.size()) {
+            log.warn("Discarded {} location updates for unknown delivery trackings", chunk.size() - stored.size());
+            dropped.addAndGet(chunk.size() - stored.size());
+        }
+        Set<Pending> storedSet = new HashSet<>(stored);
+        for (Pending pending : chunk) {
+            if (storedSet.contains(pending)) {
+                pending.batch.stored();
+            } else {
+                pending.batch.fail(new IllegalArgumentException(
+                        "Unknown delivery tracking: " + pending.fix.deliveryTrackingId()));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Stop accepting, let the flusher drain what is buffered, then stop it
+        stopping = true;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Location ingest buffer did not drain in time, {} updates lost", getBufferedCount());
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            flusher.shutdownNow();
+        }
+    }
+
+    private record Pending(Fix fix, Batch batch) {
+    }
+
+    /**
+     * Tracks one offered batch until every fix in it is stored or one fails
+     */
+    private static final class Batch {
+        private final AtomicInteger remaining;
+        private final CompletableFuture<Void> done;
+
+        Batch(int size, CompletableFuture<Void> done) {
+            this.remaining = new AtomicInteger(size);
+            this.done = done;
+        }
+
+        void stored() {
+            if (remaining.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+        }
+
+        void fail(Exception e) {
+            done.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.be.service;
+
+import com.example.be.util.LocationTrackCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps driver_location_updates small: fixes older than the hot window are compacted into one
+ * driver_location_tracks row per delivery and day (delta-encoded, see {@link LocationTrackCodec}) and
+ * their raw rows removed. Compacted tracks are deleted after the retention period.
+ *
+ * When driver_location_updates is partitioned by day (V31), a compacted day is removed by dropping its
+ * partition and partitions for the coming days are created ahead; otherwise rows are deleted. Either
+ * way each day is compacted in one transaction, so a failure leaves the raw rows in place. Runs are
+ * serialised across nodes with an advisory lock.
+ */
+@Slf4j
+@Service
+public class LocationTrackCompactionService {
+
+    private static final String PARTITION_PREFIX = "driver_location_updates_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final long COMPACTION_LOCK = 7_240_021L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int hotDays;
+    private final int retentionDays;
+    private final int partitionsAheadDays;
+    private final int maxDaysPerRun;
+    private final int fetchSize;
+
+    public LocationTrackCompactionService(JdbcTemplate jdbcTemplate,
+                                          TransactionTemplate transactionTemplate,
+                                          @Value("${tracking.storage.hot-days:7}") int hotDays,
+                                          @Value("${tracking.storage.retention-days:365}") int retentionDays,
+                                          @Value("${tracking.storage.partitions-ahead-days:7}") int partitionsAheadDays,
+                                          @Value("${tracking.storage.max-days-per-run:7}") int maxDaysPerRun,
+                                          @Value("${tracking.storage.compaction-fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.hotDays = hotDays;
+        this.retentionDays = retentionDays;
+        this.partitionsAheadDays = partitionsAheadDays;
+        this.maxDaysPerRun = maxDaysPerRun;
+        this.fetchSize = fetchSize;
+    }
+
+    @Scheduled(cron = "${tracking.storage.compaction-cron:0 15 2 * * *}", zone = "UTC")
+    public void runCompaction() {
+        try {
+            boolean partitioned = isPartitioned();
+            if (partitioned) {
+                createUpcomingPartitions();
+            }
+
+            OffsetDateTime hotStart = LocalDate.now(ZoneOffset.UTC).minusDays(hotDays).atStartOfDay().atOffset(ZoneOffset.UTC);
+            int compactedDays = 0;
+            while (compactedDays < maxDaysPerRun) {
+                OffsetDateTime oldest = jdbcTemplate.queryForObject(
+                        "SELECT MIN(recorded_at) FROM driver_location_updates WHERE recorded_at < ?",
+                        OffsetDateTime.class, hotStart);
+                if (oldest == null) {
+                    break;
+                }
+                LocalDate day = oldest.atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+                Boolean done = transactionTemplate.execute(status -> compactDay(day, partitioned));
+                if (!Boolean.TRUE.equals(done)) {
+                    log.info("Location compaction is running on another node, stopping");
+                    return;
+                }
+                compactedDays++;
+            }
+
+            int expired = jdbcTemplate.update("DELETE FROM driver_location_tracks WHERE ended_at < ?",
+                    OffsetDateTime.now(ZoneOffset.UTC).minusDays(retentionDays));
+            log.info("Location compaction finished: {} days compacted, {} expired tracks deleted", compactedDays, expired);
+        } catch (Exception e) {
+            log.error("Error compacting location history: ", e);
+        }
+    }
+
+    /**
+     * Compacted fixes of a delivery tracking recorded within [from, to] (either bound may be null),
+     * newest first
+     */
+    public List<LocationIngestBuffer.Fix> findCompactedFixes(UUID deliveryTrackingId, ZonedDateTime from, ZonedDateTime to) {
+        Instant lower = from != null ? from.toInstant() : Instant.MIN;
+        Instant upper = to != null ? to.toInstant() : Instant.MAX;
+        List<LocationIngestBuffer.Fix> fixes = new ArrayList<>();
+        for (TrackRow row : findTracks(deliveryTrackingId, from, to)) {
+            List<LocationTrackCodec.Point> points = LocationTrackCodec.decode(row.track);
+            for (int i = 0; i < points.size(); i++) {
+                LocationTrackCodec.Point point = points.get(i);
+                if (point.recordedAt().isBefore(lower) || point.recordedAt().isAfter(upper)) {
+                    continue;
+                }
+                fixes.add(toFix(deliveryTrackingId, row.id, i, point));
+            }
+        }
+        fixes.sort(Comparator.comparing(LocationIngestBuffer.Fix::recordedAt).reversed());
+        return fixes;
+    }
+
+    /**
+     * Newest compacted fix of a delivery tracking, for deliveries whose raw fixes are all compacted
+     */
+    public Optional<LocationIngestBuffer.Fix> findLatestCompactedFix(UUID deliveryTrackingId) {
+        List<TrackRow> rows = jdbcTemplate.query(
+                "SELECT id, started_at, lat_deltas_e7, lng_deltas_e7, time_deltas_ms FROM driver_location_tracks " +
+                        "WHERE delivery_tracking_id = ? ORDER BY ended_at DESC LIMIT 1",
+                (rs, i) -> toTrackRow(rs), deliveryTrackingId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        TrackRow row = rows.get(0);
+        List<LocationTrackCodec.Point> points = LocationTrackCodec.decode(row.track);
+        int last = points.size() - 1;
+        return Optional.of(toFix(deliveryTrackingId, row.id, last, points.get(last)));
+    }
+
+    private boolean compactDay(LocalDate day, boolean partitioned) {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, COMPACTION_LOCK);
+        if (!Boolean.TRUE.equals(locked)) {
+            return false;
+        }
+        OffsetDateTime from = day.atStartOfDay().atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = from.plusDays(1);
+        String partition = PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+        boolean hasPartition = partitioned && partitionExists(partition);
+
+        if (hasPartition) {
+            // Block late writers to the day while it is read and dropped
+            jdbcTemplate.execute("LOCK TABLE public." + partition + " IN SHARE ROW EXCLUSIVE MODE");
+        }
+        // Rows outside the daily partition (default partition, or an unpartitioned table) are taken with
+        // DELETE ... RETURNING, so exactly the rows compacted are removed. Postgres sorts the day (spilling
+        // to disk if needed) and the rows are fetched in chunks, so only one delivery's track is in memory.
+        String table = hasPartition ? "public.driver_location_updates_default" : "driver_location_updates";
+        String sql = "WITH moved AS (DELETE FROM " + table + " WHERE recorded_at >= ? AND recorded_at < ? " +
+                "RETURNING delivery_tracking_id, latitude, longitude, recorded_at) " +
+                "SELECT delivery_tracking_id, latitude, longitude, recorded_at FROM moved " +
+                (hasPartition ? "UNION ALL SELECT delivery_tracking_id, latitude, longitude, recorded_at FROM public." + partition + " " : "") +
+                "ORDER BY delivery_tracking_id, recorded_at";
+        TrackWriter writer = new TrackWriter();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            ps.setObject(1, from);
+            ps.setObject(2, to);
+            return ps;
+        }, writer);
+        writer.finish();
+
+        if (hasPartition) {
+            jdbcTemplate.execute("DROP TABLE public." + partition);
+        }
+        log.info("Compacted {} location updates of {} into {} tracks", writer.fixes, day, writer.tracks);
+        return true;
+    }
+
+    /**
+     * Writes one track each time the delivery changes in rows ordered by (delivery, time)
+     */
+    private final class TrackWriter implements RowCallbackHandler {
+        private UUID current;
+        private final List<LocationTrackCodec.Point> points = new ArrayList<>();
+        private long fixes;
+        private int tracks;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            UUID deliveryTrackingId = rs.getObject(1, UUID.class);
+            if (!deliveryTrackingId.equals(current)) {
+                finish();
+                current = deliveryTrackingId;
+            }
+            points.add(new LocationTrackCodec.Point(rs.getBigDecimal(2), rs.getBigDecimal(3),
+                    rs.getObject(4, OffsetDateTime.class).toInstant()));
+            fixes++;
+        }
+
+        void finish() {
+            if (!points.isEmpty()) {
+                insertTrack(current, points);
+                tracks++;
+                points.clear();
+            }
+        }
+    }
+
+    private void insertTrack(UUID deliveryTrackingId, List<LocationTrackCodec.Point> points) {
+        LocationTrackCodec.Track track = LocationTrackCodec.encode(points);
+        Instant endedAt = points.get(points.size() - 1).recordedAt();
+        jdbcTemplate.update(connection -> {
+            var ps = connection.prepareStatement("INSERT INTO driver_location_tracks " +
+                    "(delivery_tracking_id, started_at, ended_at, point_count, lat_deltas_e7, lng_deltas_e7, time_deltas_ms) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)");
+            ps.setObject(1, deliveryTrackingId);
+            ps.setObject(2, track.startedAt().atOffset(ZoneOffset.UTC));
+            ps.setObject(3, endedAt.atOffset(ZoneOffset.UTC));
+            ps.setInt(4, track.size());
+            ps.setArray(5, connection.createArrayOf("int4", boxed(track.latDeltas())));
+            ps.setArray(6, connection.createArrayOf("int4", boxed(track.lngDeltas())));
+            ps.setArray(7, connection.createArrayOf("int4", boxed(track.timeDeltasMs())));
+            return ps;
+        });
+    }
+
+    private List<TrackRow> findTracks(UUID deliveryTrackingId, ZonedDateTime from, ZonedDateTime to) {
+        StringBuilder sql = new StringBuilder("SELECT id, started_at, lat_deltas_e7, lng_deltas_e7, time_deltas_ms " +
+                "FROM driver_location_tracks WHERE delivery_tracking_id = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(deliveryTrackingId);
+        if (to != null) {
+            sql.append(" AND started_at <= ?");
+            params.add(to.toOffsetDateTime());
+        }
+        if (from != null) {
+            sql.append(" AND ended_at >= ?");
+            params.add(from.toOffsetDateTime());
+        }
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> toTrackRow(rs), params.toArray());
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                        "WHERE c.relname = 'driver_location_updates')", Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private boolean partitionExists(String partition) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, "public." + partition);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private void createUpcomingPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (int i = 0; i <= partitionsAheadDays; i++) {
+            LocalDate day = today.plusDays(i);
+            String partition = PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+            if (partitionExists(partition)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS public." + partition +
+                        " PARTITION OF public.driver_location_updates FOR VALUES FROM ('" + day + " 00:00:00+00') TO ('" +
+                        day.plusDays(1) + " 00:00:00+00')");
+            } catch (Exception e) {
+                // Rows for the day already in the default partition block it; they stay there until compacted
+                log.warn("Could not create location partition {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    private static LocationIngestBuffer.Fix toFix(UUID deliveryTrackingId, UUID trackId, int index, LocationTrackCodec.Point point) {
+        // Compacted points have no row of their own; derive a stable id from the track and position
+        UUID id = UUID.nameUUIDFromBytes((trackId + ":" + index).getBytes(StandardCharsets.UTF_8));
+        return new LocationIngestBuffer.Fix(id, deliveryTrackingId, point.latitude(), point.longitude(),
+                point.recordedAt().atZone(ZoneOffset.UTC));
+    }
+
+    private static TrackRow toTrackRow(ResultSet rs) throws SQLException {
+        return new TrackRow(rs.getObject(1, UUID.class), new LocationTrackCodec.Track(
+                rs.getObject(2, OffsetDateTime.class).toInstant(),
+                unboxed(rs.getArray(3)), unboxed(rs.getArray(4)), unboxed(rs.getArray(5))));
+    }
+
+    private static Integer[] boxed(int[] values) {
+        Integer[] boxed = new Integer[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+
+    private static int[] unboxed(Array array) throws SQLException {
+        Integer[] values = (Integer[]) array.getArray();
+        int[] unboxed = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            unboxed[i] = values[i];
+        }
+        return unboxed;
+    }
+
+    private record TrackRow(UUID id, LocationTrackCodec.Track track) {
+    }
+}
@@ -1,112 +1,164 @@
 package com.example.be.service;
 
+import com.example.be.util.GeoUtils;
 import com.example.be.util.LatLng;
+import com.example.be.util.PolylineCursor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Encoded polyline helpers. Everything here streams over the encoded string with a {@link PolylineCursor};
+ * only the points a caller actually asks for are materialised.
+ */
 @Slf4j
 @Service
 public class PolylineService {
 
-    public List<LatLng> sampleByDistance(String encoded, double intervalKm) {
+    public List<LatLng> sampleByDistance(CharSequence encoded, double intervalKm) {
         log.info("Sampling polyline with interval: {} km", intervalKm);
-        
-        // Decode the polyline to get all points
-        List<LatLng> allPoints = decodePolyline(encoded);
+
         List<LatLng> samples = new ArrayList<>();
-        
-        if (allPoints.isEmpty()) {
+        PolylineCursor cursor = new PolylineCursor(encoded);
+        if (!cursor.next()) {
             return samples;
         }
-        
+
         // Add the first point
-        samples.add(allPoints.get(0));
+        samples.add(new LatLng(cursor.lat(), cursor.lng()));
         double accumulated = 0;
-        LatLng prev = allPoints.get(0);
-
-        // Sample points at the specified interval
-        for (int i = 1; i < allPoints.size(); i++) {
-            LatLng curr = allPoints.get(i);
-            double dist = calculateDistance(prev, curr);
-            accumulated += dist;
-            
+        double prevLat = cursor.lat();
+        double prevLng = cursor.lng();
+        double prevCosLat = Math.cos(Math.toRadians(prevLat));
+        boolean lastSampled = true;
+        int points = 1;
+
+        // Decode and sample in one pass; distance reuses cos(lat) of the previous point
+        while (cursor.next()) {
+            double lat = cursor.lat();
+            double lng = cursor.lng();
+            double cosLat = Math.cos(Math.toRadians(lat));
+            accumulated += haversineKm(prevLat, prevLng, prevCosLat, lat, lng, cosLat);
+            points++;
+
             if (accumulated >= intervalKm) {
-                samples.add(curr);
+                samples.add(new LatLng(lat, lng));
                 accumulated = 0;
+                lastSampled = true;
+            } else {
+                lastSampled = false;
             }
-            prev = curr;
+            prevLat = lat;
+            prevLng = lng;
+            prevCosLat = cosLat;
         }
-        
+
         // Ensure we include the last point if it's not already included
-        if (!samples.contains(allPoints.get(allPoints.size() - 1))) {
-            samples.add(allPoints.get(allPoints.size() - 1));
+        if (!lastSampled) {
+            samples.add(new LatLng(prevLat, prevLng));
         }
-        
-        log.info("Sampled {} points from polyline", samples.size());
+        warnIfTruncated(cursor);
+
+        log.info("Sampled {} points from {} polyline points", samples.size(), points);
         return samples;
     }
-    
-    private List<LatLng> decodePolyline(String encoded) {
+
+    /**
+     * Total length of the polyline in km, without decoding it into a list
+     */
+    public double lengthKm(CharSequence encoded) {
+        PolylineCursor cursor = new PolylineCursor(encoded);
+        if (!cursor.next()) {
+            return 0;
+        }
+        double total = 0;
+        double prevLat = cursor.lat();
+        double prevLng = cursor.lng();
+        double prevCosLat = Math.cos(Math.toRadians(prevLat));
+        while (cursor.next()) {
+            double lat = cursor.lat();
+            double lng = cursor.lng();
+            double cosLat = Math.cos(Math.toRadians(lat));
+            total += haversineKm(prevLat, prevLng, prevCosLat, lat, lng, cosLat);
+            prevLat = lat;
+            prevLng = lng;
+            prevCosLat = cosLat;
+        }
+        warnIfTruncated(cursor);
+        return total;
+    }
+
+    /**
+     * Decode into a packed array {lat0, lng0, lat1, lng1, ...}; the point count is length / 2
+     */
+    public double[] decodeToArray(CharSequence encoded) {
+        // Every point takes at least two characters, so this bound never needs to grow
+        double[] coords = new double[encoded == null ? 0 : encoded.length()];
+        PolylineCursor cursor = new PolylineCursor(encoded);
+        int n = 0;
+        while (cursor.next()) {
+            coords[n++] = cursor.lat();
+            coords[n++] = cursor.lng();
+        }
+        warnIfTruncated(cursor);
+        return n == coords.length ? coords : Arrays.copyOf(coords, n);
+    }
+
+    /**
+     * Encode a packed array {lat0, lng0, lat1, lng1, ...} in the same format {@link PolylineCursor} reads
+     */
+    public String encode(double[] coords) {
+        StringBuilder encoded = new StringBuilder(coords.length * 4);
+        long prevLatE5 = 0;
+        long prevLngE5 = 0;
+        for (int i = 0; i + 1 < coords.length; i += 2) {
+            long latE5 = Math.round(coords[i] * 1E5);
+            long lngE5 = Math.round(coords[i + 1] * 1E5);
+            appendValue(encoded, latE5 - prevLatE5);
+            appendValue(encoded, lngE5 - prevLngE5);
+            prevLatE5 = latE5;
+            prevLngE5 = lngE5;
+        }
+        return encoded.toString();
+    }
+
+    public List<LatLng> decodePolyline(CharSequence encoded) {
         List<LatLng> poly = new ArrayList<>();
-        int index = 0, len = encoded.length();
-        int lat = 0, lng = 0;
-
-        while (index < len) {
-            // Decode latitude
-            int b, shift = 0, result = 0;
-            do {
-                if (index >= len) {
-                    log.warn("Unexpected end of polyline while decoding latitude");
-                    break;
-                }
-                b = encoded.charAt(index++) - 63;
-                result |= (b & 0x1f) << shift;
-                shift += 5;
-            } while (b >= 0x20);
-            int dlat = ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
-            lat += dlat;
-
-            // Decode longitude
-            shift = 0;
-            result = 0;
-            do {
-                if (index >= len) {
-                    log.warn("Unexpected end of polyline while decoding longitude");
-                    break;
-                }
-                b = encoded.charAt(index++) - 63;
-                result |= (b & 0x1f) << shift;
-                shift += 5;
-            } while (b >= 0x20);
-            int dlng = ((result & 1) != 0 ? ~(result >> 1) : (result >> 1));
-            lng += dlng;
-
-            double latDouble = lat / 1E5;
-            double lngDouble = lng / 1E5;
-            poly.add(new LatLng(latDouble, lngDouble));
+        PolylineCursor cursor = new PolylineCursor(encoded);
+        while (cursor.next()) {
+            poly.add(new LatLng(cursor.lat(), cursor.lng()));
         }
-        
+        warnIfTruncated(cursor);
+
         log.info("Decoded {} points from polyline", poly.size());
         return poly;
     }
-    
-    private double calculateDistance(LatLng point1, LatLng point2) {
-        // Haversine formula to calculate distance between two points
-        double lat1 = Math.toRadians(point1.getLat());
-        double lat2 = Math.toRadians(point2.getLat());
-        double deltaLat = Math.toRadians(point2.getLat() - point1.getLat());
-        double deltaLng = Math.toRadians(point2.getLng() - point1.getLng());
-
-        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
-                Math.cos(lat1) * Math.cos(lat2) *
-                Math.sin(deltaLng / 2) * Math.sin(deltaLng / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        // Earth's radius in kilometers
-        double earthRadius = 6371.0;
-        return earthRadius * c;
+
+    // One zig-zag varint in 5-bit chunks, the inverse of PolylineCursor.readValue
+    private static void appendValue(StringBuilder out, long value) {
+        long v = value < 0 ? ~(value << 1) : value << 1;
+        while (v >= 0x20) {
+            out.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        out.append((char) (v + 63));
+    }
+
+    private void warnIfTruncated(PolylineCursor cursor) {
+        if (cursor.isTruncated()) {
+            log.warn("Unexpected end of polyline, dropped the incomplete last point");
+        }
+    }
+
+    // Haversine with the cosines of both latitudes supplied by the caller
+    private static double haversineKm(double lat1, double lng1, double cosLat1,
+                                      double lat2, double lng2, double cosLat2) {
+        double sinHalfDLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinHalfDLng = Math.sin(Math.toRadians(lng2 - lng1) / 2);
+        double a = sinHalfDLat * sinHalfDLat + cosLat1 * cosLat2 * sinHalfDLng * sinHalfDLng;
+        return GeoUtils.EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
     }
-} 
\ No newline at end of file
+}
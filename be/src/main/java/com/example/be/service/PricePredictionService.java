@@ -7,6 +7,8 @@ import com.example.be.repository.PricePredictionRepository;
 import com.example.be.repository.ReturnRouteRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -28,6 +30,7 @@ public class PricePredictionService {
     private final ReturnRouteRepository returnRouteRepository;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
     
     @Value("${ml.service.url:http://localhost:8000}")
     private String mlServiceUrl;
@@ -36,11 +39,13 @@ public class PricePredictionService {
     public PricePredictionService(PricePredictionRepository pricePredictionRepository,
                                 ReturnRouteRepository returnRouteRepository,
                                 RestTemplate restTemplate,
-                                ObjectMapper objectMapper) {
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
         this.pricePredictionRepository = pricePredictionRepository;
         this.returnRouteRepository = returnRouteRepository;
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
     }
 
     @Transactional(readOnly = true)
@@ -141,8 +146,9 @@ public class PricePredictionService {
     
     /**
      * Calculate distance between two coordinates using Haversine formula
+     * (package-private and static so the jmh benchmarks can call it)
      */
-    private BigDecimal calculateDistanceFromCoordinates(BigDecimal lat1, BigDecimal lon1, 
+    static BigDecimal calculateDistanceFromCoordinates(BigDecimal lat1, BigDecimal lon1, 
                                                        BigDecimal lat2, BigDecimal lon2) {
         final double R = 6371; // Earth's radius in km
         
@@ -168,6 +174,8 @@ public class PricePredictionService {
      * Call ML service for price prediction
      */
     private BigDecimal callMLService(Map<String, Object> features) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             String url = mlServiceUrl + "/predict";
             
@@ -195,6 +203,7 @@ public class PricePredictionService {
                 double predictedPrice = rawPrediction * scalingFactor;
                 
                 log.info("ML service returned raw prediction: {}, scaled prediction: {}", rawPrediction, predictedPrice);
+                outcome = "success";
                 return new BigDecimal(predictedPrice).setScale(2, RoundingMode.HALF_UP);
             } else {
                 throw new RuntimeException("ML service returned error: " + response.getStatusCode());
@@ -203,6 +212,8 @@ public class PricePredictionService {
         } catch (Exception e) {
             log.error("Error calling ML service: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to call ML service: " + e.getMessage());
+        } finally {
+            sample.stop(meterRegistry.timer("ml.price.prediction.requests", "outcome", outcome));
         }
     }
     
@@ -0,0 +1,148 @@
+package com.example.be.service;
+
+import com.example.be.model.ReturnRoute;
+import com.example.be.repository.ReturnRouteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Claims routes whose bidding is due and hands them to parallel workers, so the closing jobs can run
+ * on every backend node without two nodes processing the same route.
+ *
+ * A claim is a short transaction that locks due rows with FOR UPDATE SKIP LOCKED and stamps them with
+ * this node's id and a lease expiry. Each claimed route is then processed in its own transaction, which
+ * re-locks the row, checks the claim is still ours and releases it on success. If processing fails the
+ * lease is left to expire, so the route is retried by a later run instead of straight away.
+ */
+@Slf4j
+@Service
+public class RouteBiddingClaimService {
+
+    private final ReturnRouteRepository routeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor workers;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration lease;
+    private final String nodeId;
+
+    public RouteBiddingClaimService(ReturnRouteRepository routeRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    @Qualifier("bidClosingExecutor") Executor workers,
+                                    @Value("${bid.closing.batch-size:20}") int batchSize,
+                                    @Value("${bid.closing.max-batches-per-run:10}") int maxBatchesPerRun,
+                                    @Value("${bid.closing.lease-minutes:5}") long leaseMinutes) {
+        this.routeRepository = routeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lease = Duration.ofMinutes(leaseMinutes);
+        this.nodeId = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Claim due routes in batches and process each one in its own transaction on the worker pool,
+     * until nothing is left to claim or the per-run batch limit is reached.
+     *
+     * @param job        name used in log messages
+     * @param lockDue    locks up to the given number of due, unclaimed route ids (runs inside the claim transaction)
+     * @param closeRoute processes one claimed route; throwing rolls back that route only
+     * @return number of routes processed successfully
+     */
+    public int processDueRoutes(String job, IntFunction<List<UUID>> lockDue, Consumer<ReturnRoute> closeRoute) {
+        AtomicInteger processed = new AtomicInteger();
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<UUID> claimed = claimBatch(lockDue);
+            if (claimed.isEmpty()) {
+                break;
+            }
+            log.info("{}: claimed {} routes on {}", job, claimed.size(), nodeId);
+
+            List<CompletableFuture<Void>> tasks = new ArrayList<>(claimed.size());
+            for (UUID routeId : claimed) {
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    if (processClaimedRoute(job, routeId, closeRoute)) {
+                        processed.incrementAndGet();
+                    }
+                }, workers));
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+
+            if (claimed.size() < batchSize) {
+                break;
+            }
+        }
+        return processed.get();
+    }
+
+    /**
+     * Claim and process one route on the calling thread, if it is still due and unclaimed
+     *
+     * @param lockRoute locks the route if it is due (runs inside the claim transaction)
+     * @return true if the route was claimed and processed successfully
+     */
+    public boolean processRoute(String job, UUID routeId, Supplier<List<UUID>> lockRoute, Consumer<ReturnRoute> closeRoute) {
+        List<UUID> claimed = claimBatch(limit -> lockRoute.get());
+        if (!claimed.contains(routeId)) {
+            log.debug("{}: route {} is not due or already claimed", job, routeId);
+            return false;
+        }
+        return processClaimedRoute(job, routeId, closeRoute);
+    }
+
+    private List<UUID> claimBatch(IntFunction<List<UUID>> lockDue) {
+        List<UUID> claimed = transactionTemplate.execute(status -> {
+            List<UUID> ids = lockDue.apply(batchSize);
+            if (!ids.isEmpty()) {
+                routeRepository.claimRoutesForBidding(ids, nodeId, ZonedDateTime.now().plus(lease));
+            }
+            return ids;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    private boolean processClaimedRoute(String job, UUID routeId, Consumer<ReturnRoute> closeRoute) {
+        try {
+            Boolean done = transactionTemplate.execute(status -> {
+                ReturnRoute route = routeRepository.lockClaimedRoute(routeId, nodeId).orElse(null);
+                if (route == null) {
+                    // Our lease ran out and another node took the route over
+                    log.warn("{}: lost claim on route {}, skipping", job, routeId);
+                    return false;
+                }
+                closeRoute.accept(route);
+                routeRepository.releaseBiddingClaim(routeId);
+                return true;
+            });
+            return Boolean.TRUE.equals(done);
+        } catch (Exception e) {
+            log.error("{}: error processing route {}, it will be retried after its claim expires: ", job, routeId, e);
+            return false;
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.be.service;
+
+import com.example.be.model.ReturnRoute;
+import com.example.be.model.RouteSegment;
+import com.example.be.repository.ReturnRouteRepository;
+import com.example.be.repository.RouteSegmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves origin, destination and segment names for a route once, in the background, and stores them
+ * so the read paths (my-routes, view-bids, route details) never have to reverse-geocode.
+ */
+@Slf4j
+@Service
+public class RouteEnrichmentService {
+
+    private static final String UNKNOWN_LOCATION = "Unknown Location";
+    // Placeholder given to polyline-generated segments in RouteService.createRoute
+    private static final Pattern GENERATED_NAME = Pattern.compile("^Location \\d+$");
+
+    private final ReturnRouteRepository routeRepo;
+    private final RouteSegmentRepository segRepo;
+    private final GoogleMapsClient maps;
+    private final GeocodeCacheService geocodeCache;
+    private final TaskExecutor executor;
+    private final TransactionTemplate transactionTemplate;
+
+    // Routes queued or running, so repeated reads of a legacy route do not enqueue it again
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    public RouteEnrichmentService(ReturnRouteRepository routeRepo,
+                                  RouteSegmentRepository segRepo,
+                                  GoogleMapsClient maps,
+                                  GeocodeCacheService geocodeCache,
+                                  @Qualifier("routeEnrichmentExecutor") TaskExecutor executor,
+                                  PlatformTransactionManager transactionManager) {
+        this.routeRepo = routeRepo;
+        this.segRepo = segRepo;
+        this.maps = maps;
+        this.geocodeCache = geocodeCache;
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queue enrichment for a route; when called inside a transaction it starts after commit
+     */
+    public void enrichAsync(UUID routeId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(routeId);
+                }
+            });
+        } else {
+            submit(routeId);
+        }
+    }
+
+    public static boolean isPlaceholder(String name) {
+        return name == null || name.isBlank() || UNKNOWN_LOCATION.equals(name) || GENERATED_NAME.matcher(name).matches();
+    }
+
+    private void submit(UUID routeId) {
+        if (!inFlight.add(routeId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    enrich(routeId);
+                } catch (Exception e) {
+                    log.error("Error enriching location names for route {}: ", routeId, e);
+                } finally {
+                    inFlight.remove(routeId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.remove(routeId);
+            log.warn("Route enrichment queue is full, route {} will be enriched on a later read", routeId);
+        }
+    }
+
+    /**
+     * One pass over the route: collect every point needing a name, resolve each distinct ~100 m cell once
+     * (through the shared geocode cache), then write route and segment names in one transaction.
+     */
+    void enrich(UUID routeId) {
+        ReturnRoute route = routeRepo.findById(routeId).orElse(null);
+        if (route == null) {
+            log.info("Route {} no longer exists, skipping enrichment", routeId);
+            return;
+        }
+        List<RouteSegment> segments = segRepo.findByRouteIdOrderBySegmentIndex(routeId);
+
+        Map<String, String> namesByCell = new HashMap<>();
+        String originName = isPlaceholder(route.getOriginLocationName())
+                ? resolve(namesByCell, route.getOriginLat().doubleValue(), route.getOriginLng().doubleValue())
+                : route.getOriginLocationName();
+        String destinationName = isPlaceholder(route.getDestinationLocationName())
+                ? resolve(namesByCell, route.getDestinationLat().doubleValue(), route.getDestinationLng().doubleValue())
+                : route.getDestinationLocationName();
+
+        Map<UUID, String> segmentNames = new HashMap<>();
+        for (RouteSegment segment : segments) {
+            if (isPlaceholder(segment.getLocationName())) {
+                String name = resolve(namesByCell, segment.getStartLat().doubleValue(), segment.getStartLng().doubleValue());
+                if (name != null) {
+                    segmentNames.put(segment.getId(), name);
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            routeRepo.updateLocationNames(routeId,
+                    originName != null ? originName : route.getOriginLocationName(),
+                    destinationName != null ? destinationName : route.getDestinationLocationName());
+            if (!segmentNames.isEmpty()) {
+                // Managed entities: dirty checking flushes these as one JDBC batch on commit
+                for (RouteSegment segment : segRepo.findAllById(segmentNames.keySet())) {
+                    segment.setLocationName(segmentNames.get(segment.getId()));
+                }
+            }
+        });
+
+        log.info("Enriched route {}: origin={}, destination={}, {} segment names resolved ({} distinct lookups)",
+                routeId, originName, destinationName, segmentNames.size(), namesByCell.size());
+    }
+
+    private String resolve(Map<String, String> namesByCell, double lat, double lng) {
+        // Points of one route falling in the same geocode cache cell share a single lookup
+        return namesByCell.computeIfAbsent(geocodeCache.cellKey(lat, lng), k -> maps.getLocalityName(lat, lng));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.be.service;
+
+import com.example.be.model.ReturnRoute;
+import com.example.be.model.RouteSegment;
+import com.example.be.repository.RouteSegmentRepository;
+import com.example.be.util.GeoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-route segment geometry for bid scoring: segment end points and cumulative distances, loaded
+ * once per route and kept until its bidding window closes, so each bid's distance and detour is O(1).
+ */
+@Slf4j
+@Service
+public class RouteGeometryService {
+
+    // Bidding ends this long before departure (see RouteService.getMyRoutes)
+    private static final Duration BIDDING_CLOSES_BEFORE_DEPARTURE = Duration.ofHours(2);
+
+    private final RouteSegmentRepository segRepo;
+    private final Duration grace;
+
+    private final Map<UUID, CachedGeometry> cache = new ConcurrentHashMap<>();
+
+    public RouteGeometryService(RouteSegmentRepository segRepo,
+                                @Value("${route.geometry.cache-grace-minutes:30}") long graceMinutes) {
+        this.segRepo = segRepo;
+        this.grace = Duration.ofMinutes(graceMinutes);
+    }
+
+    /**
+     * Segment geometry of a route, or null if it has no stored segments
+     */
+    public RouteGeometry getGeometry(ReturnRoute route) {
+        long now = System.currentTimeMillis();
+        CachedGeometry cached = cache.get(route.getId());
+        if (cached != null && cached.expiresAtMillis > now) {
+            return cached.geometry;
+        }
+        RouteGeometry geometry = RouteGeometry.of(segRepo.findByRouteIdOrderBySegmentIndex(route.getId()));
+        cache.put(route.getId(), new CachedGeometry(geometry, expiryFor(route, now)));
+        return geometry;
+    }
+
+    public void evict(UUID routeId) {
+        cache.remove(routeId);
+    }
+
+    // Keep entries for the bidding window (plus grace for closing/automation), at least the grace period
+    private long expiryFor(ReturnRoute route, long now) {
+        long minimum = now + grace.toMillis();
+        if (route.getDepartureTime() == null) {
+            return minimum;
+        }
+        ZonedDateTime biddingEnd = route.getDepartureTime().minus(BIDDING_CLOSES_BEFORE_DEPARTURE);
+        return Math.max(minimum, biddingEnd.toInstant().toEpochMilli() + grace.toMillis());
+    }
+
+    @Scheduled(fixedRate = 600000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        int before = cache.size();
+        cache.values().removeIf(c -> c.expiresAtMillis <= now);
+        if (cache.size() != before) {
+            log.debug("Evicted {} expired route geometries, {} cached", before - cache.size(), cache.size());
+        }
+    }
+
+    private record CachedGeometry(RouteGeometry geometry, long expiresAtMillis) {
+    }
+
+    /**
+     * Immutable segment arrays of one route. cumulativeKm[i] is the distance from the route start
+     * to the start of segment i, so cumulativeKm has one more entry than there are segments.
+     */
+    public static final class RouteGeometry {
+        private final double[] startLat;
+        private final double[] startLng;
+        private final double[] endLat;
+        private final double[] endLng;
+        private final double[] cumulativeKm;
+
+        private RouteGeometry(double[] startLat, double[] startLng, double[] endLat, double[] endLng, double[] cumulativeKm) {
+            this.startLat = startLat;
+            this.startLng = startLng;
+            this.endLat = endLat;
+            this.endLng = endLng;
+            this.cumulativeKm = cumulativeKm;
+        }
+
+        static RouteGeometry of(List<RouteSegment> segments) {
+            if (segments.isEmpty()) {
+                return null;
+            }
+            int n = segments.size();
+            double[] startLat = new double[n];
+            double[] startLng = new double[n];
+            double[] endLat = new double[n];
+            double[] endLng = new double[n];
+            double[] cumulativeKm = new double[n + 1];
+            for (int i = 0; i < n; i++) {
+                RouteSegment segment = segments.get(i);
+                startLat[i] = segment.getStartLat().doubleValue();
+                startLng[i] = segment.getStartLng().doubleValue();
+                endLat[i] = segment.getEndLat().doubleValue();
+                endLng[i] = segment.getEndLng().doubleValue();
+                // Older segments may lack a stored distance; fall back to the straight line
+                double km = segment.getDistanceKm() != null
+                    ? segment.getDistanceKm().doubleValue()
+                    : GeoUtils.haversineKm(startLat[i], startLng[i], endLat[i], endLng[i]);
+                cumulativeKm[i + 1] = cumulativeKm[i] + km;
+            }
+            return new RouteGeometry(startLat, startLng, endLat, endLng, cumulativeKm);
+        }
+
+        public int segmentCount() {
+            return startLat.length;
+        }
+
+        public double totalKm() {
+            return cumulativeKm[cumulativeKm.length - 1];
+        }
+
+        /**
+         * Route distance covered from the start of segment from to the end of segment to (inclusive)
+         */
+        public double distanceKm(int from, int to) {
+            int a = clamp(Math.min(from, to));
+            int b = clamp(Math.max(from, to));
+            return cumulativeKm[b + 1] - cumulativeKm[a];
+        }
+
+        /**
+         * Straight-line distance from a point to the given segment
+         */
+        public double distanceToSegmentKm(double lat, double lng, int segment) {
+            int i = clamp(segment);
+            return GeoUtils.pointToSegmentKm(lat, lng, startLat[i], startLng[i], endLat[i], endLng[i]);
+        }
+
+        /**
+         * Route distance from the start to the point's projection onto the given segment
+         */
+        public double positionKm(double lat, double lng, int segment) {
+            int i = clamp(segment);
+            double t = GeoUtils.projectOntoSegment(lat, lng, startLat[i], startLng[i], endLat[i], endLng[i]);
+            return cumulativeKm[i] + t * (cumulativeKm[i + 1] - cumulativeKm[i]);
+        }
+
+        /**
+         * Segment closest to the point, scanning the whole route
+         */
+        public int nearestSegment(double lat, double lng) {
+            int nearest = 0;
+            double best = Double.MAX_VALUE;
+            for (int i = 0; i < startLat.length; i++) {
+                double km = distanceToSegmentKm(lat, lng, i);
+                if (km < best) {
+                    best = km;
+                    nearest = i;
+                }
+            }
+            return nearest;
+        }
+
+        private int clamp(int segment) {
+            return Math.max(0, Math.min(segment, startLat.length - 1));
+        }
+    }
+}
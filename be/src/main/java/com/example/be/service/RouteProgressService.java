@@ -0,0 +1,201 @@
+package com.example.be.service;
+
+import com.example.be.model.ReturnRoute;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live progress of deliveries along their driver's route: current segment, distance left to the
+ * dropoff, an ETA and whether the driver is off the route.
+ *
+ * A delivery is registered when its details are loaded, which already has the route and parcel in
+ * hand; from then on every stored fix is snapped onto the route's segments in memory. Snapping starts
+ * at the segment of the previous fix and only looks a few segments ahead, so a fix costs O(1); the
+ * whole route is scanned only while the driver is off it, to pick the route up again wherever they
+ * rejoin. Speed is a moving average of progress along the route, so the ETA needs no Maps API call.
+ */
+@Slf4j
+@Service
+public class RouteProgressService {
+
+    // Segments checked ahead of (and one behind) the current one for each fix
+    private static final int LOOKAHEAD_SEGMENTS = 3;
+    // Weight of the newest speed sample in the moving average
+    private static final double SPEED_SMOOTHING = 0.3;
+    // Shorter intervals give speed samples dominated by GPS noise
+    private static final long MIN_SPEED_SAMPLE_MS = 5_000;
+
+    private final RouteGeometryService routeGeometryService;
+    private final double minDeviationKm;
+    private final double defaultSpeedKmh;
+    private final long evictAfterMillis;
+    private final Map<UUID, Progress> progress = new ConcurrentHashMap<>();
+
+    public RouteProgressService(RouteGeometryService routeGeometryService,
+                                LocationIngestBuffer locationIngestBuffer,
+                                @Value("${tracking.progress.min-deviation-km:0.3}") double minDeviationKm,
+                                @Value("${tracking.progress.default-speed-kmh:40}") double defaultSpeedKmh,
+                                @Value("${tracking.progress.evict-after-minutes:120}") long evictAfterMinutes) {
+        this.routeGeometryService = routeGeometryService;
+        this.minDeviationKm = minDeviationKm;
+        this.defaultSpeedKmh = defaultSpeedKmh;
+        this.evictAfterMillis = Duration.ofMinutes(evictAfterMinutes).toMillis();
+        locationIngestBuffer.addStoredListener(this::fixesStored);
+    }
+
+    /**
+     * Point-in-time view of a delivery's progress
+     */
+    public record Snapshot(int segmentIndex, int segmentCount, double distanceRemainingKm, boolean offRoute,
+                           double distanceFromRouteKm, ZonedDateTime estimatedArrival, ZonedDateTime updatedAt) {
+    }
+
+    /**
+     * Progress of the delivery, registering it first if needed. Call with the route and dropoff loaded;
+     * the latest known fix seeds a new registration. Empty if the route has no segments or no fix has
+     * been seen yet.
+     */
+    public Optional<Snapshot> getProgress(UUID deliveryTrackingId, ReturnRoute route, BigDecimal dropoffLat,
+                                          BigDecimal dropoffLng, LocationIngestBuffer.Fix latestFix) {
+        Progress state = progress.get(deliveryTrackingId);
+        if (state == null) {
+            RouteGeometryService.RouteGeometry geometry = routeGeometryService.getGeometry(route);
+            if (geometry == null) {
+                return Optional.empty();
+            }
+            double toleranceKm = route.getDetourToleranceKm() != null ? route.getDetourToleranceKm().doubleValue() : 0;
+            double targetKm = dropoffLat != null && dropoffLng != null
+                    ? positionOf(geometry, dropoffLat.doubleValue(), dropoffLng.doubleValue())
+                    : geometry.totalKm();
+            state = progress.computeIfAbsent(deliveryTrackingId,
+                    id -> new Progress(geometry, Math.max(toleranceKm, minDeviationKm), targetKm));
+        }
+        if (latestFix != null) {
+            state.advance(latestFix);
+        }
+        return Optional.ofNullable(state.snapshot(defaultSpeedKmh));
+    }
+
+    /**
+     * Stop tracking a delivery, e.g. once it is delivered
+     */
+    public void remove(UUID deliveryTrackingId) {
+        progress.remove(deliveryTrackingId);
+    }
+
+    public int size() {
+        return progress.size();
+    }
+
+    @Scheduled(fixedRateString = "${tracking.progress.evict-interval-ms:300000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - evictAfterMillis;
+        progress.values().removeIf(state -> state.touchedAt < cutoff);
+    }
+
+    private void fixesStored(List<LocationIngestBuffer.Fix> fixes) {
+        for (LocationIngestBuffer.Fix fix : fixes) {
+            Progress state = progress.get(fix.deliveryTrackingId());
+            if (state != null) {
+                state.advance(fix);
+            }
+        }
+    }
+
+    private static double positionOf(RouteGeometryService.RouteGeometry geometry, double lat, double lng) {
+        return geometry.positionKm(lat, lng, geometry.nearestSegment(lat, lng));
+    }
+
+    /**
+     * Segment cursor and speed estimate of one delivery
+     */
+    private static final class Progress {
+        private final RouteGeometryService.RouteGeometry geometry;
+        private final double deviationKm;
+        private final double targetKm;
+        private int segment;
+        private double positionKm;
+        private double distanceFromRouteKm;
+        private double speedKmh = Double.NaN;
+        private ZonedDateTime lastFixAt;
+        private long lastSampleMs;
+        private double lastSampleKm;
+        private volatile long touchedAt = System.currentTimeMillis();
+
+        Progress(RouteGeometryService.RouteGeometry geometry, double deviationKm, double targetKm) {
+            this.geometry = geometry;
+            this.deviationKm = deviationKm;
+            this.targetKm = targetKm;
+        }
+
+        synchronized void advance(LocationIngestBuffer.Fix fix) {
+            touchedAt = System.currentTimeMillis();
+            if (lastFixAt != null && !fix.recordedAt().isAfter(lastFixAt)) {
+                return;
+            }
+            double lat = fix.latitude().doubleValue();
+            double lng = fix.longitude().doubleValue();
+            boolean first = lastFixAt == null;
+            int best = first ? geometry.nearestSegment(lat, lng) : segment;
+            double bestKm = geometry.distanceToSegmentKm(lat, lng, best);
+            if (!first) {
+                int last = Math.min(segment + LOOKAHEAD_SEGMENTS, geometry.segmentCount() - 1);
+                for (int i = Math.max(segment - 1, 0); i <= last; i++) {
+                    double km = geometry.distanceToSegmentKm(lat, lng, i);
+                    if (km < bestKm) {
+                        bestKm = km;
+                        best = i;
+                    }
+                }
+                if (bestKm > deviationKm) {
+                    // Off the route near the cursor: the driver may have rejoined it further along
+                    int nearest = geometry.nearestSegment(lat, lng);
+                    double nearestKm = geometry.distanceToSegmentKm(lat, lng, nearest);
+                    if (nearestKm < bestKm) {
+                        bestKm = nearestKm;
+                        best = nearest;
+                    }
+                }
+            }
+            segment = best;
+            distanceFromRouteKm = bestKm;
+            positionKm = geometry.positionKm(lat, lng, best);
+            lastFixAt = fix.recordedAt();
+
+            long nowMs = fix.recordedAt().toInstant().toEpochMilli();
+            if (first) {
+                lastSampleMs = nowMs;
+                lastSampleKm = positionKm;
+            } else if (nowMs - lastSampleMs >= MIN_SPEED_SAMPLE_MS) {
+                double sample = Math.max(positionKm - lastSampleKm, 0) / ((nowMs - lastSampleMs) / 3_600_000.0);
+                speedKmh = Double.isNaN(speedKmh) ? sample : SPEED_SMOOTHING * sample + (1 - SPEED_SMOOTHING) * speedKmh;
+                lastSampleMs = nowMs;
+                lastSampleKm = positionKm;
+            }
+        }
+
+        synchronized Snapshot snapshot(double defaultSpeedKmh) {
+            if (lastFixAt == null) {
+                return null;
+            }
+            touchedAt = System.currentTimeMillis();
+            double remainingKm = Math.max(targetKm - positionKm, 0);
+            // A stopped driver would give an infinite ETA; fall back to the typical speed instead
+            double speed = Double.isNaN(speedKmh) || speedKmh < 1 ? defaultSpeedKmh : speedKmh;
+            ZonedDateTime eta = lastFixAt.plusSeconds(Math.round(remainingKm / speed * 3600));
+            return new Snapshot(segment, geometry.segmentCount(), remainingKm, distanceFromRouteKm > deviationKm,
+                    distanceFromRouteKm, eta, lastFixAt);
+        }
+    }
+}
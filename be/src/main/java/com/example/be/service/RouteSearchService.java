@@ -0,0 +1,471 @@
+package com.example.be.service;
+
+import com.example.be.dto.RouteSearchRequestDTO;
+import com.example.be.dto.RouteSearchResponseDTO;
+import com.example.be.model.ReturnRoute;
+import com.example.be.model.RouteSegment;
+import com.example.be.repository.ReturnRouteRepository;
+import com.example.be.repository.RouteSegmentRepository;
+import com.example.be.types.RouteStatus;
+import com.example.be.util.GeoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory spatial index over the segments of OPEN/INITIATED routes.
+ *
+ * Every segment is rasterised onto a fixed lat/lng grid; a cell maps to the routes passing through it.
+ * A search only looks at the cells around the pickup and dropoff points and then does an exact
+ * point-to-segment check on the few candidate routes, so its cost does not grow with the table size.
+ * The index is loaded at startup, updated by {@link RouteService} on create/patch/delete and rebuilt
+ * periodically to pick up status changes made elsewhere (bid closing, payments, ...).
+ */
+@Slf4j
+@Service
+public class RouteSearchService {
+
+    private final ReturnRouteRepository routeRepo;
+    private final RouteSegmentRepository segRepo;
+
+    private final double cellSizeDeg;
+    private final double defaultDetourKm;
+    private final double maxDetourKm;
+    private final int maxResults;
+
+    private volatile GridIndex index;
+
+    // Non-null while a rebuild is loading; updates made meanwhile are replayed onto the new index
+    private List<Consumer<GridIndex>> pendingDuringRebuild;
+
+    public RouteSearchService(ReturnRouteRepository routeRepo,
+                              RouteSegmentRepository segRepo,
+                              @Value("${route.search.cell-size-deg:0.05}") double cellSizeDeg,
+                              @Value("${route.search.default-detour-km:5.0}") double defaultDetourKm,
+                              @Value("${route.search.max-detour-km:100.0}") double maxDetourKm,
+                              @Value("${route.search.max-results:50}") int maxResults) {
+        this.routeRepo = routeRepo;
+        this.segRepo = segRepo;
+        this.cellSizeDeg = cellSizeDeg;
+        this.defaultDetourKm = defaultDetourKm;
+        this.maxDetourKm = maxDetourKm;
+        this.maxResults = maxResults;
+        this.index = new GridIndex(cellSizeDeg);
+    }
+
+    private static void requireValidPoint(double lat, double lng, String name) {
+        if (!Double.isFinite(lat) || lat < -90 || lat > 90) {
+            throw new IllegalArgumentException(name + " latitude must be between -90 and 90");
+        }
+        if (!Double.isFinite(lng) || lng < -180 || lng > 180) {
+            throw new IllegalArgumentException(name + " longitude must be between -180 and 180");
+        }
+    }
+
+    /**
+     * Find searchable routes passing near both the pickup and dropoff points, in that order
+     */
+    public List<RouteSearchResponseDTO> search(RouteSearchRequestDTO request) {
+        if (request.getPickupLat() == null || request.getPickupLng() == null
+                || request.getDropoffLat() == null || request.getDropoffLng() == null) {
+            throw new IllegalArgumentException("Pickup and dropoff coordinates are required");
+        }
+        double detourKm = request.getMaxDetourKm() != null ? request.getMaxDetourKm().doubleValue() : defaultDetourKm;
+        if (!(detourKm > 0)) {
+            throw new IllegalArgumentException("maxDetourKm must be positive");
+        }
+        // The grid scan covers the whole detour radius, so an unbounded value would scan millions of cells
+        if (detourKm > maxDetourKm) {
+            throw new IllegalArgumentException("maxDetourKm must not exceed " + maxDetourKm);
+        }
+        int limit = request.getLimit() != null && request.getLimit() > 0
+                ? Math.min(request.getLimit(), maxResults) : maxResults;
+
+        double pLat = request.getPickupLat().doubleValue();
+        double pLng = request.getPickupLng().doubleValue();
+        double dLat = request.getDropoffLat().doubleValue();
+        double dLng = request.getDropoffLng().doubleValue();
+        // Out-of-range coordinates would push the cell indices to the int limits and the scan would never end
+        requireValidPoint(pLat, pLng, "pickup");
+        requireValidPoint(dLat, dLng, "dropoff");
+
+        GridIndex idx = index;
+        Set<UUID> nearPickup = idx.routesNear(pLat, pLng, detourKm);
+        if (nearPickup.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (UUID routeId : idx.routesNear(dLat, dLng, detourKm)) {
+            if (!nearPickup.contains(routeId)) {
+                continue;
+            }
+            IndexedRoute route = idx.routes.get(routeId);
+            if (route == null || !isSearchable(route.status)
+                    || !inWindow(route.departureTime, request.getDepartureFrom(), request.getDepartureTo())) {
+                continue;
+            }
+
+            // The driver's own tolerance caps the customer's one when it is set
+            double tolerance = route.detourToleranceKm > 0 ? Math.min(detourKm, route.detourToleranceKm) : detourKm;
+
+            int pickupIdx = route.nearestSegment(pLat, pLng);
+            double pickupDist = route.distanceToSegment(pickupIdx, pLat, pLng);
+            if (pickupDist > tolerance) {
+                continue;
+            }
+            int dropoffIdx = route.nearestSegment(dLat, dLng);
+            double dropoffDist = route.distanceToSegment(dropoffIdx, dLat, dLng);
+            if (dropoffDist > tolerance || dropoffIdx < pickupIdx) {
+                continue;
+            }
+            matches.add(new Match(route, pickupIdx, pickupDist, dropoffIdx, dropoffDist));
+        }
+
+        matches.sort(Comparator.comparingDouble(m -> m.pickupDist + m.dropoffDist));
+
+        List<RouteSearchResponseDTO> results = new ArrayList<>();
+        for (Match match : matches) {
+            if (results.size() >= limit) {
+                break;
+            }
+            results.add(toDto(match));
+        }
+        return results;
+    }
+
+    /**
+     * Index (or re-index) a route with its segments. Applied after the surrounding transaction commits.
+     */
+    public void indexRoute(ReturnRoute route, List<RouteSegment> segments) {
+        if (route == null || route.getId() == null) {
+            return;
+        }
+        if (!isSearchable(route.getStatus())) {
+            removeRoute(route.getId());
+            return;
+        }
+        IndexedRoute entry = IndexedRoute.of(route, segments);
+        afterCommit(() -> apply(idx -> idx.put(entry)));
+    }
+
+    /**
+     * Refresh route metadata (status, departure time, tolerance) after a patch.
+     * Segment geometry is reused from the index when present and loaded otherwise.
+     */
+    public void refreshRoute(ReturnRoute route) {
+        if (route == null || route.getId() == null) {
+            return;
+        }
+        if (!isSearchable(route.getStatus())) {
+            removeRoute(route.getId());
+            return;
+        }
+        IndexedRoute existing = index.routes.get(route.getId());
+        IndexedRoute entry = existing != null
+                ? existing.withMetadata(route)
+                : IndexedRoute.of(route, segRepo.findByRouteIdOrderBySegmentIndex(route.getId()));
+        afterCommit(() -> apply(idx -> idx.put(entry)));
+    }
+
+    public void removeRoute(UUID routeId) {
+        afterCommit(() -> apply(idx -> idx.remove(routeId)));
+    }
+
+    public int getIndexedRouteCount() {
+        return index.routes.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexOnStartup() {
+        rebuildIndex();
+    }
+
+    /**
+     * Full rebuild from the database, as a safety net for status changes that bypass RouteService
+     */
+    @Scheduled(fixedDelayString = "${route.search.rebuild-interval-ms:600000}",
+               initialDelayString = "${route.search.rebuild-interval-ms:600000}")
+    public void rebuildIndex() {
+        synchronized (this) {
+            if (pendingDuringRebuild != null) {
+                log.info("Route search index rebuild already in progress");
+                return;
+            }
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        GridIndex fresh = new GridIndex(cellSizeDeg);
+        try {
+            long start = System.currentTimeMillis();
+            List<ReturnRoute> routes = routeRepo.findSearchableRoutes();
+            Map<UUID, List<RouteSegment>> segmentsByRoute = new HashMap<>();
+            for (RouteSegment segment : segRepo.findSegmentsOfSearchableRoutes()) {
+                segmentsByRoute.computeIfAbsent(segment.getRoute().getId(), k -> new ArrayList<>()).add(segment);
+            }
+            for (ReturnRoute route : routes) {
+                fresh.put(IndexedRoute.of(route, segmentsByRoute.getOrDefault(route.getId(), List.of())));
+            }
+            log.info("Route search index rebuilt with {} routes in {} ms",
+                    fresh.routes.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to rebuild route search index, keeping the current one: ", e);
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+            return;
+        }
+
+        synchronized (this) {
+            // Replay updates that raced with the load so they are not lost by the swap
+            for (Consumer<GridIndex> pending : pendingDuringRebuild) {
+                pending.accept(fresh);
+            }
+            pendingDuringRebuild = null;
+            index = fresh;
+        }
+    }
+
+    private synchronized void apply(Consumer<GridIndex> op) {
+        op.accept(index);
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(op);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static boolean isSearchable(RouteStatus status) {
+        return status == RouteStatus.OPEN || status == RouteStatus.INITIATED;
+    }
+
+    private static boolean inWindow(ZonedDateTime departure, ZonedDateTime from, ZonedDateTime to) {
+        if (departure == null) {
+            return from == null && to == null;
+        }
+        return (from == null || !departure.isBefore(from)) && (to == null || !departure.isAfter(to));
+    }
+
+    private RouteSearchResponseDTO toDto(Match match) {
+        IndexedRoute route = match.route;
+        RouteSearchResponseDTO dto = new RouteSearchResponseDTO();
+        dto.setRouteId(route.routeId);
+        dto.setDriverId(route.driverId);
+        dto.setStatus(route.status.name());
+        dto.setDepartureTime(route.departureTime);
+        dto.setDetourToleranceKm(BigDecimal.valueOf(route.detourToleranceKm));
+        dto.setPickupSegmentIndex(route.segmentIndexes[match.pickupIdx]);
+        dto.setDropoffSegmentIndex(route.segmentIndexes[match.dropoffIdx]);
+        dto.setPickupDistanceKm(BigDecimal.valueOf(match.pickupDist).setScale(2, RoundingMode.HALF_UP));
+        dto.setDropoffDistanceKm(BigDecimal.valueOf(match.dropoffDist).setScale(2, RoundingMode.HALF_UP));
+        return dto;
+    }
+
+    private record Match(IndexedRoute route, int pickupIdx, double pickupDist, int dropoffIdx, double dropoffDist) {
+    }
+
+    /**
+     * Uniform lat/lng grid: cell key -> ids of routes with at least one segment crossing the cell
+     */
+    private static final class GridIndex {
+        private final double cellSizeDeg;
+        private final ConcurrentHashMap<UUID, IndexedRoute> routes = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+
+        GridIndex(double cellSizeDeg) {
+            this.cellSizeDeg = cellSizeDeg;
+        }
+
+        void put(IndexedRoute route) {
+            remove(route.routeId);
+            long[] keys = rasterise(route);
+            IndexedRoute stored = route.withCells(keys);
+            routes.put(route.routeId, stored);
+            for (long key : keys) {
+                cells.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(route.routeId);
+            }
+        }
+
+        void remove(UUID routeId) {
+            IndexedRoute previous = routes.remove(routeId);
+            if (previous == null || previous.cells == null) {
+                return;
+            }
+            for (long key : previous.cells) {
+                cells.computeIfPresent(key, (k, ids) -> {
+                    ids.remove(routeId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+
+        Set<UUID> routesNear(double lat, double lng, double radiusKm) {
+            double dLat = GeoUtils.kmToLatDegrees(radiusKm);
+            double dLng = GeoUtils.kmToLngDegrees(radiusKm, lat);
+            int minLat = cellIndex(lat - dLat);
+            int maxLat = cellIndex(lat + dLat);
+            int minLng = cellIndex(lng - dLng);
+            int maxLng = cellIndex(lng + dLng);
+
+            Set<UUID> found = new HashSet<>();
+            for (int i = minLat; i <= maxLat; i++) {
+                for (int j = minLng; j <= maxLng; j++) {
+                    Set<UUID> ids = cells.get(key(i, j));
+                    if (ids != null) {
+                        found.addAll(ids);
+                    }
+                }
+            }
+            return found;
+        }
+
+        private long[] rasterise(IndexedRoute route) {
+            Set<Long> keys = new HashSet<>();
+            for (int s = 0; s < route.startLat.length; s++) {
+                double aLat = route.startLat[s], aLng = route.startLng[s];
+                double bLat = route.endLat[s], bLng = route.endLng[s];
+                // Step at half the (narrower) cell width so no crossed cell is skipped
+                double stepKm = cellSizeDeg * GeoUtils.KM_PER_DEGREE_LAT
+                        * Math.max(Math.cos(Math.toRadians(aLat)), 0.01) / 2;
+                int steps = Math.max(1, (int) Math.ceil(GeoUtils.haversineKm(aLat, aLng, bLat, bLng) / stepKm));
+                for (int k = 0; k <= steps; k++) {
+                    double t = (double) k / steps;
+                    keys.add(key(cellIndex(aLat + t * (bLat - aLat)), cellIndex(aLng + t * (bLng - aLng))));
+                }
+            }
+            long[] result = new long[keys.size()];
+            int i = 0;
+            for (Long key : keys) {
+                result[i++] = key;
+            }
+            return result;
+        }
+
+        private int cellIndex(double degrees) {
+            return (int) Math.floor(degrees / cellSizeDeg);
+        }
+
+        private static long key(int latIdx, int lngIdx) {
+            return ((long) latIdx << 32) | (lngIdx & 0xffffffffL);
+        }
+    }
+
+    /**
+     * Immutable snapshot of the route fields the search needs, with segment geometry as primitive arrays
+     */
+    private static final class IndexedRoute {
+        final UUID routeId;
+        final UUID driverId;
+        final RouteStatus status;
+        final ZonedDateTime departureTime;
+        final double detourToleranceKm;
+        final int[] segmentIndexes;
+        final double[] startLat, startLng, endLat, endLng;
+        final long[] cells;
+
+        private IndexedRoute(UUID routeId, UUID driverId, RouteStatus status, ZonedDateTime departureTime,
+                             double detourToleranceKm, int[] segmentIndexes,
+                             double[] startLat, double[] startLng, double[] endLat, double[] endLng, long[] cells) {
+            this.routeId = routeId;
+            this.driverId = driverId;
+            this.status = status;
+            this.departureTime = departureTime;
+            this.detourToleranceKm = detourToleranceKm;
+            this.segmentIndexes = segmentIndexes;
+            this.startLat = startLat;
+            this.startLng = startLng;
+            this.endLat = endLat;
+            this.endLng = endLng;
+            this.cells = cells;
+        }
+
+        static IndexedRoute of(ReturnRoute route, List<RouteSegment> segments) {
+            int n = segments.isEmpty() ? 1 : segments.size();
+            int[] indexes = new int[n];
+            double[] sLat = new double[n], sLng = new double[n], eLat = new double[n], eLng = new double[n];
+            if (segments.isEmpty()) {
+                // No segments yet: fall back to the straight origin -> destination line
+                sLat[0] = route.getOriginLat().doubleValue();
+                sLng[0] = route.getOriginLng().doubleValue();
+                eLat[0] = route.getDestinationLat().doubleValue();
+                eLng[0] = route.getDestinationLng().doubleValue();
+            } else {
+                List<RouteSegment> ordered = new ArrayList<>(segments);
+                ordered.sort(Comparator.comparing(RouteSegment::getSegmentIndex));
+                for (int i = 0; i < n; i++) {
+                    RouteSegment s = ordered.get(i);
+                    indexes[i] = s.getSegmentIndex();
+                    sLat[i] = s.getStartLat().doubleValue();
+                    sLng[i] = s.getStartLng().doubleValue();
+                    eLat[i] = s.getEndLat().doubleValue();
+                    eLng[i] = s.getEndLng().doubleValue();
+                }
+            }
+            return new IndexedRoute(route.getId(),
+                    route.getDriver() != null ? route.getDriver().getId() : null,
+                    route.getStatus(), route.getDepartureTime(),
+                    route.getDetourToleranceKm() != null ? route.getDetourToleranceKm().doubleValue() : 0,
+                    indexes, sLat, sLng, eLat, eLng, null);
+        }
+
+        IndexedRoute withMetadata(ReturnRoute route) {
+            return new IndexedRoute(routeId,
+                    route.getDriver() != null ? route.getDriver().getId() : driverId,
+                    route.getStatus(), route.getDepartureTime(),
+                    route.getDetourToleranceKm() != null ? route.getDetourToleranceKm().doubleValue() : 0,
+                    segmentIndexes, startLat, startLng, endLat, endLng, null);
+        }
+
+        IndexedRoute withCells(long[] cells) {
+            return new IndexedRoute(routeId, driverId, status, departureTime, detourToleranceKm,
+                    segmentIndexes, startLat, startLng, endLat, endLng, cells);
+        }
+
+        int nearestSegment(double lat, double lng) {
+            int best = 0;
+            double bestDist = Double.MAX_VALUE;
+            for (int i = 0; i < startLat.length; i++) {
+                double d = distanceToSegment(i, lat, lng);
+                if (d < bestDist) {
+                    bestDist = d;
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        double distanceToSegment(int i, double lat, double lng) {
+            return GeoUtils.pointToSegmentKm(lat, lng, startLat[i], startLng[i], endLat[i], endLng[i]);
+        }
+    }
+}
@@ -43,6 +43,11 @@ public class RouteService {
     private final ProfileRepository profileRepo;
     private final com.example.be.service.ParcelRequestService parcelRequestService;
     private final com.example.be.service.BidService bidService;
+    private final RouteSearchService routeSearchService;
+    private final RouteEnrichmentService routeEnrichmentService;
+    private final GeocodeCacheService geocodeCache;
+    private final RouteGeometryService routeGeometryService;
+    private final BidDeadlineScheduler bidDeadlineScheduler;
 
     @Transactional
     public UUID createRoute(CreateRouteDto dto) throws Exception {
@@ -84,9 +89,9 @@ public class RouteService {
         log.info("Route created with ID: {}", routeId);
 
         // 3) Create route segments using provided segments data or fallback to automatic generation
+        List<RouteSegment> segments = new ArrayList<>();
         try {
-            List<RouteSegment> segments = new ArrayList<>();
-            
+
             if (dto.getSegments() != null && !dto.getSegments().isEmpty()) {
                 // Use segments provided from frontend (with town names from Google Maps)
                 log.info("Creating {} segments from frontend data", dto.getSegments().size());
@@ -162,15 +167,36 @@ public class RouteService {
             log.error("Error creating route segments for route {}: {}", routeId, e.getMessage());
             // Don't fail the entire route creation if segment generation fails
             // The route is still valid without segments initially
+            segments = new ArrayList<>();
         }
+
+        // 4) Make the route visible to customer search
+        ReturnRoute indexed = new ReturnRoute();
+        indexed.setId(routeId);
+        com.example.be.model.Profile driver = new com.example.be.model.Profile();
+        driver.setId(dto.getDriverId());
+        indexed.setDriver(driver);
+        indexed.setOriginLat(dto.getOriginLat());
+        indexed.setOriginLng(dto.getOriginLng());
+        indexed.setDestinationLat(dto.getDestinationLat());
+        indexed.setDestinationLng(dto.getDestinationLng());
+        indexed.setDepartureTime(dto.getDepartureTime());
+        indexed.setDetourToleranceKm(dto.getDetourToleranceKm());
+        indexed.setStatus(RouteStatus.INITIATED);
+        routeSearchService.indexRoute(indexed, segments);
+        bidDeadlineScheduler.track(routeId, dto.getDepartureTime(), dto.getBiddingStartTime());
+
+        // 5) Resolve origin/destination/segment names in the background, once
+        routeEnrichmentService.enrichAsync(routeId);
         
         return routeId;
     }
     
     /**
      * Calculate distance between two points using Haversine formula
+     * (package-private and static so the jmh benchmarks can call it)
      */
-    private double calculateDistance(LatLng point1, LatLng point2) {
+    static double calculateDistance(LatLng point1, LatLng point2) {
         final int R = 6371; // Radius of the earth in km
         
         double latDistance = Math.toRadians(point2.getLat() - point1.getLat());
@@ -256,6 +282,21 @@ public class RouteService {
         
         List<ReturnRoute> routes = getRoutesByDriver(driverId, status);
         List<com.example.be.dto.MyRouteDto> myRoutes = new ArrayList<>();
+        if (routes.isEmpty()) {
+            return myRoutes;
+        }
+        
+        // Bid count and highest bid for every route in one grouped query
+        Map<UUID, com.example.be.dto.RouteBidStatsDto> bidStats;
+        try {
+            bidStats = bidService.getBidStatsByDriver(driverId);
+        } catch (Exception e) {
+            log.warn("Could not fetch bid information for driver {}: {}", driverId, e.getMessage());
+            bidStats = Map.of();
+        }
+        
+        // Routes created before names were stored: resolve all their endpoints in one parallel batch
+        Map<String, String> resolvedNames = resolveMissingLocationNames(routes);
         
         for (ReturnRoute route : routes) {
             com.example.be.dto.MyRouteDto myRoute = new com.example.be.dto.MyRouteDto();
@@ -276,32 +317,16 @@ public class RouteService {
             myRoute.setTotalDistanceKm(route.getTotalDistanceKm());
             myRoute.setEstimatedDurationMinutes(route.getEstimatedDurationMinutes());
             
-            // Resolve location names from coordinates
-            try {
-                myRoute.setOriginLocationName(getLocationName(route.getOriginLat(), route.getOriginLng()));
-                myRoute.setDestinationLocationName(getLocationName(route.getDestinationLat(), route.getDestinationLng()));
-            } catch (Exception e) {
-                log.warn("Could not resolve location names for route {}: {}", route.getId(), e.getMessage());
-                myRoute.setOriginLocationName("Unknown Location");
-                myRoute.setDestinationLocationName("Unknown Location");
-            }
+            // Location names are stored at creation time by RouteEnrichmentService
+            myRoute.setOriginLocationName(pickLocationName(route.getOriginLocationName(),
+                route.getOriginLat(), route.getOriginLng(), resolvedNames));
+            myRoute.setDestinationLocationName(pickLocationName(route.getDestinationLocationName(),
+                route.getDestinationLat(), route.getDestinationLng(), resolvedNames));
             
-            // Get bid information
-            try {
-                List<com.example.be.dto.BidDto> bids = bidService.getBidsByRouteIdAndStatus(route.getId(), null);
-                myRoute.setTotalBidsCount(bids.size());
-                
-                // Find highest bid amount
-                BigDecimal highestBid = bids.stream()
-                    .map(com.example.be.dto.BidDto::getOfferedPrice)
-                    .max(BigDecimal::compareTo)
-                    .orElse(BigDecimal.ZERO);
-                myRoute.setHighestBidAmount(highestBid);
-            } catch (Exception e) {
-                log.warn("Could not fetch bid information for route {}: {}", route.getId(), e.getMessage());
-                myRoute.setTotalBidsCount(0);
-                myRoute.setHighestBidAmount(BigDecimal.ZERO);
-            }
+            // Bid information
+            com.example.be.dto.RouteBidStatsDto stats = bidStats.get(route.getId());
+            myRoute.setTotalBidsCount(stats != null ? stats.getTotalBids() : 0);
+            myRoute.setHighestBidAmount(stats != null ? stats.getHighestBid() : BigDecimal.ZERO);
             
             // Calculate countdown to bidding end (bidding ends 2 hours before departure)
             if (route.getDepartureTime() != null) {
@@ -330,6 +355,64 @@ public class RouteService {
         return myRoutes;
     }
 
+    /**
+     * Batch-resolve origin/destination names the given routes do not have stored yet, queueing those
+     * routes for enrichment. Keyed by geocode cache cell; see {@link #pickLocationName}.
+     */
+    private Map<String, String> resolveMissingLocationNames(List<ReturnRoute> routes) {
+        List<double[]> points = new ArrayList<>();
+        for (ReturnRoute route : routes) {
+            boolean missing = false;
+            if (RouteEnrichmentService.isPlaceholder(route.getOriginLocationName()) && route.getOriginLat() != null && route.getOriginLng() != null) {
+                points.add(new double[]{route.getOriginLat().doubleValue(), route.getOriginLng().doubleValue()});
+                missing = true;
+            }
+            if (RouteEnrichmentService.isPlaceholder(route.getDestinationLocationName()) && route.getDestinationLat() != null && route.getDestinationLng() != null) {
+                points.add(new double[]{route.getDestinationLat().doubleValue(), route.getDestinationLng().doubleValue()});
+                missing = true;
+            }
+            if (missing) {
+                routeEnrichmentService.enrichAsync(route.getId());
+            }
+        }
+        if (points.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return maps.getLocalityNames(points);
+        } catch (Exception e) {
+            log.warn("Could not resolve location names for {} points: {}", points.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private String pickLocationName(String storedName, BigDecimal lat, BigDecimal lng, Map<String, String> resolvedNames) {
+        if (!RouteEnrichmentService.isPlaceholder(storedName)) {
+            return storedName;
+        }
+        if (lat == null || lng == null) {
+            return "Unknown Location";
+        }
+        return resolvedNames.getOrDefault(geocodeCache.cellKey(lat.doubleValue(), lng.doubleValue()), "Unknown Location");
+    }
+
+    /**
+     * Use the name stored on the route; routes created before enrichment existed are queued for it
+     * and resolved through the geocode cache this one time
+     */
+    private String getStoredLocationName(ReturnRoute route, String storedName, BigDecimal lat, BigDecimal lng) {
+        if (!RouteEnrichmentService.isPlaceholder(storedName)) {
+            return storedName;
+        }
+        routeEnrichmentService.enrichAsync(route.getId());
+        try {
+            return getLocationName(lat, lng);
+        } catch (Exception e) {
+            log.warn("Could not resolve location name for route {}: {}", route.getId(), e.getMessage());
+            return "Unknown Location";
+        }
+    }
+
     /**
      * Helper method to get location name from coordinates
      */
@@ -338,24 +421,9 @@ public class RouteService {
             return "Unknown Location";
         }
         
-        com.google.maps.model.LatLng latLng = new com.google.maps.model.LatLng(
-            lat.doubleValue(), lng.doubleValue()
-        );
-        
-        com.google.maps.model.GeocodingResult[] results = maps.reverseGeocode(latLng);
-        
-        if (results != null && results.length > 0) {
-            // Look for locality (city/town) in the address components
-            for (com.google.maps.model.AddressComponent component : results[0].addressComponents) {
-                for (com.google.maps.model.AddressComponentType type : component.types) {
-                    if (type == com.google.maps.model.AddressComponentType.LOCALITY ||
-                        type == com.google.maps.model.AddressComponentType.ADMINISTRATIVE_AREA_LEVEL_2) {
-                        return component.longName;
-                    }
-                }
-            }
-            // Fallback to formatted address if no locality found
-            return results[0].formattedAddress;
+        String name = maps.getLocalityName(lat.doubleValue(), lng.doubleValue());
+        if (name != null) {
+            return name;
         }
         
         return "Unknown Location";
@@ -383,15 +451,11 @@ public class RouteService {
         response.setStatus(route.getStatus().name());
         response.setDepartureTime(route.getDepartureTime());
         
-        // Resolve location names
-        try {
-            response.setOriginLocationName(getLocationName(route.getOriginLat(), route.getOriginLng()));
-            response.setDestinationLocationName(getLocationName(route.getDestinationLat(), route.getDestinationLng()));
-        } catch (Exception e) {
-            log.warn("Could not resolve location names for route {}: {}", routeId, e.getMessage());
-            response.setOriginLocationName("Unknown Location");
-            response.setDestinationLocationName("Unknown Location");
-        }
+        // Location names are stored at creation time by RouteEnrichmentService
+        response.setOriginLocationName(getStoredLocationName(route, route.getOriginLocationName(),
+            route.getOriginLat(), route.getOriginLng()));
+        response.setDestinationLocationName(getStoredLocationName(route, route.getDestinationLocationName(),
+            route.getDestinationLat(), route.getDestinationLng()));
         
         // Calculate countdown
         if (route.getDepartureTime() != null) {
@@ -630,6 +694,8 @@ public class RouteService {
         }
         
         ReturnRoute updatedRoute = routeRepo.save(route);
+        routeSearchService.refreshRoute(updatedRoute);
+        bidDeadlineScheduler.track(routeId, updatedRoute.getDepartureTime(), updatedRoute.getBiddingStart());
         log.info("Route updated successfully with ID: {}", routeId);
         
         return updatedRoute;
@@ -689,6 +755,8 @@ public class RouteService {
         // Return the updated route
         ReturnRoute updatedRoute = routeRepo.findByIdAndDriverId(routeId, driverId)
                 .orElseThrow(() -> new RuntimeException("Failed to retrieve updated route"));
+        routeSearchService.refreshRoute(updatedRoute);
+        bidDeadlineScheduler.track(routeId, updatedRoute.getDepartureTime(), updatedRoute.getBiddingStart());
         
         log.info("Route patched successfully with ID: {} for driver: {}", routeId, driverId);
         return updatedRoute;
@@ -722,6 +790,9 @@ public class RouteService {
         
         // Delete the route
         routeRepo.delete(route);
+        routeSearchService.removeRoute(routeId);
+        routeGeometryService.evict(routeId);
+        bidDeadlineScheduler.untrack(routeId);
         log.info("Route deleted successfully with ID: {}", routeId);
     }
 
@@ -778,9 +849,9 @@ public class RouteService {
         dto.setRouteImage("https://via.placeholder.com/300x150");
         dto.setRouteTags(List.of("Heavy Cargo", "Fragile Items", "Temperature Sensitive"));
         
-        // Set default addresses (these would normally come from geocoding)
-        dto.setOriginAddress("Colombo, Sri Lanka");
-        dto.setDestinationAddress("Badulla, Sri Lanka");
+        // Addresses resolved at creation time; defaults kept for routes not yet enriched
+        dto.setOriginAddress(route.getOriginLocationName() != null ? route.getOriginLocationName() : "Colombo, Sri Lanka");
+        dto.setDestinationAddress(route.getDestinationLocationName() != null ? route.getDestinationLocationName() : "Badulla, Sri Lanka");
         
         return dto;
     }
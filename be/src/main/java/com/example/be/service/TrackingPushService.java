@@ -0,0 +1,106 @@
+package com.example.be.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes a delivery's new GPS fixes and status changes to clients subscribed to it, so customers
+ * watching a delivery no longer poll the latest-location and tracking endpoints.
+ *
+ * Fixes arrive from the stored-fix feed of {@link LocationIngestBuffer}. Only the newest fix per
+ * delivery in each stored batch is sent, since watchers only need the current position. Sending runs
+ * on its own thread so a slow client never holds up ingestion; when that thread falls behind, the
+ * oldest pending updates are discarded, as newer ones supersede them.
+ */
+@Slf4j
+@Service
+public class TrackingPushService {
+
+    private final LiveEventHub hub;
+    private final long streamTimeoutMs;
+    private final ThreadPoolExecutor sender;
+
+    public TrackingPushService(LiveEventHub hub,
+                               LocationIngestBuffer locationIngestBuffer,
+                               @Value("${tracking.push.stream-timeout-ms:1800000}") long streamTimeoutMs,
+                               @Value("${tracking.push.queue-capacity:1000}") int queueCapacity) {
+        this.hub = hub;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "tracking-push");
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.DiscardOldestPolicy());
+        locationIngestBuffer.addStoredListener(this::fixesStored);
+    }
+
+    public SseEmitter subscribe(UUID deliveryTrackingId) {
+        return hub.subscribe(topic(deliveryTrackingId), streamTimeoutMs);
+    }
+
+    /**
+     * Broadcast a delivery status change once the updating transaction commits
+     */
+    public void statusChanged(UUID deliveryTrackingId, UUID bidId, String previousStatus, String status,
+                              ZonedDateTime updatedAt) {
+        String topic = topic(deliveryTrackingId);
+        if (!hub.hasSubscribers(topic)) {
+            return;
+        }
+        Map<String, Object> event = new HashMap<>();
+        event.put("deliveryTrackingId", deliveryTrackingId.toString());
+        event.put("bidId", bidId.toString());
+        event.put("previousStatus", previousStatus);
+        event.put("status", status);
+        event.put("updatedAt", updatedAt);
+        hub.publishAfterCommit(topic, "status", event);
+    }
+
+    private void fixesStored(List<LocationIngestBuffer.Fix> fixes) {
+        Map<UUID, LocationIngestBuffer.Fix> newest = new LinkedHashMap<>();
+        for (LocationIngestBuffer.Fix fix : fixes) {
+            if (!hub.hasSubscribers(topic(fix.deliveryTrackingId()))) {
+                continue;
+            }
+            newest.merge(fix.deliveryTrackingId(), fix,
+                    (current, candidate) -> candidate.recordedAt().isAfter(current.recordedAt()) ? candidate : current);
+        }
+        for (LocationIngestBuffer.Fix fix : newest.values()) {
+            Map<String, Object> event = new HashMap<>();
+            event.put("deliveryTrackingId", fix.deliveryTrackingId().toString());
+            event.put("id", fix.id().toString());
+            event.put("latitude", fix.latitude());
+            event.put("longitude", fix.longitude());
+            event.put("recordedAt", fix.recordedAt());
+            try {
+                sender.execute(() -> hub.publish(topic(fix.deliveryTrackingId()), "location", event));
+            } catch (RejectedExecutionException e) {
+                log.debug("Tracking push is shutting down, dropping update for {}", fix.deliveryTrackingId());
+            }
+        }
+    }
+
+    private static String topic(UUID deliveryTrackingId) {
+        return "tracking:" + deliveryTrackingId;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
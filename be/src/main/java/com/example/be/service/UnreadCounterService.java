@@ -0,0 +1,160 @@
+package com.example.be.service;
+
+import com.example.be.repository.MessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-(conversation, user) unread message counters for chat badges.
+ *
+ * The counters live in conversation_unread_counts and are changed in the same transaction as the
+ * message insert or mark-read, so they commit or roll back with it. Each user's counters are also held
+ * in a bounded in-process cache that is loaded with one indexed query and then updated after every
+ * commit on this node, so badge reads need no database access. Changes made on another node reach this
+ * node's cache only when the entry expires, which bounds how stale a badge can be.
+ */
+@Slf4j
+@Service
+public class UnreadCounterService {
+
+    private final MessageRepository messageRepository;
+    private final int maxUsers;
+    private final Duration ttl;
+    private final Map<UUID, UserCounters> cache;
+
+    public UnreadCounterService(MessageRepository messageRepository,
+                                @Value("${chat.unread.cache-max-users:10000}") int maxUsers,
+                                @Value("${chat.unread.cache-ttl-seconds:60}") long ttlSeconds) {
+        this.messageRepository = messageRepository;
+        this.maxUsers = maxUsers;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, UserCounters> eldest) {
+                return size() > UnreadCounterService.this.maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Count a new message for its receiver; call inside the transaction that inserts the message
+     */
+    public void messageReceived(UUID conversationId, UUID receiverId) {
+        messageRepository.incrementUnreadCount(conversationId, receiverId);
+        afterCommit(() -> {
+            UserCounters counters = getCached(receiverId);
+            if (counters != null) {
+                counters.increment(conversationId);
+            }
+        });
+    }
+
+    /**
+     * Reset the reader's counter and mark the other side's messages as read. The counter row is locked
+     * first, so a message committed concurrently is either marked read here or counted afterwards.
+     */
+    public void markConversationRead(UUID conversationId, UUID readerId) {
+        messageRepository.resetUnreadCount(conversationId, readerId);
+        messageRepository.markMessagesAsRead(conversationId, readerId);
+        afterCommit(() -> {
+            UserCounters counters = getCached(readerId);
+            if (counters != null) {
+                counters.reset(conversationId);
+            }
+        });
+    }
+
+    /**
+     * Unread count per conversation for the user, only conversations with unread messages
+     */
+    public Map<UUID, Integer> getUnreadCounts(UUID userId) {
+        return load(userId).snapshot();
+    }
+
+    public int getTotalUnread(UUID userId) {
+        return load(userId).total();
+    }
+
+    private UserCounters load(UUID userId) {
+        UserCounters counters = getCached(userId);
+        if (counters != null) {
+            return counters;
+        }
+        counters = new UserCounters(System.currentTimeMillis());
+        for (Object[] row : messageRepository.findUnreadCountsByUserId(userId)) {
+            counters.set((UUID) row[0], ((Number) row[1]).intValue());
+        }
+        synchronized (cache) {
+            cache.put(userId, counters);
+        }
+        return counters;
+    }
+
+    private UserCounters getCached(UUID userId) {
+        synchronized (cache) {
+            UserCounters counters = cache.get(userId);
+            if (counters != null && System.currentTimeMillis() - counters.loadedAt > ttl.toMillis()) {
+                cache.remove(userId);
+                return null;
+            }
+            return counters;
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * One user's counters with a running total, so the badge total is not summed on every read
+     */
+    private static final class UserCounters {
+        private final long loadedAt;
+        private final Map<UUID, Integer> byConversation = new HashMap<>();
+        private int total;
+
+        UserCounters(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        synchronized void set(UUID conversationId, int count) {
+            Integer previous = count > 0 ? byConversation.put(conversationId, count) : byConversation.remove(conversationId);
+            total += count - (previous != null ? previous : 0);
+        }
+
+        synchronized void increment(UUID conversationId) {
+            byConversation.merge(conversationId, 1, Integer::sum);
+            total++;
+        }
+
+        synchronized void reset(UUID conversationId) {
+            set(conversationId, 0);
+        }
+
+        synchronized int total() {
+            return total;
+        }
+
+        synchronized Map<UUID, Integer> snapshot() {
+            return new HashMap<>(byConversation);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.be.util;
+
+/**
+ * Plain-double geometry helpers shared by the route search, bid scoring and tracking code.
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+    public static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * Great-circle distance between two points using the Haversine formula
+     */
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Distance from point P to segment AB in km.
+     * Uses a local equirectangular projection around P, which is accurate to well under 1%
+     * for the segment lengths we store (a few tens of km).
+     */
+    public static double pointToSegmentKm(double pLat, double pLng,
+                                          double aLat, double aLng,
+                                          double bLat, double bLng) {
+        double t = projectOntoSegment(pLat, pLng, aLat, aLng, bLat, bLng);
+        double cLat = aLat + t * (bLat - aLat);
+        double cLng = aLng + t * (bLng - aLng);
+        return haversineKm(pLat, pLng, cLat, cLng);
+    }
+
+    /**
+     * Position (0..1) of the point on segment AB closest to P, in the same local projection
+     * as {@link #pointToSegmentKm}.
+     */
+    public static double projectOntoSegment(double pLat, double pLng,
+                                            double aLat, double aLng,
+                                            double bLat, double bLng) {
+        double cosLat = Math.cos(Math.toRadians(pLat));
+        double ax = (aLng - pLng) * cosLat;
+        double ay = aLat - pLat;
+        double bx = (bLng - pLng) * cosLat;
+        double by = bLat - pLat;
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lenSq = dx * dx + dy * dy;
+        if (lenSq == 0) {
+            return 0;
+        }
+        double t = -(ax * dx + ay * dy) / lenSq;
+        return t < 0 ? 0 : (t > 1 ? 1 : t);
+    }
+
+    /**
+     * Degrees of longitude covering the given distance at the given latitude
+     */
+    public static double kmToLngDegrees(double km, double atLat) {
+        double cosLat = Math.max(Math.cos(Math.toRadians(atLat)), 0.01);
+        return km / (KM_PER_DEGREE_LAT * cosLat);
+    }
+
+    /**
+     * Degrees of latitude covering the given distance
+     */
+    public static double kmToLatDegrees(double km) {
+        return km / KM_PER_DEGREE_LAT;
+    }
+}
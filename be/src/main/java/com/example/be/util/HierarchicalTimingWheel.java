@@ -0,0 +1,142 @@
+package com.example.be.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel: deadlines keyed by K, with O(1) schedule/cancel and an advance that only
+ * touches the slots whose time has come.
+ *
+ * Level 0 has wheelSize slots of one tick each; every higher level has wheelSize slots that each span a
+ * full rotation of the level below. A deadline goes into the lowest level whose range covers it, and
+ * when a lower level wraps around, the matching slot of the level above is cascaded down. Levels are
+ * added on demand, so deadlines any distance in the future are accepted. Deadlines have tick resolution
+ * and fire on the first advance at or after them. Thread-safe.
+ */
+public final class HierarchicalTimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<List<Set<K>>> levels = new ArrayList<>();
+    private final Map<K, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMillis must be positive and wheelSize at least 2");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTick = startMillis / tickMillis;
+        addLevel();
+    }
+
+    /**
+     * Schedule key at deadlineMillis, replacing any deadline it already had. Returns false (and schedules
+     * nothing) if the deadline is not after the current tick; the caller should handle it as already due.
+     */
+    public synchronized boolean schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long deadlineTick = Math.floorDiv(deadlineMillis, tickMillis);
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        place(key, deadlineTick);
+        return true;
+    }
+
+    public synchronized boolean cancel(K key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        levels.get(entry.level).get(entry.slot).remove(key);
+        return true;
+    }
+
+    /**
+     * Move time forward to nowMillis and return the keys whose deadlines have passed, in deadline order
+     * (keys due in the same tick in insertion order). Moving backwards is a no-op.
+     */
+    public synchronized List<K> advanceTo(long nowMillis) {
+        List<K> due = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick && !entries.isEmpty()) {
+            currentTick++;
+            // Cascade from the top so entries can fall through several levels in one tick
+            for (int level = levels.size() - 1; level >= 1; level--) {
+                long span = span(level);
+                if (currentTick % span == 0) {
+                    Set<K> slot = levels.get(level).get((int) ((currentTick / span) % wheelSize));
+                    List<K> cascading = new ArrayList<>(slot);
+                    slot.clear();
+                    for (K key : cascading) {
+                        long deadlineTick = entries.remove(key).deadlineTick;
+                        if (deadlineTick <= currentTick) {
+                            due.add(key);
+                        } else {
+                            place(key, deadlineTick);
+                        }
+                    }
+                }
+            }
+            Set<K> slot = levels.get(0).get((int) (currentTick % wheelSize));
+            for (K key : slot) {
+                entries.remove(key);
+                due.add(key);
+            }
+            slot.clear();
+        }
+        // Nothing left to fire, so jump straight to the target
+        if (currentTick < targetTick) {
+            currentTick = targetTick;
+        }
+        return due;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    private void place(K key, long deadlineTick) {
+        int level = 0;
+        // Level l covers deadlines before the start of the current level-l slot plus a full rotation
+        while (deadlineTick >= Math.floorDiv(currentTick, span(level)) * span(level) + span(level) * wheelSize) {
+            level++;
+            if (level == levels.size()) {
+                addLevel();
+            }
+        }
+        int slot = (int) ((deadlineTick / span(level)) % wheelSize);
+        levels.get(level).get(slot).add(key);
+        entries.put(key, new Entry(deadlineTick, level, slot));
+    }
+
+    // Ticks covered by one slot of the given level
+    private long span(int level) {
+        long span = 1;
+        for (int i = 0; i < level; i++) {
+            span *= wheelSize;
+        }
+        return span;
+    }
+
+    private void addLevel() {
+        List<Set<K>> slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new LinkedHashSet<>());
+        }
+        levels.add(slots);
+    }
+
+    private record Entry(long deadlineTick, int level, int slot) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.be.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque cursor for keyset pagination over (timestamp, id) ordered tables.
+ * Encoded as URL-safe base64 of "epochSecond.nanos|uuid" so clients treat it as a token.
+ */
+public record KeysetCursor(ZonedDateTime timestamp, UUID id) {
+
+    public String encode() {
+        Instant instant = timestamp.toInstant();
+        String raw = instant.getEpochSecond() + "." + instant.getNano() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int bar = raw.indexOf('|');
+            int dot = raw.indexOf('.');
+            long seconds = Long.parseLong(raw.substring(0, dot));
+            int nanos = Integer.parseInt(raw.substring(dot + 1, bar));
+            ZonedDateTime timestamp = Instant.ofEpochSecond(seconds, nanos).atZone(ZoneOffset.UTC);
+            return new KeysetCursor(timestamp, UUID.fromString(raw.substring(bar + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.be.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta encoding for a delivery's GPS track, used for compacted location history.
+ *
+ * Latitude and longitude are stored as integers of 1e-7 degree (about 1 cm, within the 8 decimals
+ * of driver_location_updates) and times as milliseconds. Each array holds the first value followed
+ * by the difference to the previous point. Consecutive fixes are close together, so the deltas are
+ * small, and the arrays map directly to Postgres integer[] columns. Times are offsets from the track
+ * start, so a track must span less than about 24 days; compaction works one day at a time.
+ */
+public final class LocationTrackCodec {
+
+    private static final BigDecimal SCALE = BigDecimal.valueOf(10_000_000L);
+
+    /**
+     * One decoded point
+     */
+    public record Point(BigDecimal latitude, BigDecimal longitude, Instant recordedAt) {
+    }
+
+    /**
+     * Encoded track: start time plus delta arrays of equal length
+     */
+    public record Track(Instant startedAt, int[] latDeltas, int[] lngDeltas, int[] timeDeltasMs) {
+        public int size() {
+            return latDeltas.length;
+        }
+    }
+
+    private LocationTrackCodec() {
+    }
+
+    /**
+     * Encode points ordered by time (oldest first)
+     */
+    public static Track encode(List<Point> points) {
+        if (points.isEmpty()) {
+            throw new IllegalArgumentException("Cannot encode an empty track");
+        }
+        Instant startedAt = points.get(0).recordedAt();
+        int[] lat = new int[points.size()];
+        int[] lng = new int[points.size()];
+        int[] time = new int[points.size()];
+        int previousLat = 0;
+        int previousLng = 0;
+        long previousTime = startedAt.toEpochMilli();
+        for (int i = 0; i < points.size(); i++) {
+            Point point = points.get(i);
+            int latE7 = toE7(point.latitude());
+            int lngE7 = toE7(point.longitude());
+            long millis = point.recordedAt().toEpochMilli();
+            if (millis < previousTime) {
+                throw new IllegalArgumentException("Points must be ordered by time");
+            }
+            lat[i] = latE7 - previousLat;
+            lng[i] = lngE7 - previousLng;
+            time[i] = Math.toIntExact(millis - previousTime);
+            previousLat = latE7;
+            previousLng = lngE7;
+            previousTime = millis;
+        }
+        return new Track(startedAt, lat, lng, time);
+    }
+
+    public static List<Point> decode(Track track) {
+        List<Point> points = new ArrayList<>(track.size());
+        int lat = 0;
+        int lng = 0;
+        long millis = track.startedAt().toEpochMilli();
+        for (int i = 0; i < track.size(); i++) {
+            lat += track.latDeltas()[i];
+            lng += track.lngDeltas()[i];
+            millis += track.timeDeltasMs()[i];
+            points.add(new Point(fromE7(lat), fromE7(lng), Instant.ofEpochMilli(millis)));
+        }
+        return points;
+    }
+
+    private static int toE7(BigDecimal degrees) {
+        return degrees.multiply(SCALE).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    private static BigDecimal fromE7(int value) {
+        return BigDecimal.valueOf(value, 7).setScale(8, RoundingMode.UNNECESSARY);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.be.util;
+
+/**
+ * Streaming decoder for Google encoded polylines (precision 1e5).
+ *
+ * Reads one point per {@link #next()} straight from the CharSequence, so callers can walk a polyline
+ * of tens of thousands of points without allocating a point object or an intermediate list.
+ * A cursor can be reused for another polyline with {@link #reset(CharSequence)}; it is not thread-safe.
+ */
+public final class PolylineCursor {
+
+    private CharSequence encoded;
+    private int index;
+    private int latE5;
+    private int lngE5;
+    private boolean truncated;
+
+    public PolylineCursor(CharSequence encoded) {
+        reset(encoded);
+    }
+
+    public PolylineCursor reset(CharSequence encoded) {
+        this.encoded = encoded != null ? encoded : "";
+        this.index = 0;
+        this.latE5 = 0;
+        this.lngE5 = 0;
+        this.truncated = false;
+        return this;
+    }
+
+    /**
+     * Advance to the next point. Returns false at the end of the polyline, or if it ends part-way
+     * through a point, in which case {@link #isTruncated()} is set and the partial point is dropped.
+     */
+    public boolean next() {
+        int len = encoded.length();
+        if (index >= len) {
+            return false;
+        }
+        long dLat = readValue(len);
+        if (dLat == Long.MIN_VALUE) {
+            return false;
+        }
+        long dLng = readValue(len);
+        if (dLng == Long.MIN_VALUE) {
+            return false;
+        }
+        latE5 += (int) dLat;
+        lngE5 += (int) dLng;
+        return true;
+    }
+
+    public double lat() {
+        return latE5 / 1E5;
+    }
+
+    public double lng() {
+        return lngE5 / 1E5;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    // One zig-zag varint; Long.MIN_VALUE marks a value cut off by the end of input
+    private long readValue(int len) {
+        int result = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (index >= len) {
+                truncated = true;
+                return Long.MIN_VALUE;
+            }
+            b = encoded.charAt(index++) - 63;
+            result |= (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.be.util;
+
+/**
+ * Load carried on each segment of a route, with range-add and range-max in O(log S).
+ * Used by bid selection to check that a parcel fits on every segment it rides on,
+ * given the parcels already accepted on overlapping stretches of the route.
+ */
+public final class SegmentLoadTree {
+
+    private final int size;
+    private final double[] max;
+    private final double[] pending;
+
+    public SegmentLoadTree(int segments) {
+        this.size = Math.max(1, segments);
+        this.max = new double[4 * size];
+        this.pending = new double[4 * size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add amount to every segment in [from, to] (inclusive)
+     */
+    public void add(int from, int to, double amount) {
+        checkRange(from, to);
+        add(1, 0, size - 1, from, to, amount);
+    }
+
+    /**
+     * Highest load on any segment in [from, to] (inclusive)
+     */
+    public double max(int from, int to) {
+        checkRange(from, to);
+        return max(1, 0, size - 1, from, to);
+    }
+
+    private void add(int node, int lo, int hi, int from, int to, double amount) {
+        if (from <= lo && hi <= to) {
+            max[node] += amount;
+            pending[node] += amount;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        if (from <= mid) {
+            add(2 * node, lo, mid, from, to, amount);
+        }
+        if (to > mid) {
+            add(2 * node + 1, mid + 1, hi, from, to, amount);
+        }
+        max[node] = Math.max(max[2 * node], max[2 * node + 1]) + pending[node];
+    }
+
+    private double max(int node, int lo, int hi, int from, int to) {
+        if (from <= lo && hi <= to) {
+            return max[node];
+        }
+        int mid = (lo + hi) >>> 1;
+        double best = Double.NEGATIVE_INFINITY;
+        if (from <= mid) {
+            best = max(2 * node, lo, mid, from, to);
+        }
+        if (to > mid) {
+            best = Math.max(best, max(2 * node + 1, mid + 1, hi, from, to));
+        }
+        // Adds that covered this whole node were never pushed down, so apply them on the way up
+        return best + pending[node];
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to >= size || from > to) {
+            throw new IllegalArgumentException("Invalid segment range [" + from + ", " + to + "] for " + size + " segments");
+        }
+    }
+}
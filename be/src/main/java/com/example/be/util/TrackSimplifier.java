@@ -0,0 +1,111 @@
+package com.example.be.util;
+
+import java.util.Arrays;
+
+/**
+ * Reduces a GPS track before it is sent to a client.
+ *
+ * Both methods take points in time order and return the indices of the points to keep, ascending.
+ * The first and last point are always kept. Coordinates are packed {lat0, lng0, lat1, lng1, ...}
+ * like {@code PolylineService.decodeToArray}.
+ */
+public final class TrackSimplifier {
+
+    private TrackSimplifier() {
+    }
+
+    /**
+     * Keep the last point of every time bucket of the given length, counted from the first point
+     */
+    public static int[] downsampleByTime(long[] timesMs, long bucketMs) {
+        if (bucketMs <= 0) {
+            throw new IllegalArgumentException("Bucket length must be positive");
+        }
+        int n = timesMs.length;
+        if (n <= 2) {
+            return identity(n);
+        }
+        int[] kept = new int[n];
+        int count = 0;
+        kept[count++] = 0;
+        long start = timesMs[0];
+        for (int i = 1; i < n - 1; i++) {
+            // Last point of its bucket: the next point starts a later bucket
+            if ((timesMs[i + 1] - start) / bucketMs != (timesMs[i] - start) / bucketMs) {
+                kept[count++] = i;
+            }
+        }
+        kept[count++] = n - 1;
+        return Arrays.copyOf(kept, count);
+    }
+
+    /**
+     * Douglas-Peucker: keep the points that are further than the tolerance from the simplified line.
+     * Iterative, so a track of any length cannot overflow the stack.
+     */
+    public static int[] douglasPeucker(double[] coords, double toleranceKm) {
+        if (toleranceKm <= 0) {
+            throw new IllegalArgumentException("Tolerance must be positive");
+        }
+        int n = coords.length / 2;
+        if (n <= 2) {
+            return identity(n);
+        }
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        // Pending ranges as (first, last) pairs, grown on demand
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            double aLat = coords[2 * first];
+            double aLng = coords[2 * first + 1];
+            double bLat = coords[2 * last];
+            double bLng = coords[2 * last + 1];
+            double maxDistance = -1;
+            int farthest = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = GeoUtils.pointToSegmentKm(coords[2 * i], coords[2 * i + 1], aLat, aLng, bLat, bLng);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest < 0 || maxDistance <= toleranceKm) {
+                continue;
+            }
+            keep[farthest] = true;
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (farthest - first > 1) {
+                stack[top++] = first;
+                stack[top++] = farthest;
+            }
+            if (last - farthest > 1) {
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+        int[] kept = new int[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                kept[count++] = i;
+            }
+        }
+        return Arrays.copyOf(kept, count);
+    }
+
+    private static int[] identity(int n) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+}
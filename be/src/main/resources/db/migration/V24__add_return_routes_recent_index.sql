@@ -0,0 +1,2 @@
+-- Keyset index backing the paginated "recent routes" endpoint (ORDER BY created_at DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_return_routes_created_at_id ON return_routes(created_at DESC, id DESC);
@@ -0,0 +1,11 @@
+-- Persistent reverse-geocoding cache shared by GoogleMapsClient and GeocodingService.
+-- cell_key is the lat/lng quantised to ~100 m ("<lat*1000>:<lng*1000>").
+CREATE TABLE IF NOT EXISTS public.geocode_cache (
+  cell_key varchar(32) not null,
+  formatted_address text null,
+  locality_name varchar(255) null,
+  updated_at timestamp with time zone not null default CURRENT_TIMESTAMP,
+  constraint geocode_cache_pkey primary key (cell_key)
+) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_geocode_cache_updated_at ON geocode_cache(updated_at);
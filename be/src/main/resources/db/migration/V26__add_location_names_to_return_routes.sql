@@ -0,0 +1,4 @@
+-- Origin/destination names are resolved once after route creation instead of on every read
+ALTER TABLE public.return_routes
+ADD COLUMN IF NOT EXISTS origin_location_name VARCHAR(255) NULL,
+ADD COLUMN IF NOT EXISTS destination_location_name VARCHAR(255) NULL;
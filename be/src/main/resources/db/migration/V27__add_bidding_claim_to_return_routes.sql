@@ -0,0 +1,7 @@
+-- Lease taken by the node that is closing bidding on a route, so several backend instances
+-- can run the closing jobs without processing the same route twice
+ALTER TABLE return_routes ADD COLUMN IF NOT EXISTS bidding_claimed_by TEXT;
+ALTER TABLE return_routes ADD COLUMN IF NOT EXISTS bidding_claimed_until TIMESTAMPTZ;
+
+-- Due-route scans of both closing jobs filter on status and departure_time
+CREATE INDEX IF NOT EXISTS idx_return_routes_status_departure ON return_routes(status, departure_time);
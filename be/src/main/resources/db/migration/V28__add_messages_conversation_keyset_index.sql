@@ -0,0 +1,2 @@
+-- Keyset index for paging a conversation's messages by (created_at, id) in either direction
+CREATE INDEX IF NOT EXISTS idx_messages_conversation_created_at_id ON messages(conversation_id, created_at DESC, id DESC);
@@ -0,0 +1,2 @@
+-- Partial index for the per-conversation unread counts in the conversation lists; only unread rows are kept
+CREATE INDEX IF NOT EXISTS idx_messages_unread_conversation_sender ON messages(conversation_id, sender_id) WHERE is_read = false;
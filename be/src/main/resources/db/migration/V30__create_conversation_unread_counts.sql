@@ -0,0 +1,23 @@
+-- Per-(conversation, user) unread message counters, kept current on message insert and mark-read
+-- so inbox badges no longer count over messages.
+CREATE TABLE IF NOT EXISTS public.conversation_unread_counts (
+  conversation_id uuid not null,
+  user_id uuid not null,
+  unread_count integer not null default 0,
+  updated_at timestamp with time zone not null default CURRENT_TIMESTAMP,
+  constraint conversation_unread_counts_pkey primary key (conversation_id, user_id),
+  constraint conversation_unread_counts_conversation_id_fkey foreign key (conversation_id) references conversations (id) on delete cascade,
+  constraint conversation_unread_counts_user_id_fkey foreign key (user_id) references profiles (id) on delete cascade
+) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_conversation_unread_counts_user ON conversation_unread_counts(user_id) WHERE unread_count > 0;
+
+-- Backfill from existing messages: a participant's unread count is the other side's unread messages
+INSERT INTO conversation_unread_counts (conversation_id, user_id, unread_count)
+SELECT c.id, u.user_id, COUNT(m.id)
+FROM conversations c
+CROSS JOIN LATERAL (VALUES (c.customer_id), (c.driver_id)) AS u(user_id)
+JOIN messages m ON m.conversation_id = c.id AND m.sender_id <> u.user_id AND m.is_read = false
+WHERE u.user_id IS NOT NULL
+GROUP BY c.id, u.user_id
+ON CONFLICT (conversation_id, user_id) DO UPDATE SET unread_count = EXCLUDED.unread_count, updated_at = NOW();
@@ -0,0 +1,63 @@
+-- Location history in two tiers: recent fixes as raw rows in daily partitions of driver_location_updates,
+-- older fixes compacted by LocationTrackCompactionService into one driver_location_tracks row per
+-- delivery and day. Compacted days are removed by dropping their partition.
+
+-- Compacted tier: delta-encoded arrays (see LocationTrackCodec); lat/lng in 1e-7 degree, times in ms
+CREATE TABLE IF NOT EXISTS public.driver_location_tracks (
+  id uuid not null default gen_random_uuid(),
+  delivery_tracking_id uuid not null,
+  started_at timestamp with time zone not null,
+  ended_at timestamp with time zone not null,
+  point_count integer not null,
+  lat_deltas_e7 integer[] not null,
+  lng_deltas_e7 integer[] not null,
+  time_deltas_ms integer[] not null,
+  created_at timestamp with time zone not null default CURRENT_TIMESTAMP,
+  constraint driver_location_tracks_pkey primary key (id),
+  constraint driver_location_tracks_delivery_tracking_id_fkey foreign key (delivery_tracking_id) references delivery_tracking (id) on delete cascade
+) TABLESPACE pg_default;
+
+CREATE INDEX IF NOT EXISTS idx_driver_location_tracks_tracking_time ON driver_location_tracks(delivery_tracking_id, started_at);
+CREATE INDEX IF NOT EXISTS idx_driver_location_tracks_ended_at ON driver_location_tracks(ended_at);
+
+-- Hot tier: range-partitioned by day (UTC); the key has to include the partition column
+ALTER TABLE public.driver_location_updates RENAME TO driver_location_updates_unpartitioned;
+-- Renaming the table keeps its index names; free them for the new table (pkey from db/table.sql)
+ALTER TABLE public.driver_location_updates_unpartitioned
+  RENAME CONSTRAINT driver_location_updates_pkey TO driver_location_updates_unpartitioned_pkey;
+ALTER INDEX IF EXISTS public.idx_location_updates_tracking RENAME TO idx_location_updates_unpartitioned_tracking;
+ALTER INDEX IF EXISTS public.idx_location_updates_time RENAME TO idx_location_updates_unpartitioned_time;
+ALTER INDEX IF EXISTS public.idx_location_updates_tracking_time RENAME TO idx_location_updates_unpartitioned_tracking_time;
+ALTER INDEX IF EXISTS public.idx_location_updates_recorded_at RENAME TO idx_location_updates_unpartitioned_recorded_at;
+
+CREATE TABLE public.driver_location_updates (
+  id UUID NOT NULL DEFAULT gen_random_uuid(),
+  delivery_tracking_id UUID NOT NULL REFERENCES public.delivery_tracking(id) ON DELETE CASCADE,
+  latitude NUMERIC NOT NULL,
+  longitude NUMERIC NOT NULL,
+  recorded_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT driver_location_updates_pkey PRIMARY KEY (id, recorded_at)
+) PARTITION BY RANGE (recorded_at);
+
+-- Catches fixes outside the daily partitions (late device timestamps); compaction empties it
+CREATE TABLE IF NOT EXISTS public.driver_location_updates_default PARTITION OF public.driver_location_updates DEFAULT;
+
+-- Daily partitions for the last week and the week ahead; the compaction job keeps creating them ahead
+DO $$
+DECLARE
+  d date;
+BEGIN
+  FOR d IN SELECT generate_series(CURRENT_DATE - 7, CURRENT_DATE + 7, interval '1 day')::date LOOP
+    EXECUTE format('CREATE TABLE IF NOT EXISTS public.%I PARTITION OF public.driver_location_updates FOR VALUES FROM (%L) TO (%L)',
+                   'driver_location_updates_p' || to_char(d, 'YYYYMMDD'), d || ' 00:00:00+00', (d + 1) || ' 00:00:00+00');
+  END LOOP;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_location_updates_tracking_time ON public.driver_location_updates(delivery_tracking_id, recorded_at DESC);
+CREATE INDEX IF NOT EXISTS idx_location_updates_recorded_at ON public.driver_location_updates(recorded_at DESC);
+
+-- Older rows land in the default partition and are compacted by the next job run
+INSERT INTO public.driver_location_updates (id, delivery_tracking_id, latitude, longitude, recorded_at)
+SELECT id, delivery_tracking_id, latitude, longitude, recorded_at FROM public.driver_location_updates_unpartitioned;
+
+DROP TABLE public.driver_location_updates_unpartitioned;
@@ -0,0 +1,215 @@
+package com.example.be.service;
+
+import com.example.be.dto.BidDto;
+import com.example.be.dto.BidSelectionDto;
+import com.example.be.dto.BidSelectionResultDto;
+import com.example.be.dto.BidsAndRequestsResponse;
+import com.example.be.dto.ParcelRequestWithBidsDto;
+import com.example.be.model.Profile;
+import com.example.be.model.ReturnRoute;
+import com.example.be.model.RouteSegment;
+import com.example.be.model.Vehicle;
+import com.example.be.repository.ReturnRouteRepository;
+import com.example.be.repository.RouteSegmentRepository;
+import com.example.be.repository.VehicleRepository;
+import com.example.be.types.BidStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BidSelectionServiceTest {
+
+    @Mock
+    private GeocodingService geocodingService;
+
+    @Mock
+    private ReturnRouteRepository routeRepository;
+
+    @Mock
+    private VehicleRepository vehicleRepository;
+
+    @Mock
+    private RouteSegmentRepository segmentRepository;
+
+    private BidSelectionService bidSelectionService;
+    private ReturnRoute route;
+
+    @BeforeEach
+    void setUp() {
+        bidSelectionService = new BidSelectionService(geocodingService, routeRepository, vehicleRepository,
+                new RouteGeometryService(segmentRepository, 30),
+                List.of(new GreedyBidPackingSolver(), new BranchAndBoundBidPackingSolver(), new LocalSearchBidPackingSolver()));
+        ReflectionTestUtils.setField(bidSelectionService, "wPrice", 0.5);
+        ReflectionTestUtils.setField(bidSelectionService, "wVolume", 0.2);
+        ReflectionTestUtils.setField(bidSelectionService, "wDistance", 0.2);
+        ReflectionTestUtils.setField(bidSelectionService, "wDetour", 0.1);
+        ReflectionTestUtils.setField(bidSelectionService, "capacityC", 100.0);
+        ReflectionTestUtils.setField(bidSelectionService, "solverMode", "auto");
+        ReflectionTestUtils.setField(bidSelectionService, "timeBudgetMs", 1000L);
+        ReflectionTestUtils.setField(bidSelectionService, "exactMaxBids", 40);
+
+        Profile driver = new Profile();
+        driver.setId(UUID.randomUUID());
+        route = new ReturnRoute();
+        route.setId(UUID.randomUUID());
+        route.setDriver(driver);
+        when(routeRepository.findById(route.getId())).thenReturn(Optional.of(route));
+        lenient().when(geocodingService.getLocationNames(any())).thenReturn(new HashMap<>());
+    }
+
+    @Test
+    void testParcelFitsWhenOverlappingLoadsAreOnDifferentSegments() {
+        vehicle(10, 1000);
+        // A rides segments 0-1 and B 2-3; C (1-2) only ever shares a segment with one of them
+        List<BidSelectionDto> selected = bidSelectionService.selectOptimalBids(route.getId(), response(
+                bid(0, 1, 300, 6, 10),
+                bid(2, 3, 250, 6, 10),
+                bid(1, 2, 100, 4, 10)));
+
+        assertEquals(List.of(300.0, 250.0, 100.0), prices(selected));
+    }
+
+    @Test
+    void testRejectsParcelThatOverloadsOneSegment() {
+        vehicle(10, 1000);
+        List<BidSelectionDto> selected = bidSelectionService.selectOptimalBids(route.getId(), response(
+                bid(0, 1, 300, 6, 10),
+                bid(2, 3, 250, 6, 10),
+                bid(1, 2, 100, 5, 10)));
+
+        assertEquals(List.of(300.0, 250.0), prices(selected));
+    }
+
+    @Test
+    void testWeightIsCheckedAgainstVehicle() {
+        vehicle(100, 500);
+        List<BidSelectionDto> selected = bidSelectionService.selectOptimalBids(route.getId(), response(
+                bid(0, 2, 300, 1, 400),
+                bid(1, 3, 250, 1, 200),
+                bid(3, 4, 100, 1, 200)));
+
+        // Second parcel would put 600 kg on segment 1-2; the third starts where the first has left
+        assertEquals(List.of(300.0, 100.0), prices(selected));
+    }
+
+    @Test
+    void testExactSolverBeatsGreedyWhenLongHaulBlocksTwoShortBids() {
+        vehicle(10, 1000);
+        // The long-haul bid scores best, but the two short ones together pay more
+        BidsAndRequestsResponse response = response(
+                bid(0, 3, 300, 8, 10),
+                bid(0, 1, 200, 8, 10),
+                bid(2, 3, 200, 8, 10));
+
+        ReflectionTestUtils.setField(bidSelectionService, "solverMode", "greedy");
+        assertEquals(List.of(300.0), prices(bidSelectionService.selectOptimalBids(route.getId(), response)));
+
+        ReflectionTestUtils.setField(bidSelectionService, "solverMode", "auto");
+        BidSelectionResultDto result = bidSelectionService.selectOptimalBidsWithDetails(route.getId(), response);
+        assertEquals(List.of(200.0, 200.0), prices(result.getBids()));
+        assertEquals(BranchAndBoundBidPackingSolver.NAME, result.getSolver());
+        assertTrue(result.isProvenOptimal());
+        assertEquals(0.0, result.getObjectiveGap(), 1e-9);
+        assertEquals(300.0, result.getGreedyObjective(), 1e-9);
+
+        ReflectionTestUtils.setField(bidSelectionService, "solverMode", "local-search");
+        assertEquals(400.0, bidSelectionService.selectOptimalBidsWithDetails(route.getId(), response).getObjective(), 1e-9);
+    }
+
+    @Test
+    void testScoresUseSegmentDistancesAndDetour() {
+        vehicle(10, 1000);
+        // Four 25 km segments heading north from Colombo
+        List<RouteSegment> segments = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            RouteSegment segment = new RouteSegment();
+            segment.setSegmentIndex(i);
+            segment.setStartLat(BigDecimal.valueOf(6.9 + 0.225 * i));
+            segment.setStartLng(BigDecimal.valueOf(79.9));
+            segment.setEndLat(BigDecimal.valueOf(6.9 + 0.225 * (i + 1)));
+            segment.setEndLng(BigDecimal.valueOf(79.9));
+            segment.setDistanceKm(BigDecimal.valueOf(25));
+            segments.add(segment);
+        }
+        when(segmentRepository.findByRouteIdOrderBySegmentIndex(route.getId())).thenReturn(segments);
+
+        ParcelRequestWithBidsDto onRoute = bid(0, 1, 300, 1, 10);
+        onRoute.setPickupLat(BigDecimal.valueOf(6.9));
+        onRoute.setDropoffLat(BigDecimal.valueOf(7.35));
+        onRoute.setDropoffLng(BigDecimal.valueOf(79.9));
+        ParcelRequestWithBidsDto offRoute = bid(2, 3, 200, 1, 10);
+        offRoute.setPickupLat(BigDecimal.valueOf(7.35));
+        offRoute.setPickupLng(BigDecimal.valueOf(80.0));
+        offRoute.setDropoffLat(BigDecimal.valueOf(7.8));
+        offRoute.setDropoffLng(BigDecimal.valueOf(79.9));
+
+        List<BidSelectionDto> ranked = bidSelectionService.getAllBidsRanked(route.getId(), response(onRoute, offRoute));
+
+        BidSelectionDto first = ranked.get(0);
+        assertEquals(0.5, first.getNormalizedDistance(), 1e-9);
+        assertEquals(0.0, first.getDetourPercentage(), 1e-6);
+        // Pickup ~11 km east of the route: ~22 km out and back on a 100 km route
+        BidSelectionDto second = ranked.get(1);
+        assertEquals(0.5, second.getNormalizedDistance(), 1e-9);
+        assertEquals(0.22, second.getDetourPercentage(), 0.01);
+    }
+
+    private void vehicle(double maxVolumeM3, double maxWeightKg) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setMaxVolumeM3(BigDecimal.valueOf(maxVolumeM3));
+        vehicle.setMaxWeightKg(BigDecimal.valueOf(maxWeightKg));
+        when(vehicleRepository.findByDriverId(route.getDriver().getId())).thenReturn(List.of(vehicle));
+    }
+
+    private ParcelRequestWithBidsDto bid(int start, int end, double price, double volumeM3, double weightKg) {
+        BidDto bid = new BidDto();
+        bid.setId(UUID.randomUUID());
+        bid.setRouteId(route.getId());
+        bid.setStartIndex(start);
+        bid.setEndIndex(end);
+        bid.setOfferedPrice(BigDecimal.valueOf(price));
+        bid.setStatus(BidStatus.PENDING);
+
+        ParcelRequestWithBidsDto request = new ParcelRequestWithBidsDto();
+        request.setId(UUID.randomUUID());
+        request.setVolumeM3(BigDecimal.valueOf(volumeM3));
+        request.setWeightKg(BigDecimal.valueOf(weightKg));
+        request.setPickupLat(BigDecimal.valueOf(6.9));
+        request.setPickupLng(BigDecimal.valueOf(79.9));
+        request.setDropoffLat(BigDecimal.valueOf(7.3));
+        request.setDropoffLng(BigDecimal.valueOf(80.6));
+        request.setBids(List.of(bid));
+        return request;
+    }
+
+    private BidsAndRequestsResponse response(ParcelRequestWithBidsDto... requests) {
+        List<ParcelRequestWithBidsDto> list = new ArrayList<>(List.of(requests));
+        BidsAndRequestsResponse response = new BidsAndRequestsResponse();
+        response.setRouteId(route.getId());
+        response.setParcelRequestsWithBids(list);
+        response.setTotalParcelRequests(list.size());
+        response.setHighestBid(list.stream().map(r -> r.getBids().get(0).getOfferedPrice()).max(BigDecimal::compareTo).get());
+        response.setLowestBid(list.stream().map(r -> r.getBids().get(0).getOfferedPrice()).min(BigDecimal::compareTo).get());
+        return response;
+    }
+
+    private List<Double> prices(List<BidSelectionDto> selected) {
+        return selected.stream().map(b -> b.getOfferedPrice().doubleValue()).collect(Collectors.toList());
+    }
+}
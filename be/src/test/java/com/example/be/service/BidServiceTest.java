@@ -0,0 +1,104 @@
+package com.example.be.service;
+
+import com.example.be.dto.ParcelRequestWithBidsDto;
+import com.example.be.dto.RouteBidsAndRequestsDto;
+import com.example.be.repository.BidRepository;
+import com.example.be.repository.CustomerBidRepository;
+import com.example.be.repository.DeliveryTrackingRepository;
+import com.example.be.repository.ParcelRequestRepository;
+import com.example.be.repository.ProfileRepository;
+import com.example.be.repository.ReturnRouteRepository;
+import com.example.be.types.BidStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BidServiceTest {
+
+    @Mock
+    private BidRepository bidRepository;
+
+    @Mock
+    private CustomerBidRepository customerBidRepository;
+
+    @Mock
+    private ReturnRouteRepository returnRouteRepository;
+
+    @Mock
+    private ProfileRepository profileRepository;
+
+    @Mock
+    private ParcelRequestRepository parcelRequestRepository;
+
+    @Mock
+    private DeliveryTrackingRepository deliveryTrackingRepository;
+
+    private BidService bidService;
+
+    @BeforeEach
+    void setUp() {
+        bidService = new BidService(bidRepository, customerBidRepository, returnRouteRepository,
+                profileRepository, parcelRequestRepository, deliveryTrackingRepository);
+    }
+
+    @Test
+    void testGroupsBidRowsByRequestWithStatistics() {
+        UUID routeId = UUID.randomUUID();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(bidRepository.findRequestsWithBidsByRouteId(routeId, "PENDING")).thenReturn(List.of(
+                row(first, UUID.randomUUID(), "1000.00"),
+                row(first, UUID.randomUUID(), "1500.50"),
+                row(first, UUID.randomUUID(), "1200.00"),
+                row(second, UUID.randomUUID(), "800.00"),
+                // Request with bids on the route, none of them pending
+                row(third, null, null)));
+
+        RouteBidsAndRequestsDto result = bidService.getBidsAndRequestsByRouteId(routeId, BidStatus.PENDING);
+
+        assertEquals(3, result.getTotalParcelRequests());
+        assertEquals(4, result.getTotalBids());
+        assertEquals(new BigDecimal("1500.50"), result.getHighestBid());
+        assertEquals(new BigDecimal("800.00"), result.getLowestBid());
+        assertEquals(new BigDecimal("1125.13"), result.getAverageBid());
+
+        ParcelRequestWithBidsDto firstRequest = result.getParcelRequestsWithBids().get(0);
+        assertEquals(first, firstRequest.getId());
+        assertEquals(3, firstRequest.getTotalBids());
+        assertEquals(new BigDecimal("1233.50"), firstRequest.getAverageBid());
+        assertEquals(new BigDecimal("1000.00"), firstRequest.getLowestBid());
+        assertEquals(routeId, firstRequest.getBids().get(0).getRouteId());
+
+        ParcelRequestWithBidsDto thirdRequest = result.getParcelRequestsWithBids().get(2);
+        assertEquals(third, thirdRequest.getId());
+        assertTrue(thirdRequest.getBids().isEmpty());
+        assertEquals(BigDecimal.ZERO, thirdRequest.getHighestBid());
+        assertEquals(BigDecimal.ZERO, thirdRequest.getLowestBid());
+        assertEquals(BigDecimal.ZERO, thirdRequest.getAverageBid());
+    }
+
+    private Object[] row(UUID requestId, UUID bidId, String price) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new Object[]{
+                requestId, UUID.randomUUID(), new BigDecimal("6.9271"), new BigDecimal("79.8612"),
+                new BigDecimal("7.2906"), new BigDecimal("80.6337"), new BigDecimal("5.00"), new BigDecimal("0.10"),
+                "Books", new BigDecimal("3000.00"), now.plusDays(2), "OPEN", now, now,
+                "Nimal", "Perera", "nimal@example.com", "+94771234567",
+                bidId, bidId != null ? 0 : null, bidId != null ? 1 : null,
+                price != null ? new BigDecimal(price) : null, bidId != null ? "PENDING" : null,
+                bidId != null ? now : null, bidId != null ? now : null
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.be.service;
+
+import com.example.be.model.DeliveryTracking;
+import com.example.be.model.DriverLocationUpdate;
+import com.example.be.repository.DriverLocationUpdateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LatestPositionStoreTest {
+
+    @Mock
+    private DriverLocationUpdateRepository driverLocationUpdateRepository;
+
+    @Mock
+    private LocationIngestBuffer locationIngestBuffer;
+
+    @Mock
+    private LocationTrackCompactionService locationTrackCompactionService;
+
+    private LatestPositionStore store;
+
+    private final UUID trackingId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        store = new LatestPositionStore(driverLocationUpdateRepository, locationIngestBuffer,
+                locationTrackCompactionService, 60_000, 60);
+    }
+
+    @Test
+    void testServesStoredFixFromMemory() {
+        ZonedDateTime now = ZonedDateTime.now();
+        LocationIngestBuffer.Fix newer = fix(now, "6.90000000");
+        LocationIngestBuffer.Fix older = fix(now.minusSeconds(30), "6.80000000");
+
+        store.update(List.of(newer));
+        store.update(List.of(older));
+
+        Optional<DriverLocationUpdate> latest = store.getLatest(trackingId);
+        assertTrue(latest.isPresent());
+        assertEquals(newer.id(), latest.get().getId());
+        assertEquals(trackingId, latest.get().getDeliveryTracking().getId());
+        assertEquals(new BigDecimal("6.90000000"), latest.get().getLatitude());
+        verifyNoInteractions(driverLocationUpdateRepository);
+    }
+
+    @Test
+    void testLoadsFromDatabaseOnMissOnlyOnce() {
+        DriverLocationUpdate row = new DriverLocationUpdate();
+        row.setId(UUID.randomUUID());
+        row.setDeliveryTracking(new DeliveryTracking());
+        row.getDeliveryTracking().setId(trackingId);
+        row.setLatitude(new BigDecimal("6.92710000"));
+        row.setLongitude(new BigDecimal("79.86120000"));
+        row.setRecordedAt(ZonedDateTime.now());
+        when(driverLocationUpdateRepository.findLatestByDeliveryTrackingId(trackingId)).thenReturn(Optional.of(row));
+
+        assertEquals(row.getId(), store.getLatest(trackingId).orElseThrow().getId());
+        assertEquals(row.getId(), store.getLatest(trackingId).orElseThrow().getId());
+        verify(driverLocationUpdateRepository, times(1)).findLatestByDeliveryTrackingId(trackingId);
+    }
+
+    @Test
+    void testRemembersMissingFixUntilOneIsStored() {
+        when(driverLocationUpdateRepository.findLatestByDeliveryTrackingId(trackingId)).thenReturn(Optional.empty());
+
+        assertTrue(store.getLatest(trackingId).isEmpty());
+        verify(locationTrackCompactionService).findLatestCompactedFix(trackingId);
+        LocationIngestBuffer.Fix fix = fix(ZonedDateTime.now(), "6.90000000");
+        store.update(List.of(fix));
+
+        assertEquals(fix.id(), store.getLatest(trackingId).orElseThrow().getId());
+        verify(driverLocationUpdateRepository, times(1)).findLatestByDeliveryTrackingId(trackingId);
+    }
+
+    private LocationIngestBuffer.Fix fix(ZonedDateTime recordedAt, String latitude) {
+        return new LocationIngestBuffer.Fix(UUID.randomUUID(), trackingId,
+                new BigDecimal(latitude), new BigDecimal("79.86120000"), recordedAt);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.be.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationIngestBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private LocationIngestBuffer buffer;
+
+    private final UUID trackingId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        // Flusher thread is not started; tests drive flushNext directly
+        buffer = new LocationIngestBuffer(jdbcTemplate, transactionTemplate, 3, 10, 0, 1);
+    }
+
+    @Test
+    void testRejectsWholeBatchWhenBufferIsFull() {
+        assertNotNull(buffer.offer(List.of(fix(trackingId), fix(trackingId))));
+
+        assertNull(buffer.offer(List.of(fix(trackingId), fix(trackingId))));
+        assertEquals(2, buffer.getBufferedCount());
+        assertEquals(2, buffer.getRejectedCount());
+
+        assertNotNull(buffer.offer(List.of(fix(trackingId))));
+        assertEquals(3, buffer.getBufferedCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlushWritesKnownTrackingsAndFreesCapacity() throws Exception {
+        UUID unknownId = UUID.randomUUID();
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<Object>) inv.getArgument(0)).doInTransaction(null));
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class), any(RowMapper.class)))
+                .thenReturn(List.of(trackingId));
+
+        CompletableFuture<Void> known = buffer.offer(List.of(fix(trackingId), fix(trackingId)));
+        CompletableFuture<Void> unknown = buffer.offer(List.of(fix(unknownId)));
+
+        assertEquals(3, buffer.flushNext(0));
+
+        assertTrue(known.isDone() && !known.isCompletedExceptionally());
+        assertTrue(unknown.isCompletedExceptionally());
+        assertEquals(2, buffer.getWrittenCount());
+        assertEquals(1, buffer.getDroppedCount());
+        assertEquals(0, buffer.getBufferedCount());
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((BatchPreparedStatementSetter setter) -> setter.getBatchSize() == 2));
+    }
+
+    private static LocationIngestBuffer.Fix fix(UUID trackingId) {
+        return new LocationIngestBuffer.Fix(UUID.randomUUID(), trackingId,
+                new BigDecimal("6.92710000"), new BigDecimal("79.86120000"), ZonedDateTime.now());
+    }
+}
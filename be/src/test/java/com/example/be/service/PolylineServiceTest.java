@@ -0,0 +1,56 @@
+package com.example.be.service;
+
+import com.example.be.util.LatLng;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolylineServiceTest {
+
+    // Example from Google's encoded polyline documentation
+    private static final String POLYLINE = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+    private final PolylineService polylineService = new PolylineService();
+
+    @Test
+    void testDecodeMatchesReferencePoints() {
+        double[] coords = polylineService.decodeToArray(POLYLINE);
+
+        assertArrayEquals(new double[]{38.5, -120.2, 40.7, -120.95, 43.252, -126.453}, coords, 1e-9);
+        assertEquals(3, polylineService.decodePolyline(POLYLINE).size());
+    }
+
+    @Test
+    void testSampleKeepsEndpointsExactlyOnce() {
+        // Interval longer than the whole line: only first and last point
+        List<LatLng> sparse = polylineService.sampleByDistance(POLYLINE, 10_000);
+        assertEquals(2, sparse.size());
+        assertEquals(43.252, sparse.get(1).getLat(), 1e-9);
+
+        // Every point crosses the interval, so the last one must not be added twice
+        List<LatLng> dense = polylineService.sampleByDistance(POLYLINE, 1);
+        assertEquals(3, dense.size());
+    }
+
+    @Test
+    void testLengthAgreesWithSampledDistance() {
+        double length = polylineService.lengthKm(POLYLINE);
+
+        // 38.5,-120.2 -> 40.7,-120.95 -> 43.252,-126.453 is roughly 250 km + 540 km
+        assertTrue(length > 750 && length < 830, "unexpected length " + length);
+        assertEquals(0, polylineService.lengthKm(""));
+    }
+
+    @Test
+    void testTruncatedPolylineDropsPartialPoint() {
+        assertEquals(2, polylineService.decodePolyline(POLYLINE.substring(0, POLYLINE.length() - 2)).size());
+    }
+
+    @Test
+    void testEncodeMatchesReferencePolyline() {
+        assertEquals(POLYLINE, polylineService.encode(new double[]{38.5, -120.2, 40.7, -120.95, 43.252, -126.453}));
+        assertEquals("", polylineService.encode(new double[0]));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.be.service;
+
+import com.example.be.model.ReturnRoute;
+import com.example.be.repository.ReturnRouteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteBiddingClaimServiceTest {
+
+    @Mock
+    private ReturnRouteRepository routeRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private RouteBiddingClaimService claimService;
+
+    private final UUID firstRoute = UUID.randomUUID();
+    private final UUID secondRoute = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        claimService = new RouteBiddingClaimService(routeRepository, transactionTemplate, Runnable::run, 20, 10, 5);
+    }
+
+    @Test
+    void testLostClaimDoesNoWork() {
+        when(routeRepository.lockClaimedRoute(eq(firstRoute), anyString())).thenReturn(Optional.empty());
+        List<ReturnRoute> closed = new ArrayList<>();
+
+        int processed = claimService.processDueRoutes("test", limit -> List.of(firstRoute), closed::add);
+
+        assertEquals(0, processed);
+        assertTrue(closed.isEmpty());
+        verify(routeRepository).claimRoutesForBidding(eq(List.of(firstRoute)), anyString(), any());
+        verify(routeRepository, never()).releaseBiddingClaim(any());
+    }
+
+    @Test
+    void testFailedRouteKeepsItsClaimUntilTheLeaseExpires() {
+        when(routeRepository.lockClaimedRoute(eq(firstRoute), anyString())).thenReturn(Optional.of(route(firstRoute)));
+        when(routeRepository.lockClaimedRoute(eq(secondRoute), anyString())).thenReturn(Optional.of(route(secondRoute)));
+        Consumer<ReturnRoute> closeRoute = route -> {
+            if (route.getId().equals(firstRoute)) {
+                throw new IllegalStateException("boom");
+            }
+        };
+
+        int processed = claimService.processDueRoutes("test", limit -> List.of(firstRoute, secondRoute), closeRoute);
+
+        assertEquals(1, processed);
+        verify(routeRepository, never()).releaseBiddingClaim(firstRoute);
+        verify(routeRepository).releaseBiddingClaim(secondRoute);
+    }
+
+    @Test
+    void testRouteThatIsNotDueIsNotProcessed() {
+        List<ReturnRoute> closed = new ArrayList<>();
+
+        assertFalse(claimService.processRoute("test", firstRoute, List::of, closed::add));
+
+        assertTrue(closed.isEmpty());
+        verify(routeRepository, never()).claimRoutesForBidding(any(), anyString(), any());
+        verify(routeRepository, never()).lockClaimedRoute(any(), anyString());
+    }
+
+    private ReturnRoute route(UUID id) {
+        ReturnRoute route = new ReturnRoute();
+        route.setId(id);
+        return route;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.be.service;
+
+import com.example.be.model.ReturnRoute;
+import com.example.be.model.RouteSegment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteProgressServiceTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.parse("2026-10-01T08:00:00Z");
+
+    @Mock
+    private RouteGeometryService routeGeometryService;
+
+    @Mock
+    private LocationIngestBuffer locationIngestBuffer;
+
+    private RouteProgressService service;
+    private Consumer<List<LocationIngestBuffer.Fix>> storedListener;
+    private ReturnRoute route;
+
+    private final UUID trackingId = UUID.randomUUID();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new RouteProgressService(routeGeometryService, locationIngestBuffer, 0.3, 40, 60);
+        ArgumentCaptor<Consumer<List<LocationIngestBuffer.Fix>>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(locationIngestBuffer).addStoredListener(listener.capture());
+        storedListener = listener.getValue();
+
+        // Ten segments heading north, 0.01 degree (about 1.11 km) each
+        List<RouteSegment> segments = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            RouteSegment segment = new RouteSegment();
+            segment.setSegmentIndex(i);
+            segment.setStartLat(BigDecimal.valueOf(7.0 + i * 0.01));
+            segment.setStartLng(BigDecimal.valueOf(80.0));
+            segment.setEndLat(BigDecimal.valueOf(7.0 + (i + 1) * 0.01));
+            segment.setEndLng(BigDecimal.valueOf(80.0));
+            segments.add(segment);
+        }
+        route = new ReturnRoute();
+        route.setId(UUID.randomUUID());
+        route.setDetourToleranceKm(BigDecimal.ONE);
+        lenient().when(routeGeometryService.getGeometry(any())).thenReturn(RouteGeometryService.RouteGeometry.of(segments));
+    }
+
+    @Test
+    void testAdvancesCursorAndEstimatesArrivalFromSpeed() {
+        service.getProgress(trackingId, route, BigDecimal.valueOf(7.08), BigDecimal.valueOf(80.0), fix(7.005, 80.0, 0));
+
+        // One segment per minute, about 67 km/h
+        for (int minute = 1; minute <= 4; minute++) {
+            storedListener.accept(List.of(fix(7.005 + minute * 0.01, 80.0, minute * 60)));
+        }
+
+        RouteProgressService.Snapshot progress = service.getProgress(trackingId, route, null, null, null).orElseThrow();
+        assertEquals(4, progress.segmentIndex());
+        assertEquals(10, progress.segmentCount());
+        assertFalse(progress.offRoute());
+        // From 7.045 to the dropoff at 7.08 is 3.5 segments, i.e. 3.5 minutes at the observed speed
+        assertEquals(3.9, progress.distanceRemainingKm(), 0.05);
+        assertEquals(START.plusSeconds(240 + 210).toEpochSecond(), progress.estimatedArrival().toEpochSecond(), 5);
+        verify(routeGeometryService, times(1)).getGeometry(any());
+    }
+
+    @Test
+    void testFlagsDeviationBeyondToleranceAndIgnoresOlderFixes() {
+        service.getProgress(trackingId, route, null, null, fix(7.015, 80.0, 0));
+
+        // About 2.2 km east of the route, beyond the 1 km tolerance
+        storedListener.accept(List.of(fix(7.025, 80.02, 60)));
+        assertTrue(service.getProgress(trackingId, route, null, null, null).orElseThrow().offRoute());
+
+        // Rejoins several segments ahead; a late fix from before the detour changes nothing
+        storedListener.accept(List.of(fix(7.075, 80.0, 180), fix(7.02, 80.0, 30)));
+        RouteProgressService.Snapshot progress = service.getProgress(trackingId, route, null, null, null).orElseThrow();
+        assertFalse(progress.offRoute());
+        assertEquals(7, progress.segmentIndex());
+    }
+
+    @Test
+    void testUnregisteredDeliveriesAreIgnored() {
+        storedListener.accept(List.of(fix(7.005, 80.0, 0)));
+
+        assertEquals(0, service.size());
+    }
+
+    private LocationIngestBuffer.Fix fix(double lat, double lng, long secondsFromStart) {
+        return new LocationIngestBuffer.Fix(UUID.randomUUID(), trackingId, BigDecimal.valueOf(lat),
+                BigDecimal.valueOf(lng), START.plusSeconds(secondsFromStart));
+    }
+}
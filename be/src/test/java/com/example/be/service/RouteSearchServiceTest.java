@@ -0,0 +1,156 @@
+package com.example.be.service;
+
+import com.example.be.dto.RouteSearchRequestDTO;
+import com.example.be.dto.RouteSearchResponseDTO;
+import com.example.be.model.Profile;
+import com.example.be.model.ReturnRoute;
+import com.example.be.model.RouteSegment;
+import com.example.be.repository.ReturnRouteRepository;
+import com.example.be.repository.RouteSegmentRepository;
+import com.example.be.types.RouteStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class RouteSearchServiceTest {
+
+    @Mock
+    private ReturnRouteRepository routeRepo;
+
+    @Mock
+    private RouteSegmentRepository segRepo;
+
+    private RouteSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new RouteSearchService(routeRepo, segRepo, 0.05, 5.0, 100.0, 50);
+    }
+
+    @Test
+    void testFindsRoutePassingNearPickupAndDropoff() {
+        // Colombo -> Kandy, roughly along the A1
+        ReturnRoute route = route(RouteStatus.OPEN, ZonedDateTime.now().plusDays(1));
+        searchService.indexRoute(route, segments(route,
+                new double[][]{{6.9271, 79.8612}, {7.0900, 80.0300}, {7.2906, 80.6337}}));
+
+        RouteSearchRequestDTO request = request(6.93, 79.87, 7.28, 80.62);
+        List<RouteSearchResponseDTO> results = searchService.search(request);
+
+        assertEquals(1, results.size());
+        assertEquals(route.getId(), results.get(0).getRouteId());
+        assertEquals(0, results.get(0).getPickupSegmentIndex());
+        assertEquals(1, results.get(0).getDropoffSegmentIndex());
+    }
+
+    @Test
+    void testSkipsWrongDirectionAndFarAwayRoutes() {
+        ReturnRoute route = route(RouteStatus.OPEN, ZonedDateTime.now().plusDays(1));
+        searchService.indexRoute(route, segments(route,
+                new double[][]{{6.9271, 79.8612}, {7.0900, 80.0300}, {7.2906, 80.6337}}));
+
+        // Kandy -> Colombo is the opposite direction of travel
+        assertTrue(searchService.search(request(7.28, 80.62, 6.93, 79.87)).isEmpty());
+        // Galle is nowhere near the route
+        assertTrue(searchService.search(request(6.0535, 80.2210, 7.28, 80.62)).isEmpty());
+    }
+
+    @Test
+    void testRemovedAndBookedRoutesAreNotReturned() {
+        ReturnRoute route = route(RouteStatus.OPEN, ZonedDateTime.now().plusDays(1));
+        searchService.indexRoute(route, segments(route,
+                new double[][]{{6.9271, 79.8612}, {7.2906, 80.6337}}));
+        assertEquals(1, searchService.getIndexedRouteCount());
+
+        route.setStatus(RouteStatus.BOOKED);
+        searchService.refreshRoute(route);
+        assertEquals(0, searchService.getIndexedRouteCount());
+        assertTrue(searchService.search(request(6.93, 79.87, 7.28, 80.62)).isEmpty());
+    }
+
+    @Test
+    void testDepartureWindowIsApplied() {
+        ZonedDateTime departure = ZonedDateTime.now().plusDays(2);
+        ReturnRoute route = route(RouteStatus.INITIATED, departure);
+        searchService.indexRoute(route, segments(route,
+                new double[][]{{6.9271, 79.8612}, {7.2906, 80.6337}}));
+
+        RouteSearchRequestDTO request = request(6.93, 79.87, 7.28, 80.62);
+        request.setDepartureTo(departure.minusDays(1));
+        assertTrue(searchService.search(request).isEmpty());
+
+        request.setDepartureTo(departure.plusHours(1));
+        assertEquals(1, searchService.search(request).size());
+    }
+
+    @Test
+    void testRejectsDetourAboveConfiguredMaximum() {
+        RouteSearchRequestDTO request = request(6.93, 79.87, 7.28, 80.62);
+        request.setMaxDetourKm(BigDecimal.valueOf(10_000));
+
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(request));
+    }
+
+    @Test
+    void testRejectsCoordinatesOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(request(2e8, 79.87, 7.28, 80.62)));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(request(6.93, 79.87, 7.28, -180.5)));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(request(-90.01, 79.87, 7.28, 80.62)));
+
+        RouteSearchRequestDTO huge = request(6.93, 79.87, 7.28, 80.62);
+        huge.setPickupLng(new BigDecimal("1e400"));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search(huge));
+    }
+
+    private ReturnRoute route(RouteStatus status, ZonedDateTime departure) {
+        Profile driver = new Profile();
+        driver.setId(UUID.randomUUID());
+        ReturnRoute route = new ReturnRoute();
+        route.setId(UUID.randomUUID());
+        route.setDriver(driver);
+        route.setStatus(status);
+        route.setDepartureTime(departure);
+        route.setDetourToleranceKm(BigDecimal.ZERO);
+        return route;
+    }
+
+    private List<RouteSegment> segments(ReturnRoute route, double[][] points) {
+        route.setOriginLat(BigDecimal.valueOf(points[0][0]));
+        route.setOriginLng(BigDecimal.valueOf(points[0][1]));
+        route.setDestinationLat(BigDecimal.valueOf(points[points.length - 1][0]));
+        route.setDestinationLng(BigDecimal.valueOf(points[points.length - 1][1]));
+
+        List<RouteSegment> segments = new ArrayList<>();
+        for (int i = 0; i < points.length - 1; i++) {
+            RouteSegment segment = new RouteSegment();
+            segment.setRoute(route);
+            segment.setSegmentIndex(i);
+            segment.setStartLat(BigDecimal.valueOf(points[i][0]));
+            segment.setStartLng(BigDecimal.valueOf(points[i][1]));
+            segment.setEndLat(BigDecimal.valueOf(points[i + 1][0]));
+            segment.setEndLng(BigDecimal.valueOf(points[i + 1][1]));
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    private RouteSearchRequestDTO request(double pickupLat, double pickupLng, double dropoffLat, double dropoffLng) {
+        RouteSearchRequestDTO request = new RouteSearchRequestDTO();
+        request.setPickupLat(BigDecimal.valueOf(pickupLat));
+        request.setPickupLng(BigDecimal.valueOf(pickupLng));
+        request.setDropoffLat(BigDecimal.valueOf(dropoffLat));
+        request.setDropoffLng(BigDecimal.valueOf(dropoffLng));
+        return request;
+    }
+}
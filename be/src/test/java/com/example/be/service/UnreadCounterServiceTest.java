@@ -0,0 +1,72 @@
+package com.example.be.service;
+
+import com.example.be.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UnreadCounterServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    private UnreadCounterService unreadCounterService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID firstConversation = UUID.randomUUID();
+    private final UUID secondConversation = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        unreadCounterService = new UnreadCounterService(messageRepository, 100, 60);
+    }
+
+    @Test
+    void testLoadsCountersOnceAndServesFromCache() {
+        when(messageRepository.findUnreadCountsByUserId(userId)).thenReturn(List.of(
+                new Object[]{firstConversation, 3},
+                new Object[]{secondConversation, 2}));
+
+        assertEquals(5, unreadCounterService.getTotalUnread(userId));
+        assertEquals(Map.of(firstConversation, 3, secondConversation, 2), unreadCounterService.getUnreadCounts(userId));
+        verify(messageRepository, times(1)).findUnreadCountsByUserId(userId);
+    }
+
+    @Test
+    void testWritesThroughAndUpdatesCachedCounters() {
+        when(messageRepository.findUnreadCountsByUserId(userId)).thenReturn(List.<Object[]>of(
+                new Object[]{firstConversation, 1}));
+        unreadCounterService.getTotalUnread(userId);
+
+        unreadCounterService.messageReceived(secondConversation, userId);
+        unreadCounterService.messageReceived(secondConversation, userId);
+        assertEquals(3, unreadCounterService.getTotalUnread(userId));
+
+        unreadCounterService.markConversationRead(firstConversation, userId);
+        assertEquals(2, unreadCounterService.getTotalUnread(userId));
+        assertEquals(Map.of(secondConversation, 2), unreadCounterService.getUnreadCounts(userId));
+
+        verify(messageRepository, times(2)).incrementUnreadCount(secondConversation, userId);
+        verify(messageRepository).resetUnreadCount(firstConversation, userId);
+        verify(messageRepository).markMessagesAsRead(firstConversation, userId);
+        verify(messageRepository, times(1)).findUnreadCountsByUserId(userId);
+    }
+
+    @Test
+    void testUncachedUserIsNotLoadedOnWrite() {
+        unreadCounterService.messageReceived(firstConversation, userId);
+
+        verify(messageRepository).incrementUnreadCount(firstConversation, userId);
+        verify(messageRepository, never()).findUnreadCountsByUserId(userId);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.be.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void testFiresEachKeyOnceAtItsDeadline() {
+        // 1 s ticks, 8 slots: level 0 covers 8 s, level 1 64 s, level 2 512 s
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 8, 0);
+        assertTrue(wheel.schedule("soon", 3_000));
+        assertTrue(wheel.schedule("minute", 61_000));
+        assertTrue(wheel.schedule("later", 400_000));
+
+        assertEquals(List.of(), wheel.advanceTo(2_999));
+        assertEquals(List.of("soon"), wheel.advanceTo(3_000));
+        assertEquals(List.of(), wheel.advanceTo(60_999));
+        assertEquals(List.of("minute"), wheel.advanceTo(61_500));
+
+        // A large jump still fires everything that came due, cascading through the levels
+        assertEquals(List.of("later"), wheel.advanceTo(1_000_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testRescheduleAndCancel() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 8, 0);
+        wheel.schedule("route", 10_000);
+        wheel.schedule("route", 20_000);
+        wheel.schedule("deleted", 15_000);
+        assertTrue(wheel.cancel("deleted"));
+        assertFalse(wheel.cancel("deleted"));
+
+        List<String> fired = new ArrayList<>();
+        for (long now = 0; now <= 30_000; now += 500) {
+            fired.addAll(wheel.advanceTo(now));
+        }
+        assertEquals(List.of("route"), fired);
+    }
+
+    @Test
+    void testPastDeadlineIsNotScheduled() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 8, 50_000);
+        assertFalse(wheel.schedule("overdue", 49_000));
+        assertFalse(wheel.contains("overdue"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.be.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationTrackCodecTest {
+
+    @Test
+    void testRoundTripsTrackWithSmallDeltas() {
+        Instant start = Instant.parse("2026-10-01T08:00:00.250Z");
+        List<LocationTrackCodec.Point> points = List.of(
+                point("6.92710000", "79.86120000", start),
+                point("6.92715000", "79.86131000", start.plusMillis(5_000)),
+                point("6.92690000", "79.86100000", start.plusMillis(9_500)),
+                point("-33.86880000", "-151.20930000", start.plusSeconds(3_600)));
+
+        LocationTrackCodec.Track track = LocationTrackCodec.encode(points);
+
+        assertEquals(4, track.size());
+        assertEquals(69_271_000, track.latDeltas()[0]);
+        assertEquals(500, track.latDeltas()[1]);
+        assertEquals(5_000, track.timeDeltasMs()[1]);
+        assertEquals(points, LocationTrackCodec.decode(track));
+    }
+
+    @Test
+    void testRoundsToTenthOfMicrodegree() {
+        Instant start = Instant.parse("2026-10-01T08:00:00Z");
+        LocationTrackCodec.Track track = LocationTrackCodec.encode(List.of(point("6.92710006", "79.86120004", start)));
+
+        LocationTrackCodec.Point decoded = LocationTrackCodec.decode(track).get(0);
+        assertEquals(new BigDecimal("6.92710010"), decoded.latitude());
+        assertEquals(new BigDecimal("79.86120000"), decoded.longitude());
+    }
+
+    @Test
+    void testRejectsUnorderedOrEmptyTracks() {
+        Instant start = Instant.parse("2026-10-01T08:00:00Z");
+        assertThrows(IllegalArgumentException.class, () -> LocationTrackCodec.encode(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> LocationTrackCodec.encode(List.of(
+                point("6.9", "79.8", start), point("6.9", "79.8", start.minusSeconds(1)))));
+    }
+
+    private static LocationTrackCodec.Point point(String lat, String lng, Instant at) {
+        return new LocationTrackCodec.Point(new BigDecimal(lat), new BigDecimal(lng), at);
+    }
+}
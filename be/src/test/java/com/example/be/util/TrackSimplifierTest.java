@@ -0,0 +1,32 @@
+package com.example.be.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackSimplifierTest {
+
+    @Test
+    void testDouglasPeuckerDropsPointsWithinTolerance() {
+        // Straight line north with a 1 m wobble, then a right-angle turn east
+        double[] coords = {
+                6.9000, 79.8600,
+                6.9010, 79.86001,
+                6.9020, 79.8600,
+                6.9030, 79.8600,
+                6.9030, 79.8610,
+                6.9030, 79.8620};
+
+        assertArrayEquals(new int[]{0, 3, 5}, TrackSimplifier.douglasPeucker(coords, 0.01));
+        // Tolerance below the wobble keeps it
+        assertArrayEquals(new int[]{0, 1, 2, 3, 5}, TrackSimplifier.douglasPeucker(coords, 0.0003));
+    }
+
+    @Test
+    void testDownsampleKeepsLastPointPerBucketAndEndpoints() {
+        long[] times = {0, 2_000, 4_000, 11_000, 12_000, 25_000, 26_000};
+
+        assertArrayEquals(new int[]{0, 2, 4, 6}, TrackSimplifier.downsampleByTime(times, 10_000));
+        assertArrayEquals(new int[]{0, 1}, TrackSimplifier.downsampleByTime(new long[]{0, 1}, 10_000));
+    }
+}